@@ -1,5 +1,7 @@
 -- Script di inizializzazione - Crea 2 database separati
 -- Viene eseguito automaticamente al primo avvio del container MySQL
+-- Le modifiche allo schema vanno riportate anche in src/main/resources/db/schema-upgrade.sql,
+-- che aggiorna i database creati con una versione precedente di questo script
 
 -- ==================================================
 -- CREAZIONE DATABASE SEPARATI
@@ -66,14 +68,18 @@ CREATE TABLE IF NOT EXISTS ingredient (
     unit VARCHAR(20),
     description TEXT,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    usage_count BIGINT NOT NULL DEFAULT 0, -- righe di cocktail_ingredient che lo usano (contatore)
+    abv DECIMAL(5,2) NULL,                 -- gradazione in % vol (NULL/0 = analcolico)
     INDEX idx_name (name),
-    INDEX idx_category (category)
+    INDEX idx_category (category),
+    INDEX idx_usage_count (usage_count)    -- ingredienti più usati (ORDER BY usage_count DESC LIMIT k)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 -- ==================================================
 -- TABELLA COCKTAILS
 -- ==================================================
 -- Nota: NON ha più la colonna "ingredients" (ora è una relazione)
+-- total_volume_ml e abv dei dati di esempio restano NULL: li calcola l'applicazione all'avvio
 CREATE TABLE IF NOT EXISTS cocktail (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     name VARCHAR(100) NOT NULL UNIQUE,
@@ -85,8 +91,13 @@ CREATE TABLE IF NOT EXISTS cocktail (
     alcoholic BOOLEAN DEFAULT TRUE,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0, -- lock ottimistico (@Version), esposto come ETag
+    total_volume_ml DECIMAL(10,2) NULL,   -- volume stimato (somma di cocktail_ingredient.volume_ml)
+    abv DECIMAL(5,2) NULL,                -- gradazione stimata, media pesata sul volume
     INDEX idx_category (category),
-    INDEX idx_name (name)
+    INDEX idx_name (name),
+    INDEX idx_abv (abv),
+    INDEX idx_total_volume (total_volume_ml)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 -- ==================================================
@@ -98,7 +109,10 @@ CREATE TABLE IF NOT EXISTS cocktail_ingredient (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     cocktail_id BIGINT NOT NULL,
     ingredient_id BIGINT NOT NULL,
-    quantity VARCHAR(50) NOT NULL,
+    quantity VARCHAR(50) NOT NULL,  -- testo originale (es: "1 1/2 oz")
+    amount DECIMAL(10,3) NULL,       -- valore numerico interpretato (NULL per "q.b.", "top", ...)
+    unit VARCHAR(20) NULL,           -- unità normalizzata (ml, oz, cucchiaino, pezzo, ...)
+    volume_ml DECIMAL(10,2) NULL,    -- volume in ml (solo unità di volume)
     FOREIGN KEY (cocktail_id) REFERENCES cocktail(id) ON DELETE CASCADE,
     FOREIGN KEY (ingredient_id) REFERENCES ingredient(id) ON DELETE RESTRICT,
     INDEX idx_cocktail (cocktail_id),
@@ -114,55 +128,81 @@ CREATE TABLE IF NOT EXISTS favorite (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     user_id VARCHAR(255) NOT NULL,
     cocktail_id BIGINT NOT NULL,
+    color_id BIGINT NULL,            -- colore personalizzato (NULL = colore di default)
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    sync_version BIGINT NOT NULL DEFAULT 0, -- versione dell'utente all'ultima aggiunta/cambio colore
     FOREIGN KEY (cocktail_id) REFERENCES cocktail(id) ON DELETE CASCADE,
+    FOREIGN KEY (color_id) REFERENCES color(id) ON DELETE SET NULL,
     UNIQUE KEY unique_user_cocktail (user_id, cocktail_id),
     INDEX idx_user (user_id),
-    INDEX idx_cocktail (cocktail_id)
+    INDEX idx_cocktail (cocktail_id),
+    INDEX idx_user_sync_version (user_id, sync_version)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ==================================================
+-- SINCRONIZZAZIONE INCREMENTALE DEI PREFERITI
+-- ==================================================
+-- Versione dei preferiti di ogni utente, incrementata da ogni modifica
+CREATE TABLE IF NOT EXISTS user_favorite_version (
+    user_id VARCHAR(255) PRIMARY KEY,
+    version BIGINT NOT NULL,
+    pruned_version BIGINT NOT NULL DEFAULT 0  -- ultima versione le cui tombstone sono state eliminate
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Preferiti rimossi (tombstone), conservati per cocktail.favorites.tombstone-retention
+-- cocktail_id non è FK: la riga resta anche dopo l'eliminazione del cocktail
+CREATE TABLE IF NOT EXISTS favorite_tombstone (
+    user_id VARCHAR(255) NOT NULL,
+    cocktail_id BIGINT NOT NULL,
+    sync_version BIGINT NOT NULL,
+    removed_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (user_id, cocktail_id),
+    INDEX idx_user_sync_version (user_id, sync_version),
+    INDEX idx_removed_at (removed_at)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 -- ==================================================
 -- DATI DI ESEMPIO - INGREDIENTI
 -- ==================================================
 
-INSERT INTO ingredient (name, category, unit) VALUES
+INSERT INTO ingredient (name, category, unit, abv) VALUES
 -- Spiriti
-('Rum Bianco', 'Spiriti', 'ml'),
-('Rum Scuro', 'Spiriti', 'ml'),
-('Gin', 'Spiriti', 'ml'),
-('Vodka', 'Spiriti', 'ml'),
-('Tequila', 'Spiriti', 'ml'),
-('Campari', 'Spiriti', 'ml'),
-('Vermouth Rosso', 'Spiriti', 'ml'),
-('Triple Sec', 'Spiriti', 'ml'),
-('Aperol', 'Spiriti', 'ml'),
+('Rum Bianco', 'Spiriti', 'ml', 40),
+('Rum Scuro', 'Spiriti', 'ml', 40),
+('Gin', 'Spiriti', 'ml', 40),
+('Vodka', 'Spiriti', 'ml', 40),
+('Tequila', 'Spiriti', 'ml', 38),
+('Campari', 'Spiriti', 'ml', 25),
+('Vermouth Rosso', 'Spiriti', 'ml', 16),
+('Triple Sec', 'Spiriti', 'ml', 40),
+('Aperol', 'Spiriti', 'ml', 11),
 
 -- Frutta e Succhi
-('Lime', 'Frutta', 'pezzi'),
-('Limone', 'Frutta', 'pezzi'),
-('Arancia', 'Frutta', 'pezzi'),
-('Succo di Lime', 'Succhi', 'ml'),
-('Succo di Limone', 'Succhi', 'ml'),
-('Succo di Pomodoro', 'Succhi', 'ml'),
+('Lime', 'Frutta', 'pezzi', NULL),
+('Limone', 'Frutta', 'pezzi', NULL),
+('Arancia', 'Frutta', 'pezzi', NULL),
+('Succo di Lime', 'Succhi', 'ml', NULL),
+('Succo di Limone', 'Succhi', 'ml', NULL),
+('Succo di Pomodoro', 'Succhi', 'ml', NULL),
 
 -- Erbe e Spezie
-('Menta', 'Erbe', 'foglie'),
-('Basilico', 'Erbe', 'foglie'),
-('Salsa Worcestershire', 'Condimenti', 'gocce'),
-('Tabasco', 'Condimenti', 'gocce'),
-('Sale', 'Spezie', 'pizzico'),
-('Pepe', 'Spezie', 'pizzico'),
+('Menta', 'Erbe', 'foglie', NULL),
+('Basilico', 'Erbe', 'foglie', NULL),
+('Salsa Worcestershire', 'Condimenti', 'gocce', NULL),
+('Tabasco', 'Condimenti', 'gocce', NULL),
+('Sale', 'Spezie', 'pizzico', NULL),
+('Pepe', 'Spezie', 'pizzico', NULL),
 
 -- Dolcificanti
-('Zucchero', 'Dolcificanti', 'cucchiaini'),
-('Zucchero di Canna', 'Dolcificanti', 'cucchiaini'),
-('Sciroppo di Zucchero', 'Dolcificanti', 'ml'),
+('Zucchero', 'Dolcificanti', 'cucchiaini', NULL),
+('Zucchero di Canna', 'Dolcificanti', 'cucchiaini', NULL),
+('Sciroppo di Zucchero', 'Dolcificanti', 'ml', NULL),
 
 -- Bibite
-('Soda', 'Bibite', 'ml'),
-('Acqua Tonica', 'Bibite', 'ml'),
-('Ginger Beer', 'Bibite', 'ml'),
-('Prosecco', 'Vini', 'ml');
+('Soda', 'Bibite', 'ml', NULL),
+('Acqua Tonica', 'Bibite', 'ml', NULL),
+('Ginger Beer', 'Bibite', 'ml', NULL),
+('Prosecco', 'Vini', 'ml', 11);
 
 -- ==================================================
 -- DATI DI ESEMPIO - COCKTAILS
@@ -282,6 +322,7 @@ INSERT INTO color (name, hex_code, description) VALUES
 --   2. cocktail: Cocktail disponibili (5 esempi)
 --   3. cocktail_ingredient: Relazione cocktail-ingredienti con quantità
 --   4. favorite: Preferiti degli utenti (user_id dal JWT Keycloak)
+--   5. user_favorite_version, favorite_tombstone: sincronizzazione incrementale dei preferiti
 --
 --   Relazioni:
 --   - cocktail 1:N cocktail_ingredient N:1 ingredient (Many-to-Many)
@@ -0,0 +1,16 @@
+package com.cocktail.cocktaillist.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Abilita i job pianificati (@Scheduled)
+ * 
+ * Job attivi:
+ * - IngredientUsageReconciler: riallinea i contatori di utilizzo degli ingredienti
+ * - FavoriteChangeLog: elimina le tombstone dei preferiti più vecchie della retention
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,23 +1,39 @@
 package com.cocktail.cocktaillist.controller;
 
+import com.cocktail.cocktaillist.dto.CocktailImportReport;
 import com.cocktail.cocktaillist.dto.CocktailRequest;
+import com.cocktail.cocktaillist.dto.CocktailSearchResult;
+import com.cocktail.cocktaillist.dto.CocktailSummary;
+import com.cocktail.cocktaillist.dto.IngredientMergeReport;
+import com.cocktail.cocktaillist.dto.IngredientMergeRequest;
 import com.cocktail.cocktaillist.model.Cocktail;
+import com.cocktail.cocktaillist.service.CocktailExportService;
+import com.cocktail.cocktaillist.service.CocktailImportService;
 import com.cocktail.cocktaillist.service.CocktailService;
 import com.cocktail.cocktaillist.service.FavoriteService;
+import com.cocktail.cocktaillist.service.IngredientMergeService;
 import com.cocktail.cocktaillist.service.IngredientService;
 
 import io.swagger.v3.oas.annotations.Operation;
+import jakarta.servlet.http.HttpServletRequest;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -44,6 +60,18 @@ public class CocktailController {
     @Autowired
     private IngredientService ingredientService;
 
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private CocktailImportService cocktailImportService;
+
+    @Autowired
+    private CocktailExportService cocktailExportService;
+
+    @Autowired
+    private IngredientMergeService ingredientMergeService;
+
     // ========================================
     // ENDPOINT PUBBLICI (senza autenticazione)
     // ========================================
@@ -64,18 +92,60 @@ public class CocktailController {
      * Lista pubblica dei cocktail paginata.
      * GET http://localhost:8081/api/public/cocktails?page=0&size=10&sortBy=name&sortDir=asc
      * 
-     * @param page Numero pagina (default 0)
+     * Modalità cursore (keyset), consigliata per scroll infinito:
+     * GET http://localhost:8081/api/public/cocktails?mode=cursor&size=10
+     * GET http://localhost:8081/api/public/cocktails?mode=cursor&size=10&cursor={nextCursor}
+     * 
+     * Filtri per gradazione e volume stimati (query indicizzata sul database, solo mode=page):
+     * GET http://localhost:8081/api/public/cocktails?minAbv=10&maxAbv=20&sortBy=abv
+     * GET http://localhost:8081/api/public/cocktails?maxVolume=150
+     * 
+     * @param page Numero pagina (default 0, ignorato in modalità cursore)
      * @param size Elementi per pagina (default 10)
      * @param sortBy Campo per ordinamento (default "name")
      * @param sortDir Direzione ordinamento: "asc" o "desc" (default "asc")
+     * @param mode "page" (default, con totali) oppure "cursor"
+     * @param cursor Cursore della pagina precedente (solo modalità cursore)
+     * @param includeTotal Includi il totale in modalità cursore (default false)
+     * @param view "summary" (default, solo campi per la lista) oppure "full" (entity completa)
+     * @param minAbv Gradazione minima in % vol (opzionale)
+     * @param maxAbv Gradazione massima in % vol (opzionale)
+     * @param minVolume Volume minimo in ml (opzionale)
+     * @param maxVolume Volume massimo in ml (opzionale)
      */
     @GetMapping("/public/cocktails")
-    public Page<Cocktail> getPublicCocktails(
+    public ResponseEntity<?> getPublicCocktails(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "name") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDir) {
-        return cocktailService.getAllCocktailsPaginated(page, size, sortBy, sortDir);
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(defaultValue = "page") String mode,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(defaultValue = "summary") String view,
+            @RequestParam(required = false) BigDecimal minAbv,
+            @RequestParam(required = false) BigDecimal maxAbv,
+            @RequestParam(required = false) BigDecimal minVolume,
+            @RequestParam(required = false) BigDecimal maxVolume,
+            HttpServletRequest request) {
+        if (minAbv != null || maxAbv != null || minVolume != null || maxVolume != null) {
+            if ("cursor".equalsIgnoreCase(mode) || isFullView(view)) {
+                return ResponseEntity.badRequest().body(Map.of(
+                    "error", "I filtri per gradazione e volume supportano solo mode=page e view=summary"));
+            }
+            return responseCache.serve(request, ResponseCache.Region.COCKTAILS,
+                Arrays.asList(minAbv, maxAbv, minVolume, maxVolume, page, size, sortBy, sortDir),
+                () -> cocktailService.getCocktailSummariesByStrength(
+                    minAbv, maxAbv, minVolume, maxVolume, page, size, sortBy, sortDir));
+        }
+        // Risposta servita dalla cache (JSON già serializzato, ETag/304) finché il catalogo non cambia;
+        // la chiave contiene solo i parametri usati dalla modalità richiesta
+        boolean cursorMode = "cursor".equalsIgnoreCase(mode);
+        List<?> cacheKey = cursorMode
+            ? Arrays.asList("cursor", isFullView(view), size, sortBy, sortDir, cursor, includeTotal)
+            : Arrays.asList("page", isFullView(view), page, size, sortBy, sortDir);
+        return responseCache.serve(request, ResponseCache.Region.COCKTAILS, cacheKey,
+            () -> listCocktails(page, size, sortBy, sortDir, mode, cursor, includeTotal, view));
     }
 
     // ========================================
@@ -122,21 +192,30 @@ public class CocktailController {
     /**
      * Lista completa dei cocktail paginata (tutti i dettagli).
      * GET http://localhost:8081/api/user/cocktails?page=0&size=10&sortBy=name&sortDir=asc
+     * GET http://localhost:8081/api/user/cocktails?mode=cursor&size=10&cursor={nextCursor}
      * Header: Authorization: Bearer <token>
      * 
-     * @param page Numero pagina (default 0)
+     * @param page Numero pagina (default 0, ignorato in modalità cursore)
      * @param size Elementi per pagina (default 10)
      * @param sortBy Campo per ordinamento (default "name")
      * @param sortDir Direzione ordinamento: "asc" o "desc" (default "asc")
+     * @param mode "page" (default, con totali) oppure "cursor"
+     * @param cursor Cursore della pagina precedente (solo modalità cursore)
+     * @param includeTotal Includi il totale in modalità cursore (default false)
+     * @param view "summary" (default, solo campi per la lista) oppure "full" (entity completa)
      */
     @GetMapping("/user/cocktails")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    public Page<Cocktail> getAllCocktails(
+    public ResponseEntity<?> getAllCocktails(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "name") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDir) {
-        return cocktailService.getAllCocktailsPaginated(page, size, sortBy, sortDir);
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(defaultValue = "page") String mode,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(defaultValue = "summary") String view) {
+        return ResponseEntity.ok(listCocktails(page, size, sortBy, sortDir, mode, cursor, includeTotal, view));
     }
 
     /**
@@ -171,14 +250,25 @@ public class CocktailController {
      * Dettaglio di un singolo cocktail.
      * GET http://localhost:8081/api/user/cocktails/{id}
      * 
+     * La risposta contiene ETag (versione del cocktail) e Last-Modified.
+     * Con "If-None-Match: <etag>" risponde 304 se il cocktail non è cambiato,
+     * controllando solo la versione (senza serializzare il cocktail).
+     * 
      * @param id ID del cocktail
      */
     @GetMapping("/user/cocktails/{id}")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    public ResponseEntity<Cocktail> getCocktailById(@PathVariable Long id) {
+    public ResponseEntity<Cocktail> getCocktailById(@PathVariable Long id, WebRequest webRequest) {
         try {
+            if (webRequest.checkNotModified(versionTag(cocktailService.getCocktailVersion(id)))) {
+                return null; // 304 Not Modified, già impostato da checkNotModified
+            }
             Cocktail cocktail = cocktailService.getCocktailById(id);
-            return ResponseEntity.ok(cocktail);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(versionTag(cocktail.getVersion()));
+            if (cocktail.getUpdatedAt() != null) {
+                response.lastModified(cocktail.getUpdatedAt().atZone(java.time.ZoneId.systemDefault()));
+            }
+            return response.body(cocktail);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -198,14 +288,19 @@ public class CocktailController {
      * @param category Categoria da cercare
      * @param page Numero pagina (default 0)
      * @param size Elementi per pagina (default 10)
+     * @param view "summary" (default) oppure "full"
      */
     @GetMapping("/user/cocktails/category/{category}")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    public Page<Cocktail> getCocktailsByCategory(
+    public ResponseEntity<?> getCocktailsByCategory(
             @PathVariable String category,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        return cocktailService.getCocktailsByCategoryPaginated(category, page, size);
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "summary") String view) {
+        if (isFullView(view)) {
+            return ResponseEntity.ok(cocktailService.getCocktailsByCategoryPaginated(category, page, size));
+        }
+        return ResponseEntity.ok(cocktailService.getCocktailSummariesByCategoryPaginated(category, page, size));
     }
 
     /**
@@ -215,14 +310,62 @@ public class CocktailController {
      * @param name Parte del nome da cercare
      * @param page Numero pagina (default 0)
      * @param size Elementi per pagina (default 10)
+     * @param view "summary" (default) oppure "full"
      */
     @GetMapping("/user/cocktails/search")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    public Page<Cocktail> searchCocktails(
+    public ResponseEntity<?> searchCocktails(
             @RequestParam String name,
             @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "summary") String view) {
+        if (isFullView(view)) {
+            return ResponseEntity.ok(cocktailService.searchCocktailsByNamePaginated(name, page, size));
+        }
+        return ResponseEntity.ok(cocktailService.searchCocktailSummariesByNamePaginated(name, page, size));
+    }
+
+    /**
+     * Ricerca full-text ordinata per rilevanza (nome, descrizione, preparazione, ingredienti).
+     * GET http://localhost:8081/api/user/cocktails/search/ranked?q=rum menta&page=0&size=10
+     * 
+     * Ogni risultato contiene il riepilogo del cocktail, il punteggio e i frammenti
+     * dei campi trovati con i termini evidenziati in <em>...</em>.
+     * 
+     * @param q Testo da cercare (tutte le parole devono comparire)
+     * @param page Numero pagina (default 0)
+     * @param size Elementi per pagina (default 10)
+     */
+    @GetMapping("/user/cocktails/search/ranked")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<Page<CocktailSearchResult>> searchCocktailsRanked(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-        return cocktailService.searchCocktailsByNamePaginated(name, page, size);
+        return ResponseEntity.ok(cocktailService.searchCocktailsRanked(q, page, size));
+    }
+
+    /**
+     * Cerca cocktail in base agli ingredienti che contengono (o non contengono).
+     * GET http://localhost:8081/api/user/cocktails/by-ingredients?all=1,4&none=7&page=0&size=10
+     * 
+     * I parametri si possono combinare; quelli omessi non filtrano.
+     * 
+     * @param all ID degli ingredienti che devono esserci tutti
+     * @param any ID degli ingredienti di cui deve esserci almeno uno
+     * @param none ID degli ingredienti che non devono esserci
+     * @param page Numero pagina (default 0)
+     * @param size Elementi per pagina (default 10)
+     */
+    @GetMapping("/user/cocktails/by-ingredients")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<Page<CocktailSummary>> getCocktailsByIngredients(
+            @RequestParam(required = false) List<Long> all,
+            @RequestParam(required = false) List<Long> any,
+            @RequestParam(required = false) List<Long> none,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(cocktailService.getCocktailSummariesByIngredients(all, any, none, page, size));
     }
 
     /**
@@ -230,11 +373,17 @@ public class CocktailController {
      * GET http://localhost:8081/api/user/cocktails/alcoholic?value=true
      * 
      * @param value true per alcolici, false per analcolici
+     * @param view "summary" (default) oppure "full"
      */
     @GetMapping("/user/cocktails/alcoholic")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    public List<Cocktail> getCocktailsByAlcoholic(@RequestParam Boolean value) {
-        return cocktailService.getCocktailsByAlcoholic(value);
+    public ResponseEntity<?> getCocktailsByAlcoholic(
+            @RequestParam Boolean value,
+            @RequestParam(defaultValue = "summary") String view) {
+        if (isFullView(view)) {
+            return ResponseEntity.ok(cocktailService.getCocktailsByAlcoholic(value));
+        }
+        return ResponseEntity.ok(cocktailService.getCocktailSummariesByAlcoholic(value));
     }
 
     // ========================================
@@ -362,7 +511,11 @@ public class CocktailController {
      * PUT http://localhost:8081/api/cocktails/{id}
      * NOTA: NON modifica gli ingredienti, usa gli endpoint dedicati
      *
+     * Con "If-Match: <etag>" (ETag ottenuto dal GET) l'aggiornamento avviene solo se
+     * il cocktail non è stato modificato nel frattempo, altrimenti 412 Precondition Failed.
+     *
      * @param id ID del cocktail da aggiornare
+     * @param ifMatch ETag della versione su cui il client ha lavorato (opzionale)
      * @param request Nuovi dati con CocktailRequest (ingredienti ignorati)
      */
     @PutMapping("/cocktails/{id}")
@@ -370,14 +523,18 @@ public class CocktailController {
     @Operation(
         summary = "Aggiorna le info di un cocktail",
         description = "Aggiorna nome, descrizione, categoria, ecc. SENZA modificare gli ingredienti. " +
-                      "Per gestire ingredienti usa gli endpoint dedicati."
+                      "Per gestire ingredienti usa gli endpoint dedicati. " +
+                      "Con l'header If-Match (ETag del GET) risponde 412 se il cocktail è stato modificato da altri."
     )
-    public ResponseEntity<Cocktail> updateCocktail(
+    public ResponseEntity<?> updateCocktail(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody CocktailRequest request) {
         try {
-            Cocktail updated = cocktailService.updateCocktail(id, request);
-            return ResponseEntity.ok(updated);
+            Cocktail updated = cocktailService.updateCocktail(id, request, parseVersionTag(ifMatch));
+            return ResponseEntity.ok().eTag(versionTag(updated.getVersion())).body(updated);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(Map.of("error", e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -558,6 +715,99 @@ public class CocktailController {
         }
     }
 
+    /**
+     * Import massivo di cocktail (solo ADMIN).
+     * POST http://localhost:8081/api/admin/cocktails/import?chunkSize=500
+     * 
+     * Body: array JSON di CocktailRequest (Content-Type: application/json)
+     * oppure un CocktailRequest per riga (Content-Type: application/x-ndjson).
+     * Il corpo viene letto in streaming e salvato a blocchi di "chunkSize" righe
+     * (una transazione per blocco, INSERT in batch). Le righe non valide o già
+     * presenti vengono scartate e restituite nel report con il numero di riga.
+     * 
+     * @param chunkSize Righe per transazione (default 500, max 5000)
+     * @param request Richiesta HTTP (il corpo viene letto come stream)
+     */
+    @PostMapping(value = "/admin/cocktails/import", consumes = {"application/json", "application/x-ndjson"})
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Import massivo di cocktail (JSON array o NDJSON)",
+        description = "Importa molti cocktail in una sola richiesta, a blocchi transazionali con INSERT in batch. " +
+                      "Restituisce il numero di cocktail importati e l'elenco delle righe scartate con il motivo."
+    )
+    public ResponseEntity<CocktailImportReport> importCocktails(
+            @RequestParam(defaultValue = "" + CocktailImportService.DEFAULT_CHUNK_SIZE) int chunkSize,
+            HttpServletRequest request) throws java.io.IOException {
+        return ResponseEntity.ok(cocktailImportService.importCocktails(request.getInputStream(), chunkSize));
+    }
+
+    /**
+     * Unisce ingredienti doppioni in un unico ingrediente (solo ADMIN).
+     * POST http://localhost:8081/api/admin/ingredients/merge?chunkSize=500
+     * 
+     * Body: {"targetId": 12, "sourceIds": [31, 47]}
+     * Le ricette che usano i sorgenti passano alla destinazione, a blocchi di "chunkSize"
+     * cocktail (una transazione per blocco); poi i sorgenti vengono eliminati.
+     * Se un cocktail contiene sia la destinazione sia un sorgente resta una sola riga.
+     * 
+     * @param request ID della destinazione e dei sorgenti
+     * @param chunkSize Cocktail per transazione (default 500, max 5000)
+     */
+    @PostMapping("/admin/ingredients/merge")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Unione di ingredienti doppioni",
+        description = "Sposta tutte le righe di ricetta degli ingredienti sorgente sulla destinazione " +
+                      "(a blocchi, con UPDATE set-based), risolve i doppioni nello stesso cocktail ed elimina i sorgenti."
+    )
+    public ResponseEntity<?> mergeIngredients(
+            @RequestBody IngredientMergeRequest request,
+            @RequestParam(defaultValue = "" + IngredientMergeService.DEFAULT_CHUNK_SIZE) int chunkSize) {
+        try {
+            IngredientMergeReport report = ingredientMergeService.mergeIngredients(request, chunkSize);
+            return ResponseEntity.ok(report);
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    /**
+     * Export dell'intero catalogo in streaming (solo ADMIN).
+     * GET http://localhost:8081/api/admin/cocktails/export?format=ndjson
+     * GET http://localhost:8081/api/admin/cocktails/export?format=csv
+     * 
+     * NDJSON: un cocktail per riga con ingredienti annidati (re-importabile con /admin/cocktails/import).
+     * CSV: una riga per ogni coppia cocktail-ingrediente.
+     * I dati vengono scritti man mano che arrivano dal database (memoria costante).
+     * 
+     * @param format "ndjson" (default) oppure "csv"
+     */
+    @GetMapping("/admin/cocktails/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Export del catalogo in streaming (NDJSON o CSV)",
+        description = "Scarica tutti i cocktail con i loro ingredienti. " +
+                      "L'export è in streaming: non carica il catalogo in memoria."
+    )
+    public ResponseEntity<StreamingResponseBody> exportCocktails(
+            @RequestParam(defaultValue = "ndjson") String format) {
+        if ("csv".equalsIgnoreCase(format)) {
+            return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", java.nio.charset.StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"cocktails.csv\"")
+                .body(cocktailExportService::exportCsv);
+        }
+        if ("ndjson".equalsIgnoreCase(format)) {
+            return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"cocktails.ndjson\"")
+                .body(cocktailExportService::exportNdjson);
+        }
+        throw new RuntimeException("Formato di export non supportato: " + format + " (usa ndjson o csv)");
+    }
+
     /**
      * Analizza gli ID dei cocktail per identificare gap e fornire statistiche.
      * GET http://localhost:8081/api/admin/cocktails/gaps
@@ -596,6 +846,69 @@ public class CocktailController {
         return ResponseEntity.ok(result);
     }
 
+    // ========================================
+    // METODI DI SUPPORTO
+    // ========================================
+
+    /**
+     * Lista cocktail condivisa da /public/cocktails e /user/cocktails:
+     * sceglie paginazione (page/cursor) e formato (summary/full).
+     *
+     * @return Corpo della risposta (pagina o pagina a cursore)
+     */
+    private Object listCocktails(int page, int size, String sortBy, String sortDir,
+                                 String mode, String cursor, boolean includeTotal, String view) {
+        boolean full = isFullView(view);
+        if ("cursor".equalsIgnoreCase(mode)) {
+            return full
+                ? cocktailService.getAllCocktailsKeyset(cursor, size, sortBy, sortDir, includeTotal)
+                : cocktailService.getAllCocktailSummariesKeyset(cursor, size, sortBy, sortDir, includeTotal);
+        }
+        return full
+            ? cocktailService.getAllCocktailsPaginated(page, size, sortBy, sortDir)
+            : cocktailService.getAllCocktailSummariesPaginated(page, size, sortBy, sortDir);
+    }
+
+    /**
+     * @return true se il client ha chiesto l'entity completa (?view=full)
+     */
+    private boolean isFullView(String view) {
+        return "full".equalsIgnoreCase(view);
+    }
+
+    /**
+     * ETag di un cocktail: la sua versione (lock ottimistico), es: "3"
+     */
+    private String versionTag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Legge la versione attesa dall'header If-Match.
+     * If-Match usa il confronto forte (RFC 9110): un ETag debole (W/"3") non corrisponde mai
+     * e l'aggiornamento viene rifiutato con 412.
+     *
+     * @return La versione, oppure null se l'header manca o è "*" (nessun controllo)
+     * @throws OptimisticLockingFailureException se l'header non contiene un ETag forte di versione valido
+     */
+    private Long parseVersionTag(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            throw new OptimisticLockingFailureException("If-Match richiede un ETag forte: " + ifMatch);
+        }
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new OptimisticLockingFailureException("If-Match non valido: " + ifMatch);
+        }
+        try {
+            return Long.valueOf(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new OptimisticLockingFailureException("If-Match non valido: " + ifMatch);
+        }
+    }
+
     // ========================================
     // GESTIONE ERRORI
     // ========================================
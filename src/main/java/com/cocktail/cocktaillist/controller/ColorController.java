@@ -2,6 +2,8 @@ package com.cocktail.cocktaillist.controller;
 
 import com.cocktail.cocktaillist.model.Color;
 import com.cocktail.cocktaillist.repository.ColorRepository;
+import com.cocktail.cocktaillist.service.ColorCache;
+import com.cocktail.cocktaillist.service.ColorService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -9,6 +11,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -22,9 +25,16 @@ import java.util.Map;
 public class ColorController {
 
     private final ColorRepository colorRepository;
+    private final ResponseCache responseCache;
+    private final ColorCache colorCache;
+    private final ColorService colorService;
 
-    public ColorController(ColorRepository colorRepository) {
+    public ColorController(ColorRepository colorRepository, ResponseCache responseCache, ColorCache colorCache,
+                           ColorService colorService) {
         this.colorRepository = colorRepository;
+        this.responseCache = responseCache;
+        this.colorCache = colorCache;
+        this.colorService = colorService;
     }
 
     @GetMapping("/api/public/colors")
@@ -36,9 +46,9 @@ public class ColorController {
             @ApiResponse(responseCode = "200", description = "Lista colori recuperata con successo",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = Color.class)))
     })
-    public ResponseEntity<List<Color>> getAllColors() {
-        List<Color> colors = colorRepository.findAll();
-        return ResponseEntity.ok(colors);
+    public ResponseEntity<byte[]> getAllColors(HttpServletRequest request) {
+        // Servita dalla cache (JSON già serializzato, ETag/304) finché i colori non cambiano
+        return responseCache.serve(request, ResponseCache.Region.COLORS, List.of(), colorRepository::findAll);
     }
 
     @GetMapping("/api/public/colors/{id}")
@@ -82,6 +92,8 @@ public class ColorController {
         }
 
         Color savedColor = colorRepository.save(color);
+        responseCache.invalidate(ResponseCache.Region.COLORS);
+        colorCache.invalidate();
         return ResponseEntity.status(HttpStatus.CREATED).body(savedColor);
     }
 
@@ -97,12 +109,15 @@ public class ColorController {
             @ApiResponse(responseCode = "404", description = "Colore non trovato")
     })
     public ResponseEntity<?> deleteColor(@PathVariable Long id) {
-        if (!colorRepository.existsById(id)) {
+        try {
+            // Preferiti riportati al colore di default ed eliminazione in un'unica transazione
+            colorService.deleteColor(id);
+        } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("error", "Colore non trovato"));
         }
-
-        colorRepository.deleteById(id);
+        responseCache.invalidate(ResponseCache.Region.COLORS);
+        colorCache.invalidate();
         return ResponseEntity.ok(Map.of("message", "Colore eliminato con successo"));
     }
 }
@@ -1,5 +1,8 @@
 package com.cocktail.cocktaillist.controller;
 
+import com.cocktail.cocktaillist.dto.FavoriteChanges;
+import com.cocktail.cocktaillist.dto.FavoriteSyncReport;
+import com.cocktail.cocktaillist.dto.FavoriteSyncRequest;
 import com.cocktail.cocktaillist.model.Cocktail;
 import com.cocktail.cocktaillist.model.Favorite;
 import com.cocktail.cocktaillist.service.FavoriteService;
@@ -23,6 +26,8 @@ import java.util.Map;
  * - Rimuovere dai preferiti
  * - Visualizzare lista preferiti
  * - Toggle (aggiungi/rimuovi con un click)
+ * - Sincronizzazione in blocco delle operazioni fatte offline
+ * - Sincronizzazione incrementale (solo le modifiche dopo una versione)
  */
 @RestController
 @RequestMapping("/api/favorites")
@@ -48,6 +53,24 @@ public class FavoriteController {
         return ResponseEntity.ok(favorites);
     }
 
+    /**
+     * Modifiche ai preferiti dopo l'ultima sincronizzazione (solo ID, per l'app).
+     * GET http://localhost:8081/api/favorites/changes?since=41
+     *
+     * Senza "since" (o con una versione troppo vecchia) restituisce l'elenco completo con reset = true.
+     *
+     * @param since Versione restituita dalla chiamata precedente
+     * @param jwt Token JWT
+     * @return JSON {version, reset, favorites: {cocktailId: colorId}, removed: [cocktailId]}
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<FavoriteChanges> getFavoriteChanges(
+            @RequestParam(required = false) Long since,
+            @AuthenticationPrincipal Jwt jwt) {
+        String userId = jwt.getSubject();
+        return ResponseEntity.ok(favoriteService.getFavoriteChanges(userId, since));
+    }
+
     /**
      * Verifica se un cocktail è tra i preferiti.
      * GET http://localhost:8081/api/favorites/check/{cocktailId}
@@ -154,6 +177,34 @@ public class FavoriteController {
         }
     }
 
+    /**
+     * Sincronizza in blocco le operazioni fatte offline dall'app.
+     * POST http://localhost:8081/api/favorites/sync
+     * Body: {"operations": [{"op": "add", "cocktailId": 1}, {"op": "setColor", "cocktailId": 1, "colorId": 3},
+     *        {"op": "remove", "cocktailId": 7}]}
+     *
+     * Tutte le operazioni in una transazione; le operazioni non valide vengono scartate
+     * singolarmente e quelle già applicate risultano "unchanged" (la coda può essere rinviata).
+     *
+     * @param request Operazioni nell'ordine in cui sono state fatte (max 1000)
+     * @param jwt Token JWT
+     * @return Contatori ed esito di ogni operazione
+     */
+    @PostMapping("/sync")
+    public ResponseEntity<?> syncFavorites(
+            @RequestBody FavoriteSyncRequest request,
+            @AuthenticationPrincipal Jwt jwt) {
+        try {
+            String userId = jwt.getSubject();
+            FavoriteSyncReport report = favoriteService.syncFavorites(userId, request.getOperations());
+            return ResponseEntity.ok(report);
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
     /**
      * Rimuove tutti i preferiti dell'utente.
      * DELETE http://localhost:8081/api/favorites
@@ -1,9 +1,11 @@
 package com.cocktail.cocktaillist.controller;
 
+import com.cocktail.cocktaillist.dto.IngredientSuggestion;
 import com.cocktail.cocktaillist.model.Ingredient;
 import com.cocktail.cocktaillist.service.IngredientService;
 
 import io.swagger.v3.oas.annotations.Operation;
+import jakarta.servlet.http.HttpServletRequest;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -12,6 +14,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,21 +37,44 @@ public class IngredientController {
     @Autowired
     private IngredientService ingredientService;
 
+    @Autowired
+    private ResponseCache responseCache;
+
     /**
      * Lista paginata di tutti gli ingredienti.
      * GET http://localhost:8081/api/ingredients?page=0&size=10&sortBy=name&sortDir=asc
      * 
-     * @param page Numero pagina (default 0)
+     * Modalità cursore (keyset, senza COUNT): ordinamento per "name" o "id"
+     * GET http://localhost:8081/api/ingredients?mode=cursor&size=10&cursor={nextCursor}
+     * 
+     * @param page Numero pagina (default 0, ignorato in modalità cursore)
      * @param size Elementi per pagina (default 10)
      * @param sortBy Campo per ordinamento (default "name")
      * @param sortDir Direzione ordinamento: "asc" o "desc" (default "asc")
+     * @param mode "page" (default, con totali) oppure "cursor"
+     * @param cursor Cursore della pagina precedente (solo modalità cursore)
+     * @param includeTotal Includi il totale in modalità cursore (default false)
      */
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAllIngredients(
+    public ResponseEntity<?> getAllIngredients(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "name") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDir) {
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(defaultValue = "page") String mode,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        if ("cursor".equalsIgnoreCase(mode)) {
+            try {
+                return ResponseEntity.ok(
+                    ingredientService.getAllIngredientsKeyset(cursor, size, sortBy, sortDir, includeTotal));
+            } catch (RuntimeException e) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", e.getMessage());
+                return ResponseEntity.badRequest().body(error);
+            }
+        }
+
         Page<Ingredient> ingredientsPage = ingredientService.getAllIngredientsPaginated(page, size, sortBy, sortDir);
         
         Map<String, Object> response = new HashMap<>();
@@ -84,6 +110,62 @@ public class IngredientController {
         return ResponseEntity.ok(results);
     }
 
+    /**
+     * Ingredienti con nome uguale o quasi uguale (un carattere inserito, tolto, sostituito o scambiato).
+     * GET http://localhost:8081/api/ingredients/similar?name=Sucoo di Lime&limit=5
+     * 
+     * Da usare prima di creare un ingrediente per evitare doppioni.
+     * Ignora maiuscole, accenti e spazi ripetuti. Servito da un indice in memoria: nessuna query sul database.
+     * 
+     * @param name Nome da confrontare
+     * @param limit Numero massimo di suggerimenti (default 5, max 20)
+     * @return Lista di suggerimenti, dal più simile
+     */
+    @GetMapping("/similar")
+    @Operation(
+        summary = "Ingredienti con nome simile (errori di battitura)",
+        description = "Trova gli ingredienti il cui nome differisce al massimo di un carattere. " +
+                      "Ignora maiuscole, accenti e spazi ripetuti."
+    )
+    public ResponseEntity<?> findSimilarIngredients(
+            @RequestParam String name,
+            @RequestParam(defaultValue = "5") int limit) {
+        try {
+            return ResponseEntity.ok(ingredientService.findSimilarIngredients(name, limit));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Autocomplete per il selettore ingredienti (una richiesta per tasto premuto).
+     * GET http://localhost:8081/api/ingredients/autocomplete?q=ru&limit=10
+     * 
+     * Cerca il prefisso all'inizio del nome o di una sua parola, ignorando maiuscole e accenti.
+     * I risultati sono ordinati per numero di cocktail che usano l'ingrediente (contatore ingredient.usage_count).
+     * Servito da un indice in memoria: nessuna query sul database.
+     * 
+     * @param q Testo digitato
+     * @param limit Numero massimo di suggerimenti (default 10, max 50)
+     * @return Lista di suggerimenti
+     */
+    @GetMapping("/autocomplete")
+    @Operation(
+        summary = "Autocomplete ingredienti per prefisso, ordinato per utilizzo",
+        description = "Trova gli ingredienti il cui nome (o una sua parola) inizia con il testo digitato. " +
+                      "Ignora maiuscole e accenti. Ordinati dal più usato nei cocktail."
+    )
+    public ResponseEntity<?> autocompleteIngredients(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            List<IngredientSuggestion> suggestions = ingredientService.autocomplete(q, limit);
+            return ResponseEntity.ok(suggestions);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * Dettaglio di un singolo ingrediente.
      * GET http://localhost:8081/api/ingredients/{id}
@@ -106,7 +188,12 @@ public class IngredientController {
      * Header: Authorization: Bearer <token>
      * Body: JSON dell'ingrediente
      * 
+     * Con ?checkSimilar=true, se esistono ingredienti con nome quasi uguale risponde 409
+     * con i suggerimenti (probabile errore di battitura) invece di creare l'ingrediente.
+     * Senza il parametro l'ingrediente viene creato come sempre.
+     * 
      * @param ingredient Dati del nuovo ingrediente
+     * @param checkSimilar true per rifiutare la creazione se esistono nomi simili
      */
     @PostMapping
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
@@ -114,7 +201,8 @@ public class IngredientController {
         summary = "Crea un nuovo ingrediente",
         description = "Crea un nuovo ingrediente. NON includere il campo 'id' nella richiesta (viene generato automaticamente). " +
                       "Campi obbligatori: name. " +
-                      "Campi con default: category='Spezia particolare', unit='pezzi', description='Ingrediente speciale'",
+                      "Campi con default: category='Spezia particolare', unit='pezzi', description='Ingrediente speciale'. " +
+                      "Con checkSimilar=true, se esistono nomi simili risponde 409 con i suggerimenti invece di creare",
         requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
             description = "Esempio request body",
             content = @io.swagger.v3.oas.annotations.media.Content(
@@ -133,8 +221,20 @@ public class IngredientController {
             )
         )
     )
-    public ResponseEntity<?> createIngredient(@RequestBody Ingredient ingredient) {
+    public ResponseEntity<?> createIngredient(
+            @RequestBody Ingredient ingredient,
+            @RequestParam(defaultValue = "false") boolean checkSimilar) {
         try {
+            // Nome quasi uguale a un ingrediente esistente: probabile doppione (solo su richiesta del client)
+            if (checkSimilar) {
+                List<IngredientSuggestion> similar = ingredientService.findSimilarIngredients(ingredient.getName(), 5);
+                if (!similar.isEmpty()) {
+                    Map<String, Object> conflict = new HashMap<>();
+                    conflict.put("error", "Esistono ingredienti con nome simile: usa uno di questi o ripeti senza checkSimilar");
+                    conflict.put("suggestions", similar);
+                    return ResponseEntity.status(HttpStatus.CONFLICT).body(conflict);
+                }
+            }
             Ingredient created = ingredientService.createIngredient(ingredient);
             return ResponseEntity.status(HttpStatus.CREATED).body(created);
         } catch (RuntimeException e) {
@@ -195,6 +295,12 @@ public class IngredientController {
     /**
      * Ottieni tutti gli ingredienti raggruppati per categoria.
      * GET http://localhost:8081/api/ingredients/grouped-by-category
+     * GET http://localhost:8081/api/ingredients/grouped-by-category?category=Spiriti
+     * GET http://localhost:8081/api/ingredients/grouped-by-category?view=summary
+     * 
+     * Parametri opzionali:
+     * - category: restituisce solo quella categoria (case-insensitive, vuota se non esiste)
+     * - view: "full" (default, ingredienti completi) o "summary" (solo numero di ingredienti per categoria)
      * 
      * Risposta esempio:
      * {
@@ -206,13 +312,37 @@ public class IngredientController {
      *     {"id": 10, "name": "Limone", "category": "Frutta"}
      *   ]
      * }
+     * 
+     * Risposta esempio (view=summary):
+     * [
+     *   {"category": "Frutta", "count": 1},
+     *   {"category": "Spiriti", "count": 2}
+     * ]
      */
     @GetMapping("/grouped-by-category")
      @Operation(
         summary = "Visualizzazione ingredienti raggruppati per categoria" 
     )
-    public ResponseEntity<Map<String, List<Ingredient>>> getIngredientsGroupedByCategory() {
-        Map<String, List<Ingredient>> grouped = ingredientService.getIngredientsGroupedByCategory();
-        return ResponseEntity.ok(grouped);
+    public ResponseEntity<?> getIngredientsGroupedByCategory(
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "full") String view,
+            HttpServletRequest request) {
+        boolean summary;
+        if ("summary".equalsIgnoreCase(view)) {
+            summary = true;
+        } else if ("full".equalsIgnoreCase(view)) {
+            summary = false;
+        } else {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Vista non valida: " + view + " (valori ammessi: full, summary)");
+            return ResponseEntity.badRequest().body(error);
+        }
+        String filter = category != null && !category.isBlank() ? category.trim() : null;
+
+        // Servita dalla cache (JSON già serializzato, ETag/304) finché gli ingredienti non cambiano;
+        // il raggruppamento stesso è precalcolato e viene ricostruito solo dopo una scrittura
+        return responseCache.serve(request, ResponseCache.Region.INGREDIENTS, Arrays.asList(filter, summary), () -> summary
+            ? ingredientService.getIngredientCategorySummaries(filter)
+            : ingredientService.getIngredientsGroupedByCategory(filter));
     }
 }
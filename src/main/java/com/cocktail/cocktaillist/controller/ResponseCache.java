@@ -0,0 +1,223 @@
+package com.cocktail.cocktaillist.controller;
+
+import com.cocktail.cocktaillist.service.CocktailCatalog;
+import com.cocktail.cocktaillist.service.IngredientCategoryCatalog;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache delle risposte già serializzate per gli endpoint pubblici di sola lettura
+ * (/api/public/cocktails, /api/public/colors, /api/ingredients/grouped-by-category).
+ *
+ * - Chiave: area dati + versione dell'area + path + valori dei parametri usati dall'endpoint
+ *   (passati dal controller dopo il binding: parametri sconosciuti o ripetuti non creano voci nuove)
+ * - Valore: JSON già serializzato e già compresso (gzip), con ETag forte (SHA-256 del JSON)
+ * - If-None-Match uguale all'ETag → 304 senza chiamare il service né serializzare
+ *
+ * Invalidazione: la versione dei cocktail è quella dello snapshot del catalogo
+ * (cambia dopo ogni scrittura di CocktailService), quella degli ingredienti è la versione
+ * di IngredientCategoryCatalog (avanza dopo il commit delle scritture su ingredienti);
+ * i colori hanno un contatore incrementato dopo le scritture. Derivare la versione dalla
+ * fonte dei dati garantisce che una risposta non venga mai salvata con una versione più
+ * recente dei dati che contiene. Le voci con
+ * versione vecchia non sono più raggiungibili: quando la cache è piena esce la voce
+ * usata meno di recente (LRU), quindi le risposte richieste spesso restano in cache.
+ */
+@Component
+public class ResponseCache {
+
+    /**
+     * Aree di dati con versione indipendente
+     */
+    public enum Region {
+        COCKTAILS, INGREDIENTS, COLORS
+    }
+
+    /**
+     * Numero massimo di risposte in cache (ogni combinazione di parametri è una voce)
+     */
+    private static final int MAX_ENTRIES = 1_000;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CocktailCatalog cocktailCatalog;
+
+    @Autowired
+    private IngredientCategoryCatalog ingredientCategoryCatalog;
+
+    private final Map<Region, AtomicLong> versions = new ConcurrentHashMap<>(Map.of(
+        Region.COLORS, new AtomicLong()
+    ));
+
+    /**
+     * LinkedHashMap in ordine di accesso: la voce più vecchia è la usata meno di recente
+     */
+    private final Map<String, CachedResponse> entries = Collections.synchronizedMap(
+        new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > MAX_ENTRIES;
+            }
+        });
+
+    /**
+     * Restituisce la risposta dalla cache, o la calcola con "loader" e la memorizza.
+     *
+     * @param request Richiesta HTTP (path, If-None-Match, Accept-Encoding)
+     * @param region Area dati da cui dipende la risposta
+     * @param params Valori dei parametri da cui dipende la risposta, già convertiti dal controller
+     *               (anche null; i valori di default rendono equivalenti "?page=0" e nessun parametro)
+     * @param loader Calcola il corpo della risposta (chiamato solo se non è in cache)
+     * @return 200 con il JSON (gzip se accettato) oppure 304 se il client ha già questa versione
+     */
+    public ResponseEntity<byte[]> serve(HttpServletRequest request, Region region, List<?> params,
+                                        Supplier<Object> loader) {
+        long version = currentVersion(region);
+        String key = region + ":" + version + ":" + request.getRequestURI() + ":" + params;
+
+        CachedResponse cached = entries.get(key);
+        if (cached == null) {
+            cached = CachedResponse.of(serialize(loader.get()));
+            entries.put(key, cached);
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl(CacheControl.noCache().cachePublic());
+        headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+
+        boolean gzip = acceptsGzip(request);
+        headers.setETag(gzip ? cached.gzipEtag : cached.etag);
+
+        if (cached.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new ResponseEntity<>(cached.gzipBody, headers, HttpStatus.OK);
+        }
+        return new ResponseEntity<>(cached.body, headers, HttpStatus.OK);
+    }
+
+    /**
+     * Invalida tutte le risposte di un'area (le nuove richieste useranno la versione successiva).
+     * Da chiamare dopo che la scrittura è stata salvata nel database.
+     */
+    public void invalidate(Region region) {
+        if (region != Region.COLORS) {
+            // Cocktail e ingredienti: la versione è quella dei loro snapshot, cambia da sola dopo ogni scrittura
+            return;
+        }
+        versions.get(region).incrementAndGet();
+    }
+
+    // ========================================
+    // METODI UTILITY
+    // ========================================
+
+    private long currentVersion(Region region) {
+        if (region == Region.COCKTAILS) {
+            return cocktailCatalog.snapshot().getVersion();
+        }
+        if (region == Region.INGREDIENTS) {
+            return ingredientCategoryCatalog.getVersion();
+        }
+        return versions.get(region).get();
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    private byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Errore durante la serializzazione della risposta: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Risposta serializzata, immutabile: corpo JSON, corpo gzip ed ETag di entrambe le codifiche.
+     */
+    private static final class CachedResponse {
+
+        private final byte[] body;
+        private final byte[] gzipBody;
+        private final String etag;
+        private final String gzipEtag;
+
+        private CachedResponse(byte[] body, byte[] gzipBody, String etag, String gzipEtag) {
+            this.body = body;
+            this.gzipBody = gzipBody;
+            this.etag = etag;
+            this.gzipEtag = gzipEtag;
+        }
+
+        static CachedResponse of(byte[] body) {
+            String hash = sha256(body);
+            // ETag forti distinti per codifica: i byte inviati sono diversi
+            return new CachedResponse(body, gzip(body), "\"" + hash + "\"", "\"" + hash + "-gzip\"");
+        }
+
+        /**
+         * @return true se If-None-Match contiene uno degli ETag di questa risposta (o "*")
+         */
+        boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                .anyMatch(tag -> tag.equals("*") || tag.equals(etag) || tag.equals(gzipEtag));
+        }
+
+        private static String sha256(byte[] body) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+                return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static byte[] gzip(byte[] body) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(body);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+    }
+}
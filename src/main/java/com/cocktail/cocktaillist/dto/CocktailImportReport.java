@@ -0,0 +1,258 @@
+package com.cocktail.cocktaillist.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Esito dell'import massivo di cocktail: contatori, righe scartate con il motivo e
+ * righe importate con un ingrediente nuovo simile a uno esistente (probabile errore di battitura).
+ *
+ * Le righe valide vengono salvate anche se altre righe falliscono;
+ * gli elenchi di errori e suggerimenti sono limitati a MAX_ERRORS voci ciascuno (il conteggio degli errori resta completo).
+ */
+@Schema(description = "Esito dell'import massivo di cocktail")
+public class CocktailImportReport {
+
+    public static final int MAX_ERRORS = 1_000;
+
+    @Schema(description = "Righe lette dall'input", example = "50000")
+    private int totalRows;
+
+    @Schema(description = "Cocktail importati", example = "49870")
+    private int imported;
+
+    @Schema(description = "Righe scartate", example = "130")
+    private int failed;
+
+    @Schema(description = "Ingredienti creati automaticamente", example = "312")
+    private int createdIngredients;
+
+    @Schema(description = "Righe scartate con il motivo (max " + MAX_ERRORS + ")")
+    private List<RowError> errors = new ArrayList<>();
+
+    @Schema(description = "true se gli errori sono più di quelli elencati", example = "false")
+    private boolean errorsTruncated;
+
+    @Schema(description = "Ingredienti creati con un nome simile a uno esistente, per riga (max " + MAX_ERRORS + ")")
+    private List<RowSuggestions> suggestions = new ArrayList<>();
+
+    @Schema(description = "true se i suggerimenti sono più di quelli elencati", example = "false")
+    private boolean suggestionsTruncated;
+
+    /**
+     * Registra una riga scartata.
+     *
+     * @param row Numero di riga (1-based, ordine dell'input)
+     * @param name Nome del cocktail (se presente)
+     * @param error Motivo
+     */
+    public void addError(int row, String name, String error) {
+        failed++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new RowError(row, name, error));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    /**
+     * Registra un ingrediente di una riga importata creato con un nome simile a ingredienti esistenti.
+     *
+     * @param row Numero di riga (1-based, ordine dell'input)
+     * @param name Nome del cocktail
+     * @param ingredient Nome dell'ingrediente come scritto nella riga
+     * @param similar Ingredienti esistenti con nome simile
+     */
+    public void addSuggestions(int row, String name, String ingredient, List<IngredientSuggestion> similar) {
+        if (suggestions.size() < MAX_ERRORS) {
+            suggestions.add(new RowSuggestions(row, name, ingredient, similar));
+        } else {
+            suggestionsTruncated = true;
+        }
+    }
+
+    public void addImported(int count) {
+        imported += count;
+    }
+
+    public void addCreatedIngredients(int count) {
+        createdIngredients += count;
+    }
+
+    // Getters e Setters
+    public int getTotalRows() {
+        return totalRows;
+    }
+
+    public void setTotalRows(int totalRows) {
+        this.totalRows = totalRows;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public void setImported(int imported) {
+        this.imported = imported;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public int getCreatedIngredients() {
+        return createdIngredients;
+    }
+
+    public void setCreatedIngredients(int createdIngredients) {
+        this.createdIngredients = createdIngredients;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<RowError> errors) {
+        this.errors = errors;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+
+    public List<RowSuggestions> getSuggestions() {
+        return suggestions;
+    }
+
+    public void setSuggestions(List<RowSuggestions> suggestions) {
+        this.suggestions = suggestions;
+    }
+
+    public boolean isSuggestionsTruncated() {
+        return suggestionsTruncated;
+    }
+
+    public void setSuggestionsTruncated(boolean suggestionsTruncated) {
+        this.suggestionsTruncated = suggestionsTruncated;
+    }
+
+    /**
+     * Riga scartata durante l'import
+     */
+    @Schema(description = "Riga scartata durante l'import")
+    public static class RowError {
+
+        @Schema(description = "Numero di riga (1-based)", example = "42")
+        private int row;
+
+        @Schema(description = "Nome del cocktail della riga", example = "Mojito")
+        private String name;
+
+        @Schema(description = "Motivo dello scarto", example = "Esiste già un cocktail con nome: Mojito")
+        private String error;
+
+        public RowError() {
+        }
+
+        public RowError(int row, String name, String error) {
+            this.row = row;
+            this.name = name;
+            this.error = error;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public void setRow(int row) {
+            this.row = row;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+    }
+
+    /**
+     * Ingrediente di una riga importata creato accanto a ingredienti con nome quasi uguale
+     */
+    @Schema(description = "Ingrediente nuovo con nome simile a ingredienti esistenti")
+    public static class RowSuggestions {
+
+        @Schema(description = "Numero di riga (1-based)", example = "42")
+        private int row;
+
+        @Schema(description = "Nome del cocktail della riga", example = "Mojito")
+        private String name;
+
+        @Schema(description = "Nome dell'ingrediente nella riga", example = "Sucoo di Lime")
+        private String ingredient;
+
+        @Schema(description = "Ingredienti esistenti con nome simile")
+        private List<IngredientSuggestion> similar;
+
+        public RowSuggestions() {
+        }
+
+        public RowSuggestions(int row, String name, String ingredient, List<IngredientSuggestion> similar) {
+            this.row = row;
+            this.name = name;
+            this.ingredient = ingredient;
+            this.similar = similar;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public void setRow(int row) {
+            this.row = row;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getIngredient() {
+            return ingredient;
+        }
+
+        public void setIngredient(String ingredient) {
+            this.ingredient = ingredient;
+        }
+
+        public List<IngredientSuggestion> getSimilar() {
+            return similar;
+        }
+
+        public void setSimilar(List<IngredientSuggestion> similar) {
+            this.similar = similar;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.cocktail.cocktaillist.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Map;
+
+/**
+ * Risultato della ricerca full-text: riepilogo del cocktail, punteggio di
+ * rilevanza e frammenti evidenziati dei campi in cui compaiono i termini cercati.
+ */
+@Schema(description = "Risultato della ricerca full-text sui cocktail")
+public class CocktailSearchResult {
+
+    @Schema(description = "Riepilogo del cocktail trovato")
+    private CocktailSummary cocktail;
+
+    @Schema(description = "Punteggio di rilevanza (più alto = più pertinente)", example = "3.52")
+    private float score;
+
+    @Schema(description = "Frammenti evidenziati per campo (i termini trovati sono racchiusi in <em>...</em>)",
+            example = "{\"name\": \"<em>Mojito</em>\", \"ingredients\": \"<em>Rum</em> bianco, Lime, Menta\"}")
+    private Map<String, String> highlights;
+
+    public CocktailSearchResult() {
+    }
+
+    public CocktailSearchResult(CocktailSummary cocktail, float score, Map<String, String> highlights) {
+        this.cocktail = cocktail;
+        this.score = score;
+        this.highlights = highlights;
+    }
+
+    // Getters e Setters
+    public CocktailSummary getCocktail() {
+        return cocktail;
+    }
+
+    public void setCocktail(CocktailSummary cocktail) {
+        this.cocktail = cocktail;
+    }
+
+    public float getScore() {
+        return score;
+    }
+
+    public void setScore(float score) {
+        this.score = score;
+    }
+
+    public Map<String, String> getHighlights() {
+        return highlights;
+    }
+
+    public void setHighlights(Map<String, String> highlights) {
+        this.highlights = highlights;
+    }
+}
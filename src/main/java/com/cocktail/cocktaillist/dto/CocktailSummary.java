@@ -0,0 +1,137 @@
+package com.cocktail.cocktaillist.dto;
+
+import com.cocktail.cocktaillist.model.Cocktail;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+/**
+ * Proiezione leggera di un cocktail per le liste (default delle liste, ?view=summary).
+ *
+ * Contiene solo le colonne necessarie a una riga di lista: niente descrizione,
+ * metodo di preparazione o ingredienti annidati (per quelli usa ?view=full o il dettaglio).
+ * Viene costruita direttamente nella query JPQL (SELECT new ...).
+ */
+@Schema(description = "Riepilogo di un cocktail per le liste")
+public class CocktailSummary {
+
+    @Schema(description = "ID del cocktail", example = "1")
+    private Long id;
+
+    @Schema(description = "Nome del cocktail", example = "Mojito")
+    private String name;
+
+    @Schema(description = "Categoria", example = "Rum")
+    private String category;
+
+    @Schema(description = "true se alcolico", example = "true")
+    private Boolean alcoholic;
+
+    @Schema(description = "URL dell'immagine")
+    private String imageUrl;
+
+    @Schema(description = "Numero di ingredienti del cocktail", example = "5")
+    private long ingredientCount;
+
+    @Schema(description = "Gradazione alcolica stimata in % vol", example = "12.5")
+    private BigDecimal abv;
+
+    @Schema(description = "Volume totale stimato in ml", example = "200.00")
+    private BigDecimal totalVolumeMl;
+
+    public CocktailSummary() {
+    }
+
+    public CocktailSummary(Long id, String name, String category, Boolean alcoholic, String imageUrl,
+                           long ingredientCount, BigDecimal abv, BigDecimal totalVolumeMl) {
+        this.id = id;
+        this.name = name;
+        this.category = category;
+        this.alcoholic = alcoholic;
+        this.imageUrl = imageUrl;
+        this.ingredientCount = ingredientCount;
+        this.abv = abv;
+        this.totalVolumeMl = totalVolumeMl;
+    }
+
+    /**
+     * Costruisce il riepilogo da un cocktail già in memoria (es: snapshot del catalogo).
+     */
+    public static CocktailSummary from(Cocktail cocktail) {
+        return new CocktailSummary(
+            cocktail.getId(),
+            cocktail.getName(),
+            cocktail.getCategory(),
+            cocktail.getAlcoholic(),
+            cocktail.getImageUrl(),
+            cocktail.getCocktailIngredients().size(),
+            cocktail.getAbv(),
+            cocktail.getTotalVolumeMl()
+        );
+    }
+
+    // Getters e Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public Boolean getAlcoholic() {
+        return alcoholic;
+    }
+
+    public void setAlcoholic(Boolean alcoholic) {
+        this.alcoholic = alcoholic;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public long getIngredientCount() {
+        return ingredientCount;
+    }
+
+    public void setIngredientCount(long ingredientCount) {
+        this.ingredientCount = ingredientCount;
+    }
+
+    public BigDecimal getAbv() {
+        return abv;
+    }
+
+    public void setAbv(BigDecimal abv) {
+        this.abv = abv;
+    }
+
+    public BigDecimal getTotalVolumeMl() {
+        return totalVolumeMl;
+    }
+
+    public void setTotalVolumeMl(BigDecimal totalVolumeMl) {
+        this.totalVolumeMl = totalVolumeMl;
+    }
+}
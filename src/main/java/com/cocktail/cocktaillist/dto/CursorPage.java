@@ -0,0 +1,93 @@
+package com.cocktail.cocktaillist.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Risposta della paginazione a cursore (keyset).
+ *
+ * A differenza di Page non contiene numero di pagina né totale:
+ * per la pagina successiva si rimanda "nextCursor" nel parametro "cursor".
+ */
+@Schema(description = "Pagina di risultati con cursore per la pagina successiva")
+public class CursorPage<T> {
+
+    @Schema(description = "Elementi della pagina")
+    private List<T> content;
+
+    @Schema(description = "Numero massimo di elementi richiesti", example = "10")
+    private int size;
+
+    @Schema(description = "Cursore opaco per la pagina successiva (null se è l'ultima)")
+    private String nextCursor;
+
+    @Schema(description = "true se esistono altri elementi dopo questa pagina", example = "true")
+    private boolean hasNext;
+
+    @Schema(description = "Numero totale di elementi (solo se richiesto con includeTotal=true)")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long totalElements;
+
+    public CursorPage() {
+    }
+
+    public CursorPage(List<T> content, int size, String nextCursor, Long totalElements) {
+        this.content = content;
+        this.size = size;
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+        this.totalElements = totalElements;
+    }
+
+    /**
+     * Converte gli elementi mantenendo cursore e totale (es: Cocktail → CocktailSummary).
+     */
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> converter) {
+        List<R> converted = content.stream().<R>map(converter).toList();
+        return new CursorPage<>(converted, size, nextCursor, totalElements);
+    }
+
+    // Getters e Setters
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+
+    public Long getTotalElements() {
+        return totalElements;
+    }
+
+    public void setTotalElements(Long totalElements) {
+        this.totalElements = totalElements;
+    }
+}
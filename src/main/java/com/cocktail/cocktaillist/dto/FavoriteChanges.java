@@ -0,0 +1,81 @@
+package com.cocktail.cocktaillist.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Modifiche ai preferiti di un utente dopo una versione già sincronizzata dal client.
+ *
+ * Solo ID: il client ha già i dati dei cocktail (o li carica a parte) e applica
+ * "favorites" come inserimento/aggiornamento e "removed" come eliminazione.
+ * Con reset = true "favorites" è l'elenco completo e sostituisce quello locale.
+ */
+@Schema(description = "Modifiche ai preferiti dopo una versione")
+public class FavoriteChanges {
+
+    @Schema(description = "Versione corrente: da passare come \"since\" alla prossima sincronizzazione", example = "42")
+    private long version;
+
+    @Schema(description = "true se \"favorites\" è l'elenco completo (nessuna versione o versione troppo vecchia)",
+            example = "false")
+    private boolean reset;
+
+    @Schema(description = "Preferiti aggiunti o ricolorati: cocktailId → colorId (null = colore di default)",
+            example = "{\"12\": 3, \"15\": null}")
+    private Map<Long, Long> favorites = new LinkedHashMap<>();
+
+    @Schema(description = "ID dei cocktail rimossi dai preferiti", example = "[7]")
+    private List<Long> removed = new ArrayList<>();
+
+    public FavoriteChanges() {
+    }
+
+    public FavoriteChanges(long version) {
+        this.version = version;
+    }
+
+    public void addFavorite(Long cocktailId, Long colorId) {
+        favorites.put(cocktailId, colorId);
+    }
+
+    public void addRemoved(Long cocktailId) {
+        removed.add(cocktailId);
+    }
+
+    // Getters e Setters
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public boolean isReset() {
+        return reset;
+    }
+
+    public void setReset(boolean reset) {
+        this.reset = reset;
+    }
+
+    public Map<Long, Long> getFavorites() {
+        return favorites;
+    }
+
+    public void setFavorites(Map<Long, Long> favorites) {
+        this.favorites = favorites;
+    }
+
+    public List<Long> getRemoved() {
+        return removed;
+    }
+
+    public void setRemoved(List<Long> removed) {
+        this.removed = removed;
+    }
+}
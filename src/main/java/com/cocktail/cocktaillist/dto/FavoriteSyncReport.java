@@ -0,0 +1,156 @@
+package com.cocktail.cocktaillist.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Esito della sincronizzazione in blocco dei preferiti: un risultato per ogni operazione,
+ * nello stesso ordine della richiesta.
+ *
+ * Un'operazione già applicata (es: "add" di un preferito esistente) risulta "unchanged":
+ * rinviare la stessa coda dopo un timeout non cambia nulla e non produce errori.
+ */
+@Schema(description = "Esito della sincronizzazione in blocco dei preferiti")
+public class FavoriteSyncReport {
+
+    public static final String APPLIED = "applied";
+    public static final String UNCHANGED = "unchanged";
+    public static final String FAILED = "failed";
+
+    @Schema(description = "Operazioni che hanno modificato i preferiti", example = "180")
+    private int applied;
+
+    @Schema(description = "Operazioni già applicate in precedenza", example = "18")
+    private int unchanged;
+
+    @Schema(description = "Operazioni scartate", example = "2")
+    private int failed;
+
+    @Schema(description = "Risultato di ogni operazione, nell'ordine della richiesta")
+    private List<ItemResult> results = new ArrayList<>();
+
+    public void addApplied(int index, String op, Long cocktailId) {
+        applied++;
+        results.add(new ItemResult(index, op, cocktailId, APPLIED, null));
+    }
+
+    public void addUnchanged(int index, String op, Long cocktailId) {
+        unchanged++;
+        results.add(new ItemResult(index, op, cocktailId, UNCHANGED, null));
+    }
+
+    public void addFailed(int index, String op, Long cocktailId, String error) {
+        failed++;
+        results.add(new ItemResult(index, op, cocktailId, FAILED, error));
+    }
+
+    // Getters e Setters
+    public int getApplied() {
+        return applied;
+    }
+
+    public void setApplied(int applied) {
+        this.applied = applied;
+    }
+
+    public int getUnchanged() {
+        return unchanged;
+    }
+
+    public void setUnchanged(int unchanged) {
+        this.unchanged = unchanged;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<ItemResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<ItemResult> results) {
+        this.results = results;
+    }
+
+    /**
+     * Risultato di una singola operazione
+     */
+    @Schema(description = "Risultato di una singola operazione")
+    public static class ItemResult {
+
+        @Schema(description = "Posizione dell'operazione nella richiesta (0-based)", example = "0")
+        private int index;
+
+        @Schema(description = "Tipo di operazione", example = "add")
+        private String op;
+
+        @Schema(description = "ID del cocktail", example = "42")
+        private Long cocktailId;
+
+        @Schema(description = "applied, unchanged o failed", example = "applied")
+        private String status;
+
+        @Schema(description = "Motivo dello scarto (solo failed)", example = "Cocktail non trovato con ID: 42")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private String error;
+
+        public ItemResult() {
+        }
+
+        public ItemResult(int index, String op, Long cocktailId, String status, String error) {
+            this.index = index;
+            this.op = op;
+            this.cocktailId = cocktailId;
+            this.status = status;
+            this.error = error;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public void setIndex(int index) {
+            this.index = index;
+        }
+
+        public String getOp() {
+            return op;
+        }
+
+        public void setOp(String op) {
+            this.op = op;
+        }
+
+        public Long getCocktailId() {
+            return cocktailId;
+        }
+
+        public void setCocktailId(Long cocktailId) {
+            this.cocktailId = cocktailId;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public void setStatus(String status) {
+            this.status = status;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.cocktail.cocktaillist.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO per la sincronizzazione in blocco dei preferiti: le operazioni accodate offline
+ * dall'app, applicate nell'ordine in cui sono elencate.
+ */
+@Schema(description = "Operazioni sui preferiti da applicare in blocco, nell'ordine dato")
+public class FavoriteSyncRequest {
+
+    public static final String ADD = "add";
+    public static final String REMOVE = "remove";
+    public static final String SET_COLOR = "setColor";
+
+    @Schema(description = "Operazioni (max 1000)")
+    private List<Operation> operations;
+
+    public FavoriteSyncRequest() {
+    }
+
+    public FavoriteSyncRequest(List<Operation> operations) {
+        this.operations = operations;
+    }
+
+    // Getters e Setters
+    public List<Operation> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<Operation> operations) {
+        this.operations = operations;
+    }
+
+    /**
+     * Singola operazione: "add", "remove" o "setColor" (con colorId o colorName)
+     */
+    @Schema(description = "Operazione su un preferito")
+    public static class Operation {
+
+        @Schema(description = "Tipo di operazione", example = "add", allowableValues = {"add", "remove", "setColor"})
+        private String op;
+
+        @Schema(description = "ID del cocktail", example = "42")
+        private Long cocktailId;
+
+        @Schema(description = "ID del colore (solo setColor)", example = "3")
+        private Long colorId;
+
+        @Schema(description = "Nome del colore, in alternativa a colorId (solo setColor)", example = "Rosso Classico")
+        private String colorName;
+
+        public Operation() {
+        }
+
+        public Operation(String op, Long cocktailId) {
+            this.op = op;
+            this.cocktailId = cocktailId;
+        }
+
+        public String getOp() {
+            return op;
+        }
+
+        public void setOp(String op) {
+            this.op = op;
+        }
+
+        public Long getCocktailId() {
+            return cocktailId;
+        }
+
+        public void setCocktailId(Long cocktailId) {
+            this.cocktailId = cocktailId;
+        }
+
+        public Long getColorId() {
+            return colorId;
+        }
+
+        public void setColorId(Long colorId) {
+            this.colorId = colorId;
+        }
+
+        public String getColorName() {
+            return colorName;
+        }
+
+        public void setColorName(String colorName) {
+            this.colorName = colorName;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.cocktail.cocktaillist.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Riepilogo di una categoria di ingredienti (?view=summary di /api/ingredients/grouped-by-category).
+ */
+@Schema(description = "Riepilogo di una categoria di ingredienti")
+public class IngredientCategorySummary {
+
+    @Schema(description = "Nome della categoria", example = "Spiriti")
+    private String category;
+
+    @Schema(description = "Numero di ingredienti nella categoria", example = "12")
+    private int count;
+
+    public IngredientCategorySummary() {
+    }
+
+    public IngredientCategorySummary(String category, int count) {
+        this.category = category;
+        this.count = count;
+    }
+
+    // Getters e Setters
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+}
@@ -0,0 +1,112 @@
+package com.cocktail.cocktaillist.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Esito dell'unione di ingredienti: contatori per blocco e ingredienti eliminati.
+ *
+ * Un cocktail che contiene sia la destinazione sia un sorgente (o più sorgenti)
+ * terrebbe due righe per lo stesso ingrediente: ne resta una sola (quella della
+ * destinazione, altrimenti la prima) e le altre vengono contate in "collisionsResolved".
+ */
+@Schema(description = "Esito dell'unione di ingredienti doppioni")
+public class IngredientMergeReport {
+
+    @Schema(description = "ID dell'ingrediente che resta", example = "12")
+    private Long targetId;
+
+    @Schema(description = "Blocchi elaborati (una transazione per blocco)", example = "3")
+    private int chunks;
+
+    @Schema(description = "Cocktail la cui ricetta è stata aggiornata", example = "1240")
+    private int cocktailsUpdated;
+
+    @Schema(description = "Righe di ricetta passate alla destinazione", example = "1190")
+    private int rowsRepointed;
+
+    @Schema(description = "Righe doppie eliminate (stesso cocktail con destinazione e sorgente)", example = "50")
+    private int collisionsResolved;
+
+    @Schema(description = "Ingredienti sorgente eliminati", example = "[31, 47]")
+    private List<Long> deletedIngredients = new ArrayList<>();
+
+    @Schema(description = "Ingredienti sorgente non eliminati perché usati di nuovo durante l'unione", example = "[]")
+    private List<Long> retainedIngredients = new ArrayList<>();
+
+    public IngredientMergeReport() {
+    }
+
+    public IngredientMergeReport(Long targetId) {
+        this.targetId = targetId;
+    }
+
+    /**
+     * Registra un blocco completato.
+     */
+    public void addChunk(int cocktails, int repointed, int collisions) {
+        chunks++;
+        cocktailsUpdated += cocktails;
+        rowsRepointed += repointed;
+        collisionsResolved += collisions;
+    }
+
+    // Getters e Setters
+    public Long getTargetId() {
+        return targetId;
+    }
+
+    public void setTargetId(Long targetId) {
+        this.targetId = targetId;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public void setChunks(int chunks) {
+        this.chunks = chunks;
+    }
+
+    public int getCocktailsUpdated() {
+        return cocktailsUpdated;
+    }
+
+    public void setCocktailsUpdated(int cocktailsUpdated) {
+        this.cocktailsUpdated = cocktailsUpdated;
+    }
+
+    public int getRowsRepointed() {
+        return rowsRepointed;
+    }
+
+    public void setRowsRepointed(int rowsRepointed) {
+        this.rowsRepointed = rowsRepointed;
+    }
+
+    public int getCollisionsResolved() {
+        return collisionsResolved;
+    }
+
+    public void setCollisionsResolved(int collisionsResolved) {
+        this.collisionsResolved = collisionsResolved;
+    }
+
+    public List<Long> getDeletedIngredients() {
+        return deletedIngredients;
+    }
+
+    public void setDeletedIngredients(List<Long> deletedIngredients) {
+        this.deletedIngredients = deletedIngredients;
+    }
+
+    public List<Long> getRetainedIngredients() {
+        return retainedIngredients;
+    }
+
+    public void setRetainedIngredients(List<Long> retainedIngredients) {
+        this.retainedIngredients = retainedIngredients;
+    }
+}
@@ -0,0 +1,44 @@
+package com.cocktail.cocktaillist.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO per l'unione di ingredienti doppioni: le ricette degli ingredienti "sourceIds"
+ * passano all'ingrediente "targetId", poi i sorgenti vengono eliminati.
+ */
+@Schema(description = "Unione di ingredienti doppioni in un ingrediente di destinazione")
+public class IngredientMergeRequest {
+
+    @Schema(description = "ID dell'ingrediente che resta", example = "12")
+    private Long targetId;
+
+    @Schema(description = "ID degli ingredienti da unire nella destinazione (vengono eliminati)", example = "[31, 47]")
+    private List<Long> sourceIds;
+
+    public IngredientMergeRequest() {
+    }
+
+    public IngredientMergeRequest(Long targetId, List<Long> sourceIds) {
+        this.targetId = targetId;
+        this.sourceIds = sourceIds;
+    }
+
+    // Getters e Setters
+    public Long getTargetId() {
+        return targetId;
+    }
+
+    public void setTargetId(Long targetId) {
+        this.targetId = targetId;
+    }
+
+    public List<Long> getSourceIds() {
+        return sourceIds;
+    }
+
+    public void setSourceIds(List<Long> sourceIds) {
+        this.sourceIds = sourceIds;
+    }
+}
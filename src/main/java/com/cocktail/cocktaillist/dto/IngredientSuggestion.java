@@ -0,0 +1,78 @@
+package com.cocktail.cocktaillist.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Suggerimento dell'autocomplete ingredienti: i campi necessari al selettore
+ * dell'app, più il numero di cocktail che usano l'ingrediente (criterio di ordinamento).
+ */
+@Schema(description = "Suggerimento dell'autocomplete ingredienti")
+public class IngredientSuggestion {
+
+    @Schema(description = "ID dell'ingrediente", example = "3")
+    private Long id;
+
+    @Schema(description = "Nome dell'ingrediente", example = "Rum Bianco")
+    private String name;
+
+    @Schema(description = "Categoria", example = "Spiriti")
+    private String category;
+
+    @Schema(description = "Unità di misura", example = "ml")
+    private String unit;
+
+    @Schema(description = "Numero di cocktail che usano l'ingrediente", example = "42")
+    private int cocktailCount;
+
+    public IngredientSuggestion() {
+    }
+
+    public IngredientSuggestion(Long id, String name, String category, String unit, int cocktailCount) {
+        this.id = id;
+        this.name = name;
+        this.category = category;
+        this.unit = unit;
+        this.cocktailCount = cocktailCount;
+    }
+
+    // Getters e Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public void setUnit(String unit) {
+        this.unit = unit;
+    }
+
+    public int getCocktailCount() {
+        return cocktailCount;
+    }
+
+    public void setCocktailCount(int cocktailCount) {
+        this.cocktailCount = cocktailCount;
+    }
+}
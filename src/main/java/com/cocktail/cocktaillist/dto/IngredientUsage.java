@@ -0,0 +1,54 @@
+package com.cocktail.cocktaillist.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Utilizzo di un ingrediente: in quante righe di ricetta (cocktail_ingredient) compare.
+ * Viene costruito direttamente nella query JPQL sul contatore ingredient.usage_count (SELECT new ...).
+ */
+@Schema(description = "Utilizzo di un ingrediente nelle ricette")
+public class IngredientUsage {
+
+    @Schema(description = "ID dell'ingrediente", example = "3")
+    private Long ingredientId;
+
+    @Schema(description = "Nome dell'ingrediente", example = "Lime")
+    private String name;
+
+    @Schema(description = "Numero di utilizzi nelle ricette", example = "42")
+    private long count;
+
+    public IngredientUsage() {
+    }
+
+    public IngredientUsage(Long ingredientId, String name, long count) {
+        this.ingredientId = ingredientId;
+        this.name = name;
+        this.count = count;
+    }
+
+    // Getters e Setters
+    public Long getIngredientId() {
+        return ingredientId;
+    }
+
+    public void setIngredientId(Long ingredientId) {
+        this.ingredientId = ingredientId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
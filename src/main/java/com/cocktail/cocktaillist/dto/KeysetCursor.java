@@ -0,0 +1,78 @@
+package com.cocktail.cocktaillist.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursore per la paginazione keyset (seek): ricorda la posizione dell'ultimo
+ * elemento restituito come coppia (valore del campo di ordinamento, id).
+ *
+ * Ai client viene passato come stringa opaca (Base64 URL-safe):
+ * non va interpretato né costruito a mano, solo rimandato nel parametro "cursor".
+ */
+public class KeysetCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final String sortBy;
+    private final boolean ascending;
+    private final Long lastId;
+    private final String lastValue; // null se il campo dell'ultimo elemento era null
+
+    public KeysetCursor(String sortBy, boolean ascending, Long lastId, String lastValue) {
+        this.sortBy = sortBy;
+        this.ascending = ascending;
+        this.lastId = lastId;
+        this.lastValue = lastValue;
+    }
+
+    /**
+     * Codifica il cursore nella stringa opaca restituita al client.
+     * Formato interno: sortBy|asc|id|valore ("~" = valore null, "=" prefisso del valore)
+     */
+    public String encode() {
+        String raw = sortBy + SEPARATOR
+                + (ascending ? "asc" : "desc") + SEPARATOR
+                + lastId + SEPARATOR
+                + (lastValue == null ? "~" : "=" + lastValue);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursore ricevuto dal client.
+     *
+     * @param token Stringa opaca ricevuta nel parametro "cursor"
+     * @return Il cursore decodificato
+     * @throws RuntimeException se il cursore non è valido
+     */
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // limit 4: il valore può contenere il separatore
+            String[] parts = raw.split("\\" + SEPARATOR, 4);
+            if (parts.length != 4 || parts[3].isEmpty()) {
+                throw new IllegalArgumentException(raw);
+            }
+            String value = parts[3].charAt(0) == '~' ? null : parts[3].substring(1);
+            return new KeysetCursor(parts[0], "asc".equals(parts[1]), Long.parseLong(parts[2]), value);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Cursore non valido: " + token);
+        }
+    }
+
+    public String getSortBy() {
+        return sortBy;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+
+    public String getLastValue() {
+        return lastValue;
+    }
+}
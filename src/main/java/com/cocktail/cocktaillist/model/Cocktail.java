@@ -2,6 +2,8 @@ package com.cocktail.cocktaillist.model;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
@@ -9,11 +11,24 @@ import java.util.Set;
 /**
  * Entità JPA che mappa la tabella "cocktail" del database.
  * Ogni istanza di questa classe rappresenta una riga della tabella.
+ *
+ * Fetch plan (scelti per caso d'uso nei repository tramite @EntityGraph):
+ * - "Cocktail.summary": solo le colonne del cocktail, nessun ingrediente
+ * - "Cocktail.detail": ingredienti caricati con JOIN FETCH nella stessa query
  */
 @Entity
 @Table(name = "cocktail")
+@NamedEntityGraph(name = Cocktail.GRAPH_SUMMARY)
+@NamedEntityGraph(
+    name = Cocktail.GRAPH_DETAIL,
+    attributeNodes = @NamedAttributeNode(value = "cocktailIngredients", subgraph = "ingredients"),
+    subgraphs = @NamedSubgraph(name = "ingredients", attributeNodes = @NamedAttributeNode("ingredient"))
+)
 public class Cocktail {
 
+    public static final String GRAPH_SUMMARY = "Cocktail.summary";
+    public static final String GRAPH_DETAIL = "Cocktail.detail";
+
     /**
      * Chiave primaria - corrisponde alla colonna "id" (auto-increment)
      */
@@ -38,8 +53,9 @@ public class Cocktail {
      * Un cocktail ha molti ingredienti (attraverso la tabella di join)
      * cascade = ALL: quando salvi/elimini il cocktail, gestisci anche gli ingredienti
      * orphanRemoval = true: se rimuovi un ingrediente dalla lista, viene eliminato dal DB
+     * LAZY: gli ingredienti si caricano solo con il fetch plan "Cocktail.detail"
      */
-    @OneToMany(mappedBy = "cocktail", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "cocktail", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @JsonManagedReference
     private Set<CocktailIngredient> cocktailIngredients = new HashSet<>();
 
@@ -73,6 +89,21 @@ public class Cocktail {
     @Column(name = "alcoholic")
     private Boolean alcoholic;
 
+    /**
+     * Volume totale stimato in ml: somma dei volumi degli ingredienti con unità di volume
+     * (CocktailIngredient.volumeMl). Calcolato in scrittura (updateStrength), indicizzato.
+     */
+    @Column(name = "total_volume_ml", precision = 10, scale = 2)
+    private BigDecimal totalVolumeMl;
+
+    /**
+     * Gradazione alcolica stimata in % vol: media delle gradazioni degli ingredienti
+     * pesata sul volume (senza diluizione del ghiaccio). Null se nessun ingrediente ha un volume.
+     * Calcolata in scrittura (updateStrength), indicizzata.
+     */
+    @Column(name = "abv", precision = 5, scale = 2)
+    private BigDecimal abv;
+
     /**
      * Data/ora di creazione del record
      * Impostata automaticamente al momento dell'inserimento
@@ -87,6 +118,15 @@ public class Cocktail {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    /**
+     * Versione per il lock ottimistico: incrementata da Hibernate a ogni UPDATE.
+     * Un UPDATE con versione superata fallisce invece di sovrascrivere le modifiche altrui.
+     * Esposta ai client come ETag (GET con If-None-Match, PUT con If-Match).
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     /**
      * Metodo chiamato automaticamente PRIMA del persist (INSERT)
      * Imposta created_at e updated_at
@@ -133,9 +173,10 @@ public class Cocktail {
      * Aggiunge un ingrediente al cocktail con la quantità specificata
      * Gestisce automaticamente la relazione bidirezionale
      */
-    public void addIngredient(Ingredient ingredient, String quantity) {
+    public CocktailIngredient addIngredient(Ingredient ingredient, String quantity) {
         CocktailIngredient cocktailIngredient = new CocktailIngredient(this, ingredient, quantity);
         cocktailIngredients.add(cocktailIngredient);
+        return cocktailIngredient;
     }
 
     /**
@@ -146,6 +187,30 @@ public class Cocktail {
         cocktailIngredient.setCocktail(null);
     }
 
+    /**
+     * Ricalcola volume totale e gradazione dagli ingredienti correnti.
+     * Da chiamare dopo aver modificato gli ingredienti o le quantità.
+     * Stessa formula di CocktailStrengthService (usata dalle scritture in blocco via SQL).
+     */
+    public void updateStrength() {
+        BigDecimal volume = BigDecimal.ZERO;
+        BigDecimal alcohol = BigDecimal.ZERO;
+        for (CocktailIngredient cocktailIngredient : cocktailIngredients) {
+            BigDecimal ml = cocktailIngredient.getVolumeMl();
+            if (ml == null) {
+                continue;
+            }
+            volume = volume.add(ml);
+            BigDecimal ingredientAbv = cocktailIngredient.getIngredient().getAbv();
+            if (ingredientAbv != null) {
+                alcohol = alcohol.add(ml.multiply(ingredientAbv));
+            }
+        }
+        // Limitato al massimo della colonna (la gradazione usa comunque il volume reale)
+        this.totalVolumeMl = volume.min(Quantity.MAX_VOLUME_ML).setScale(2, RoundingMode.HALF_UP);
+        this.abv = volume.signum() > 0 ? alcohol.divide(volume, 2, RoundingMode.HALF_UP) : null;
+    }
+
     /**
      * Rimuove tutti gli ingredienti
      */
@@ -245,6 +310,30 @@ public class Cocktail {
         this.updatedAt = updatedAt;
     }
 
+    public BigDecimal getTotalVolumeMl() {
+        return totalVolumeMl;
+    }
+
+    public void setTotalVolumeMl(BigDecimal totalVolumeMl) {
+        this.totalVolumeMl = totalVolumeMl;
+    }
+
+    public BigDecimal getAbv() {
+        return abv;
+    }
+
+    public void setAbv(BigDecimal abv) {
+        this.abv = abv;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // ========================================
     // METODI UTILITY
     // ========================================
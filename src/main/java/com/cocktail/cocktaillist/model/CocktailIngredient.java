@@ -1,8 +1,13 @@
 package com.cocktail.cocktaillist.model;
 
+import com.cocktail.cocktaillist.dto.IngredientSuggestion;
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.persistence.*;
 
+import java.math.BigDecimal;
+import java.util.List;
+
 /**
  * Entity JPA per la tabella "cocktail_ingredient"
  * Rappresenta la relazione Many-to-Many tra Cocktail e Ingredient
@@ -29,17 +34,46 @@ public class CocktailIngredient {
     /**
      * Relazione Many-to-One verso Ingredient
      * Molti CocktailIngredient usano lo stesso Ingredient
+     * LAZY: viene caricato con JOIN FETCH dal fetch plan "Cocktail.detail"
      */
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "ingredient_id", nullable = false)
     private Ingredient ingredient;
 
     /**
-     * Quantità specifica (es: "50ml", "1 pezzo", "10 foglie")
+     * Quantità specifica (es: "50ml", "1 pezzo", "10 foglie"), come scritta nella ricetta
      */
     @Column(name = "quantity", nullable = false, length = 50)
     private String quantity;
 
+    /**
+     * Valore numerico della quantità (null se il testo non contiene un numero, es: "q.b.").
+     * Questo campo, unit e volumeMl sono ricavati da quantity in setQuantity() (vedi Quantity).
+     */
+    @Column(name = "amount", precision = 10, scale = 3)
+    private BigDecimal amount;
+
+    /**
+     * Unità normalizzata (es: "ml", "oz", "cucchiaino", "pezzo")
+     */
+    @Column(name = "unit", length = 20)
+    private String unit;
+
+    /**
+     * Volume stimato in ml (null per le unità non di volume, es: "pezzo", "g")
+     */
+    @Column(name = "volume_ml", precision = 10, scale = 2)
+    private BigDecimal volumeMl;
+
+    /**
+     * Ingredienti esistenti con nome quasi uguale a quello di questa riga, se il nome era nuovo
+     * (probabile errore di battitura, es: "Sucoo di Lime" → "Succo di lime").
+     * Solo nella risposta di createCocktail/addIngredientsToCocktail: non salvato, assente se vuoto.
+     */
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<IngredientSuggestion> suggestions;
+
     // Costruttori
     public CocktailIngredient() {
     }
@@ -47,7 +81,7 @@ public class CocktailIngredient {
     public CocktailIngredient(Cocktail cocktail, Ingredient ingredient, String quantity) {
         this.cocktail = cocktail;
         this.ingredient = ingredient;
-        this.quantity = quantity;
+        setQuantity(quantity);
     }
 
     // Getters e Setters
@@ -79,7 +113,34 @@ public class CocktailIngredient {
         return quantity;
     }
 
+    /**
+     * Imposta la quantità e ricalcola valore, unità e volume.
+     */
     public void setQuantity(String quantity) {
         this.quantity = quantity;
+        Quantity parsed = Quantity.parse(quantity);
+        this.amount = parsed.getAmount();
+        this.unit = parsed.getUnit();
+        this.volumeMl = parsed.getVolumeMl();
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public BigDecimal getVolumeMl() {
+        return volumeMl;
+    }
+
+    public List<IngredientSuggestion> getSuggestions() {
+        return suggestions;
+    }
+
+    public void setSuggestions(List<IngredientSuggestion> suggestions) {
+        this.suggestions = suggestions;
     }
 }
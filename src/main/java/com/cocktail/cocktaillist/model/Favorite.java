@@ -46,6 +46,13 @@ public class Favorite {
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
+    /**
+     * Versione dei preferiti dell'utente all'ultima aggiunta o cambio colore
+     * (sincronizzazione incrementale, vedi FavoriteChangeLog)
+     */
+    @Column(name = "sync_version", nullable = false)
+    private long syncVersion;
+
     // Lifecycle hook
     @PrePersist
     protected void onCreate() {
@@ -101,4 +108,12 @@ public class Favorite {
     public void setColor(Color color) {
         this.color = color;
     }
+
+    public long getSyncVersion() {
+        return syncVersion;
+    }
+
+    public void setSyncVersion(long syncVersion) {
+        this.syncVersion = syncVersion;
+    }
 }
@@ -1,8 +1,10 @@
 package com.cocktail.cocktaillist.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
@@ -10,9 +12,13 @@ import java.util.Set;
 /**
  * Entity JPA per la tabella "ingredient"
  * Rappresenta un ingrediente disponibile nel database
+ *
+ * JsonIgnoreProperties: se l'ingrediente arriva come proxy Hibernate (relazione LAZY)
+ * Jackson ignora i campi interni del proxy
  */
 @Entity
 @Table(name = "ingredient")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Ingredient {
 
     @Id
@@ -51,6 +57,28 @@ public class Ingredient {
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
+    /**
+     * Gradazione alcolica in % del volume (es: 40 per il gin); null o 0 per gli analcolici.
+     * Usata per stimare la gradazione dei cocktail (Cocktail.abv).
+     */
+    @Column(name = "abv", precision = 5, scale = 2)
+    @Schema(description = "Gradazione alcolica in % vol", example = "40.0")
+    private BigDecimal abv;
+
+    /**
+     * Numero di righe di ricetta (cocktail_ingredient) che usano l'ingrediente.
+     * Mantenuto dai metodi di scrittura con UPDATE usage_count = usage_count + ?, mai da JPA
+     * (insertable/updatable = false): salvare l'entity non sovrascrive un incremento concorrente.
+     * Eventuali scostamenti vengono corretti da IngredientUsageReconciler.
+     * Non serializzato: le scritture sulle ricette lo cambiano senza invalidare le risposte
+     * che contengono ingredienti (snapshot del catalogo, raggruppamento per categoria);
+     * i conteggi sono esposti solo dalle statistiche (IngredientUsage).
+     */
+    @Column(name = "usage_count", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    @JsonIgnore
+    private long usageCount;
+
     /**
      * Relazione inversa: lista di cocktail che usano questo ingrediente
      * mappedBy = "ingredient" si riferisce al campo "ingredient" in CocktailIngredient
@@ -117,6 +145,22 @@ public class Ingredient {
         this.description = description;
     }
 
+    public BigDecimal getAbv() {
+        return abv;
+    }
+
+    public void setAbv(BigDecimal abv) {
+        this.abv = abv;
+    }
+
+    public long getUsageCount() {
+        return usageCount;
+    }
+
+    public void setUsageCount(long usageCount) {
+        this.usageCount = usageCount;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
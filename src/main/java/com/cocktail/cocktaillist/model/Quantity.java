@@ -0,0 +1,198 @@
+package com.cocktail.cocktaillist.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.Normalizer;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Quantità di un ingrediente interpretata dal testo libero ("50ml", "1 1/2 oz", "2 cucchiaini").
+ *
+ * - amount: valore numerico (frazioni e decimali con virgola o punto; "2-3" → 2.5)
+ * - unit: unità normalizzata ("ml", "oz", "cucchiaino", "pezzo", ...)
+ * - volumeMl: volume stimato in millilitri, solo per le unità di volume (null per "pezzo", "g", ...)
+ *
+ * Se il testo non contiene un numero (es: "q.b.", "top") tutti i campi sono null:
+ * il testo originale resta comunque salvato in cocktail_ingredient.quantity.
+ * Lo stesso vale per amount e volumeMl fuori dal range delle colonne (es: "99999999999 ml"):
+ * restano null invece di far fallire l'INSERT.
+ */
+public final class Quantity {
+
+    private static final Quantity UNKNOWN = new Quantity(null, null, null);
+
+    /**
+     * Valori massimi delle colonne cocktail_ingredient.amount DECIMAL(10,3) e volume_ml DECIMAL(10,2)
+     * (volume_ml vale anche per cocktail.total_volume_ml)
+     */
+    public static final BigDecimal MAX_AMOUNT = new BigDecimal("9999999.999");
+    public static final BigDecimal MAX_VOLUME_ML = new BigDecimal("99999999.99");
+
+    /**
+     * Numero iniziale: intero con frazione ("1 1/2"), frazione ("1/2"), decimale ("1,5") o intervallo ("2-3")
+     */
+    private static final Pattern AMOUNT = Pattern.compile(
+        "^(\\d+)\\s+(\\d+)/(\\d+)|^(\\d+)/(\\d+)|^(\\d+(?:[.,]\\d+)?)(?:\\s*-\\s*(\\d+(?:[.,]\\d+)?))?");
+
+    /**
+     * Unità riconosciute → unità normalizzata
+     */
+    private static final Map<String, String> UNITS = new HashMap<>();
+
+    /**
+     * Unità normalizzata → millilitri per unità (solo unità di volume)
+     */
+    private static final Map<String, BigDecimal> MILLILITERS = Map.of(
+        "ml", new BigDecimal("1"),
+        "cl", new BigDecimal("10"),
+        "dl", new BigDecimal("100"),
+        "l", new BigDecimal("1000"),
+        "oz", new BigDecimal("29.5735"),
+        "cucchiaio", new BigDecimal("15"),
+        "cucchiaino", new BigDecimal("5"),
+        "dash", new BigDecimal("0.9"),
+        "goccia", new BigDecimal("0.05")
+    );
+
+    static {
+        unit("ml", "ml", "millilitro", "millilitri");
+        unit("cl", "cl", "centilitro", "centilitri");
+        unit("dl", "dl", "decilitro", "decilitri");
+        unit("l", "l", "lt", "litro", "litri");
+        unit("oz", "oz", "oncia", "once", "ounce", "ounces");
+        unit("cucchiaio", "cucchiaio", "cucchiai", "tbsp");
+        unit("cucchiaino", "cucchiaino", "cucchiaini", "tsp", "bar spoon", "barspoon");
+        unit("dash", "dash", "dashes", "spruzzo", "spruzzi", "splash");
+        unit("goccia", "goccia", "gocce", "drop", "drops");
+        unit("g", "g", "gr", "grammo", "grammi");
+        unit("pezzo", "pezzo", "pezzi", "pz");
+        unit("foglia", "foglia", "foglie");
+        unit("fetta", "fetta", "fette");
+        unit("pizzico", "pizzico", "pizzichi");
+    }
+
+    private final BigDecimal amount;
+    private final String unit;
+    private final BigDecimal volumeMl;
+
+    private Quantity(BigDecimal amount, String unit, BigDecimal volumeMl) {
+        this.amount = amount;
+        this.unit = unit;
+        this.volumeMl = volumeMl;
+    }
+
+    /**
+     * Interpreta il testo di una quantità.
+     *
+     * @param text Quantità come scritta nella ricetta (es: "50ml", "2 cucchiaini")
+     * @return La quantità interpretata (campi null se il testo non inizia con un numero)
+     */
+    public static Quantity parse(String text) {
+        if (text == null) {
+            return UNKNOWN;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD)
+            .replaceAll("\\p{M}", "")
+            .toLowerCase(Locale.ROOT)
+            .trim();
+
+        Matcher matcher = AMOUNT.matcher(normalized);
+        if (!matcher.find()) {
+            return UNKNOWN;
+        }
+        BigDecimal amount;
+        try {
+            amount = amountOf(matcher);
+        } catch (ArithmeticException e) {
+            // Frazione con denominatore zero ("1/0")
+            return UNKNOWN;
+        }
+
+        String rest = normalized.substring(matcher.end()).trim();
+        String unit = rest.isEmpty() ? null : unitOf(rest);
+        BigDecimal perUnit = unit != null ? MILLILITERS.get(unit) : null;
+        amount = amount.setScale(3, RoundingMode.HALF_UP);
+        if (amount.compareTo(MAX_AMOUNT) > 0) {
+            return new Quantity(null, unit, null);
+        }
+        BigDecimal volume = perUnit != null ? amount.multiply(perUnit).setScale(2, RoundingMode.HALF_UP) : null;
+        if (volume != null && volume.compareTo(MAX_VOLUME_ML) > 0) {
+            volume = null;
+        }
+        return new Quantity(amount, unit, volume);
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public BigDecimal getVolumeMl() {
+        return volumeMl;
+    }
+
+    // ========================================
+    // METODI UTILITY
+    // ========================================
+
+    private static BigDecimal amountOf(Matcher matcher) {
+        if (matcher.group(1) != null) {
+            return new BigDecimal(matcher.group(1)).add(fraction(matcher.group(2), matcher.group(3)));
+        }
+        if (matcher.group(4) != null) {
+            return fraction(matcher.group(4), matcher.group(5));
+        }
+        BigDecimal from = decimal(matcher.group(6));
+        if (matcher.group(7) != null) {
+            return from.add(decimal(matcher.group(7))).divide(BigDecimal.valueOf(2), 3, RoundingMode.HALF_UP);
+        }
+        return from;
+    }
+
+    private static BigDecimal fraction(String numerator, String denominator) {
+        return new BigDecimal(numerator).divide(new BigDecimal(denominator), 3, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal decimal(String value) {
+        return new BigDecimal(value.replace(',', '.'));
+    }
+
+    /**
+     * Unità normalizzata dal testo dopo il numero: prima la frase intera ("bar spoon"),
+     * poi la prima parola ("ml di succo" → "ml"). Le unità sconosciute restano come prima parola.
+     */
+    private static String unitOf(String rest) {
+        String cleaned = rest.replaceAll("[.()]", " ").trim();
+        String known = UNITS.get(cleaned);
+        if (known != null) {
+            return known;
+        }
+        String word = cleaned.split("\\s+")[0];
+        if (word.isEmpty()) {
+            return null;
+        }
+        known = UNITS.get(word);
+        if (known != null) {
+            return known;
+        }
+        return word.length() > 20 ? word.substring(0, 20) : word;
+    }
+
+    private static void unit(String normalized, String... aliases) {
+        for (String alias : aliases) {
+            UNITS.put(alias, normalized);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Quantity{amount=" + amount + ", unit='" + unit + "', volumeMl=" + volumeMl + "}";
+    }
+}
@@ -1,12 +1,17 @@
 package com.cocktail.cocktaillist.repository;
 
+import com.cocktail.cocktaillist.dto.CocktailSummary;
 import com.cocktail.cocktaillist.model.Cocktail;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,6 +29,11 @@ import java.util.Optional;
  * 
  * NON devi scrivere codice di implementazione!
  * Spring lo genera automaticamente a runtime.
+ * 
+ * Fetch plan: gli ingredienti sono LAZY. I metodi che restituiscono liste
+ * complete usano @EntityGraph(Cocktail.GRAPH_DETAIL) (una sola query con JOIN),
+ * quelli paginati usano Cocktail.GRAPH_SUMMARY e il service carica gli
+ * ingredienti della pagina con findWithIngredientsByIdIn (numero di query fisso).
  */
 @Repository
 public interface CocktailRepository extends JpaRepository<Cocktail, Long> {
@@ -40,6 +50,7 @@ public interface CocktailRepository extends JpaRepository<Cocktail, Long> {
      * @param category La categoria da cercare (es: "Rum", "Gin")
      * @return Lista di cocktail della categoria
      */
+    @EntityGraph(Cocktail.GRAPH_DETAIL)
     List<Cocktail> findByCategory(String category);
 
     /**
@@ -47,8 +58,9 @@ public interface CocktailRepository extends JpaRepository<Cocktail, Long> {
      * 
      * @param category La categoria da cercare
      * @param pageable Parametri di paginazione
-     * @return Pagina di cocktail della categoria
+     * @return Pagina di cocktail della categoria (senza ingredienti)
      */
+    @EntityGraph(Cocktail.GRAPH_SUMMARY)
     Page<Cocktail> findByCategory(String category, Pageable pageable);
 
     /**
@@ -58,6 +70,7 @@ public interface CocktailRepository extends JpaRepository<Cocktail, Long> {
      * @param name Nome del cocktail
      * @return Optional contenente il cocktail se trovato
      */
+    @EntityGraph(Cocktail.GRAPH_DETAIL)
     Optional<Cocktail> findByName(String name);
 
     /**
@@ -67,6 +80,7 @@ public interface CocktailRepository extends JpaRepository<Cocktail, Long> {
      * @param name Parte del nome da cercare
      * @return Lista di cocktail che matchano
      */
+    @EntityGraph(Cocktail.GRAPH_DETAIL)
     List<Cocktail> findByNameContainingIgnoreCase(String name);
 
     /**
@@ -74,8 +88,9 @@ public interface CocktailRepository extends JpaRepository<Cocktail, Long> {
      * 
      * @param name Parte del nome da cercare
      * @param pageable Parametri di paginazione
-     * @return Pagina di cocktail che matchano
+     * @return Pagina di cocktail che matchano (senza ingredienti)
      */
+    @EntityGraph(Cocktail.GRAPH_SUMMARY)
     Page<Cocktail> findByNameContainingIgnoreCase(String name, Pageable pageable);
 
     /**
@@ -85,8 +100,18 @@ public interface CocktailRepository extends JpaRepository<Cocktail, Long> {
      * @param alcoholic true per alcolici, false per analcolici
      * @return Lista di cocktail
      */
+    @EntityGraph(Cocktail.GRAPH_DETAIL)
     List<Cocktail> findByAlcoholic(Boolean alcoholic);
 
+    /**
+     * Conta i cocktail alcolici o analcolici senza caricare le entity.
+     * Spring genera: SELECT COUNT(*) FROM cocktail WHERE alcoholic = ?
+     * 
+     * @param alcoholic true per alcolici, false per analcolici
+     * @return Numero di cocktail
+     */
+    long countByAlcoholic(Boolean alcoholic);
+
     /**
      * Trova cocktail per categoria E se sono alcolici.
      * Spring genera: SELECT * FROM cocktail WHERE category = ? AND alcoholic = ?
@@ -95,6 +120,7 @@ public interface CocktailRepository extends JpaRepository<Cocktail, Long> {
      * @param alcoholic true/false
      * @return Lista di cocktail
      */
+    @EntityGraph(Cocktail.GRAPH_DETAIL)
     List<Cocktail> findByCategoryAndAlcoholic(String category, Boolean alcoholic);
 
     /**
@@ -115,6 +141,143 @@ public interface CocktailRepository extends JpaRepository<Cocktail, Long> {
     @Query("SELECT c.id FROM Cocktail c ORDER BY c.id")
     List<Long> findAllIds();
 
+    /**
+     * Pagina di cocktail senza ingredienti (una query + COUNT).
+     * 
+     * @param pageable Parametri di paginazione
+     * @return Pagina di cocktail (solo colonne della tabella cocktail)
+     */
+    @EntityGraph(Cocktail.GRAPH_SUMMARY)
+    @Query("SELECT c FROM Cocktail c")
+    Page<Cocktail> findAllSummaries(Pageable pageable);
+
+    /**
+     * Carica TUTTO il catalogo con ingredienti in una sola query (JOIN FETCH).
+     * Usato per costruire lo snapshot in memoria.
+     * 
+     * @return Lista di cocktail con ingredienti
+     */
+    @EntityGraph(Cocktail.GRAPH_DETAIL)
+    @Query("SELECT c FROM Cocktail c")
+    List<Cocktail> findAllWithIngredients();
+
+    /**
+     * Carica un cocktail con i suoi ingredienti (JOIN FETCH).
+     * 
+     * @param id ID del cocktail
+     * @return Optional contenente il cocktail con ingredienti
+     */
+    @EntityGraph(Cocktail.GRAPH_DETAIL)
+    Optional<Cocktail> findWithIngredientsById(Long id);
+
+    /**
+     * Legge solo la versione (lock ottimistico) di un cocktail, senza caricare l'entity.
+     * Spring genera: SELECT c.version FROM cocktail c WHERE c.id = ?
+     *
+     * @param id ID del cocktail
+     * @return Optional con la versione corrente
+     */
+    @Query("SELECT c.version FROM Cocktail c WHERE c.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Carica gli ingredienti dei cocktail di una pagina in una sola query.
+     * Spring genera: SELECT ... FROM cocktail LEFT JOIN cocktail_ingredient ... WHERE id IN (...)
+     * 
+     * @param ids ID dei cocktail della pagina
+     * @return Cocktail con ingredienti (ordine non garantito)
+     */
+    @EntityGraph(Cocktail.GRAPH_DETAIL)
+    List<Cocktail> findWithIngredientsByIdIn(Collection<Long> ids);
+
+    // ========================================
+    // PROIEZIONI PER LE LISTE (CocktailSummary)
+    // ========================================
+    // Leggono solo le colonne del riepilogo + il numero di ingredienti (subquery COUNT),
+    // senza caricare entity, descrizioni o ingredienti.
+
+    /**
+     * Riepiloghi dei cocktail di una categoria (paginato).
+     * 
+     * @param category Categoria da cercare
+     * @param pageable Parametri di paginazione
+     * @return Pagina di CocktailSummary
+     */
+    @Query(value = "SELECT new com.cocktail.cocktaillist.dto.CocktailSummary(" +
+                   "c.id, c.name, c.category, c.alcoholic, c.imageUrl, " +
+                   "(SELECT COUNT(ci) FROM CocktailIngredient ci WHERE ci.cocktail = c), c.abv, c.totalVolumeMl) " +
+                   "FROM Cocktail c WHERE c.category = :category",
+           countQuery = "SELECT COUNT(c) FROM Cocktail c WHERE c.category = :category")
+    Page<CocktailSummary> findSummariesByCategory(@Param("category") String category, Pageable pageable);
+
+    /**
+     * Riepiloghi dei cocktail il cui nome contiene una stringa (case-insensitive, paginato).
+     * 
+     * @param name Parte del nome da cercare
+     * @param pageable Parametri di paginazione
+     * @return Pagina di CocktailSummary
+     */
+    @Query(value = "SELECT new com.cocktail.cocktaillist.dto.CocktailSummary(" +
+                   "c.id, c.name, c.category, c.alcoholic, c.imageUrl, " +
+                   "(SELECT COUNT(ci) FROM CocktailIngredient ci WHERE ci.cocktail = c), c.abv, c.totalVolumeMl) " +
+                   "FROM Cocktail c WHERE LOWER(c.name) LIKE LOWER(CONCAT('%', :name, '%'))",
+           countQuery = "SELECT COUNT(c) FROM Cocktail c WHERE LOWER(c.name) LIKE LOWER(CONCAT('%', :name, '%'))")
+    Page<CocktailSummary> findSummariesByNameContaining(@Param("name") String name, Pageable pageable);
+
+    /**
+     * Riepiloghi dei cocktail alcolici o analcolici, ordinati per nome.
+     * 
+     * @param alcoholic true per alcolici, false per analcolici
+     * @return Lista di CocktailSummary
+     */
+    @Query("SELECT new com.cocktail.cocktaillist.dto.CocktailSummary(" +
+           "c.id, c.name, c.category, c.alcoholic, c.imageUrl, " +
+           "(SELECT COUNT(ci) FROM CocktailIngredient ci WHERE ci.cocktail = c), c.abv, c.totalVolumeMl) " +
+           "FROM Cocktail c WHERE c.alcoholic = :alcoholic ORDER BY c.name")
+    List<CocktailSummary> findSummariesByAlcoholic(@Param("alcoholic") Boolean alcoholic);
+
+    /**
+     * Riepiloghi dei cocktail in un intervallo di gradazione (e di volume), paginato.
+     * Range scan sull'indice idx_abv (colonna precalcolata, nessun calcolo per riga).
+     *
+     * @param minAbv Gradazione minima (inclusa)
+     * @param maxAbv Gradazione massima (inclusa)
+     * @param minVolume Volume minimo in ml (incluso)
+     * @param maxVolume Volume massimo in ml (incluso)
+     * @param pageable Parametri di paginazione e ordinamento
+     * @return Pagina di CocktailSummary
+     */
+    @Query(value = "SELECT new com.cocktail.cocktaillist.dto.CocktailSummary(" +
+                   "c.id, c.name, c.category, c.alcoholic, c.imageUrl, " +
+                   "(SELECT COUNT(ci) FROM CocktailIngredient ci WHERE ci.cocktail = c), c.abv, c.totalVolumeMl) " +
+                   "FROM Cocktail c WHERE c.abv BETWEEN :minAbv AND :maxAbv " +
+                   "AND c.totalVolumeMl BETWEEN :minVolume AND :maxVolume",
+           countQuery = "SELECT COUNT(c) FROM Cocktail c WHERE c.abv BETWEEN :minAbv AND :maxAbv " +
+                        "AND c.totalVolumeMl BETWEEN :minVolume AND :maxVolume")
+    Page<CocktailSummary> findSummariesByStrength(@Param("minAbv") BigDecimal minAbv,
+                                                 @Param("maxAbv") BigDecimal maxAbv,
+                                                 @Param("minVolume") BigDecimal minVolume,
+                                                 @Param("maxVolume") BigDecimal maxVolume,
+                                                 Pageable pageable);
+
+    /**
+     * Riepiloghi dei cocktail in un intervallo di volume, paginato
+     * (anche quelli senza gradazione, es: analcolici). Range scan sull'indice idx_total_volume.
+     *
+     * @param minVolume Volume minimo in ml (incluso)
+     * @param maxVolume Volume massimo in ml (incluso)
+     * @param pageable Parametri di paginazione e ordinamento
+     * @return Pagina di CocktailSummary
+     */
+    @Query(value = "SELECT new com.cocktail.cocktaillist.dto.CocktailSummary(" +
+                   "c.id, c.name, c.category, c.alcoholic, c.imageUrl, " +
+                   "(SELECT COUNT(ci) FROM CocktailIngredient ci WHERE ci.cocktail = c), c.abv, c.totalVolumeMl) " +
+                   "FROM Cocktail c WHERE c.totalVolumeMl BETWEEN :minVolume AND :maxVolume",
+           countQuery = "SELECT COUNT(c) FROM Cocktail c WHERE c.totalVolumeMl BETWEEN :minVolume AND :maxVolume")
+    Page<CocktailSummary> findSummariesByVolume(@Param("minVolume") BigDecimal minVolume,
+                                               @Param("maxVolume") BigDecimal maxVolume,
+                                               Pageable pageable);
+
 
     
     // ========================================
@@ -1,10 +1,13 @@
 package com.cocktail.cocktaillist.repository;
 
 import com.cocktail.cocktaillist.model.Favorite;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,19 +23,25 @@ public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
      * Spring genera: SELECT * FROM favorite WHERE user_id = ?
      * 
      * @param userId ID utente dal JWT (email o sub)
-     * @return Lista di Favorite (include i cocktail tramite JOIN)
+     * @return Lista di Favorite (include cocktail, ingredienti e colore tramite JOIN)
      */
+    @EntityGraph(attributePaths = {"cocktail", "cocktail.cocktailIngredients", "cocktail.cocktailIngredients.ingredient", "color"})
     List<Favorite> findByUserId(String userId);
 
     /**
-     * Trova tutti i preferiti di un utente con caricamento esplicito dei colori
-     * JOIN FETCH garantisce che i colori siano caricati nella stessa query
+     * Preferiti di un utente limitati a un insieme di cocktail (es: quelli di una pagina).
+     * Legge solo le due colonne necessarie, senza caricare cocktail o colori;
+     * usa l'indice univoco (user_id, cocktail_id), quindi il costo dipende dal numero
+     * di cocktail richiesti e non da quanti preferiti ha l'utente.
      * 
      * @param userId ID utente dal JWT
-     * @return Lista di Favorite con cocktail e colori caricati
+     * @param cocktailIds ID dei cocktail da controllare
+     * @return Lista di Object[] con [cocktailId, colorId] (colorId null se non impostato)
      */
-    @Query("SELECT f FROM Favorite f LEFT JOIN FETCH f.color LEFT JOIN FETCH f.cocktail WHERE f.userId = :userId")
-    List<Favorite> findByUserIdWithColors(String userId);
+    @Query("SELECT f.cocktail.id, c.id FROM Favorite f LEFT JOIN f.color c " +
+           "WHERE f.userId = :userId AND f.cocktail.id IN :cocktailIds")
+    List<Object[]> findColorIdsByUserIdAndCocktailIdIn(@Param("userId") String userId,
+                                                       @Param("cocktailIds") Collection<Long> cocktailIds);
 
     /**
      * Trova un preferito specifico di un utente
@@ -1,12 +1,21 @@
 package com.cocktail.cocktaillist.repository;
 
+import com.cocktail.cocktaillist.dto.IngredientUsage;
 import com.cocktail.cocktaillist.model.Ingredient;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,6 +40,30 @@ public interface IngredientRepository extends JpaRepository<Ingredient, Long> {
      */
     Optional<Ingredient> findByNameIgnoreCase(String name);
 
+    /**
+     * Trova gli ingredienti con uno dei nomi dati, in una sola query
+     * Spring genera: SELECT * FROM ingredient WHERE name IN (?, ?, ...)
+     * 
+     * Il confronto segue la collation della colonna (utf8mb4_unicode_ci: maiuscole e accenti ignorati)
+     * 
+     * @param names Nomi da cercare
+     * @return Ingredienti trovati (nessun ordine garantito)
+     */
+    List<Ingredient> findByNameIn(Collection<String> names);
+
+    /**
+     * Come findByNameIn, ma con lettura con lock condiviso (MySQL: SELECT ... FOR SHARE).
+     * Una lettura con lock vede l'ultima versione committata delle righe, anche se inserite
+     * da un'altra transazione dopo l'inizio di quella corrente (REPEATABLE READ).
+     * Usata per rileggere gli ingredienti dopo un INSERT ... ON DUPLICATE KEY.
+     * 
+     * @param names Nomi da cercare
+     * @return Ingredienti trovati (nessun ordine garantito)
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT i FROM Ingredient i WHERE i.name IN :names")
+    List<Ingredient> findByNameInForShare(@Param("names") Collection<String> names);
+
     /**
      * Trova tutti gli ingredienti di una categoria
      * Spring genera: SELECT * FROM ingredient WHERE category = ?
@@ -64,6 +97,18 @@ public interface IngredientRepository extends JpaRepository<Ingredient, Long> {
      */
     Page<Ingredient> findByNameContainingIgnoreCase(String name, Pageable pageable);
 
+    /**
+     * Paginazione keyset: restituisce gli ingredienti che seguono la posizione data.
+     * Spring genera: SELECT ... WHERE (name > ? OR (name = ? AND id > ?)) ORDER BY name, id LIMIT ?
+     * Nessun OFFSET e nessun COUNT: usa l'indice idx_name anche per pagine lontane.
+     *
+     * @param position Posizione (valori di ordinamento dell'ultimo elemento), ScrollPosition.keyset() per iniziare
+     * @param sort Ordinamento (deve terminare con l'id per essere stabile)
+     * @param limit Numero massimo di elementi
+     * @return Finestra di ingredienti con indicazione se ce ne sono altri
+     */
+    Window<Ingredient> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
     /**
      * Verifica se esiste un ingrediente con quel nome (case-insensitive)
      * Spring genera: SELECT COUNT(*) > 0 FROM ingredient WHERE LOWER(name) = LOWER(?)
@@ -82,4 +127,27 @@ public interface IngredientRepository extends JpaRepository<Ingredient, Long> {
      */
     @Query("SELECT COUNT(ci) FROM CocktailIngredient ci WHERE ci.ingredient.id = :ingredientId")
     long countUsageByIngredientId(@org.springframework.data.repository.query.Param("ingredientId") Long ingredientId);
+
+    /**
+     * Contatore di utilizzo di un ingrediente (lettura per chiave primaria, nessuna COUNT).
+     *
+     * @param id ID dell'ingrediente
+     * @return Numero di righe di ricetta che usano l'ingrediente, vuoto se non esiste
+     */
+    @Query("SELECT i.usageCount FROM Ingredient i WHERE i.id = :id")
+    Optional<Long> findUsageCountById(@Param("id") Long id);
+
+    /**
+     * Ingredienti più usati, letti dal contatore persistito (nessuna aggregazione su cocktail_ingredient).
+     * SQL: SELECT id, name, usage_count FROM ingredient WHERE usage_count > 0
+     *      ORDER BY usage_count DESC, name LIMIT ?   (indice idx_usage_count)
+     * 
+     * Gli ingredienti mai usati non compaiono.
+     *
+     * @param pageable Numero di risultati (PageRequest.of(0, k))
+     * @return Utilizzi in ordine decrescente (a parità, per nome)
+     */
+    @Query("SELECT new com.cocktail.cocktaillist.dto.IngredientUsage(i.id, i.name, i.usageCount) " +
+           "FROM Ingredient i WHERE i.usageCount > 0 ORDER BY i.usageCount DESC, i.name")
+    List<IngredientUsage> findMostUsed(Pageable pageable);
 }
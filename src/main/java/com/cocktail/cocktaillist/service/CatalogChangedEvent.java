@@ -0,0 +1,44 @@
+package com.cocktail.cocktaillist.service;
+
+/**
+ * Evento pubblicato dai service quando il catalogo (cocktail o ingredienti) cambia.
+ *
+ * Viene gestito DOPO il commit della transazione (@TransactionalEventListener),
+ * così chi mantiene strutture in memoria (es: CocktailCatalog) rilegge
+ * solo dati già confermati nel database.
+ */
+public class CatalogChangedEvent {
+
+    /**
+     * Descrizione dell'operazione che ha modificato il catalogo (es: "createCocktail")
+     */
+    private final String operation;
+
+    /**
+     * ID del cocktail modificato; null se la modifica può toccare più cocktail
+     * (es: rinomina di un ingrediente, eliminazione di tutto il catalogo)
+     */
+    private final Long cocktailId;
+
+    public CatalogChangedEvent(String operation) {
+        this(operation, null);
+    }
+
+    public CatalogChangedEvent(String operation, Long cocktailId) {
+        this.operation = operation;
+        this.cocktailId = cocktailId;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public Long getCocktailId() {
+        return cocktailId;
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogChangedEvent{operation='" + operation + "', cocktailId=" + cocktailId + "}";
+    }
+}
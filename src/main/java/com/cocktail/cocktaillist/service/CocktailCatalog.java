@@ -0,0 +1,118 @@
+package com.cocktail.cocktaillist.service;
+
+import com.cocktail.cocktaillist.model.Cocktail;
+import com.cocktail.cocktaillist.repository.CocktailRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Catalogo in memoria: mantiene l'ultimo CocktailCatalogSnapshot pubblicato.
+ *
+ * - I lettori chiamano snapshot() e leggono un oggetto immutabile: nessun lock, nessuna query
+ * - Le scritture in CocktailService/IngredientService pubblicano un CatalogChangedEvent;
+ *   dopo il commit viene pubblicata atomicamente una nuova versione: se l'evento indica
+ *   il cocktail modificato viene riletto solo quello, altrimenti (import, merge, modifiche
+ *   agli ingredienti condivisi) l'intero catalogo
+ */
+@Component
+public class CocktailCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(CocktailCatalog.class);
+
+    @Autowired
+    private CocktailRepository cocktailRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final AtomicReference<CocktailCatalogSnapshot> current = new AtomicReference<>();
+
+    /**
+     * Restituisce lo snapshot corrente (lo carica alla prima richiesta se necessario).
+     *
+     * @return Snapshot immutabile del catalogo
+     */
+    public CocktailCatalogSnapshot snapshot() {
+        CocktailCatalogSnapshot snapshot = current.get();
+        return snapshot != null ? snapshot : refresh();
+    }
+
+    /**
+     * Carica il catalogo all'avvio, così la prima richiesta non paga il caricamento.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        refresh();
+    }
+
+    /**
+     * Aggiorna il catalogo dopo il commit di una scrittura.
+     * Nessuna nuova transazione: la lettura usa la connessione ancora tenuta dalla transazione
+     * appena conclusa (con REQUIRES_NEW ogni scrittura occuperebbe due connessioni e con molte
+     * scritture concorrenti il pool si esaurirebbe). Il persistence context viene svuotato,
+     * così la query rilegge dal database lo stato committato e non le entity già caricate.
+     * HIGHEST_PRECEDENCE: gli altri listener (es: CocktailSearchIndex) leggono il nuovo snapshot.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        entityManager.clear();
+        if (event.getCocktailId() != null) {
+            refreshCocktail(event.getCocktailId());
+        } else {
+            refresh();
+        }
+    }
+
+    /**
+     * Rilegge un solo cocktail (una query per chiave primaria) e pubblica lo snapshot
+     * precedente con quel cocktail aggiunto, sostituito o tolto.
+     * Synchronized come refresh(): gli aggiornamenti partono sempre dall'ultima versione pubblicata.
+     *
+     * @param cocktailId ID del cocktail modificato
+     * @return Il nuovo snapshot pubblicato
+     */
+    public synchronized CocktailCatalogSnapshot refreshCocktail(Long cocktailId) {
+        CocktailCatalogSnapshot previous = current.get();
+        if (previous == null) {
+            return refresh();
+        }
+        Cocktail cocktail = cocktailRepository.findWithIngredientsById(cocktailId).orElse(null);
+        CocktailCatalogSnapshot snapshot = previous.withCocktail(previous.getVersion() + 1, cocktailId, cocktail);
+        current.set(snapshot);
+
+        log.debug("Catalogo cocktail pubblicato: versione {} (cocktail {} {})", snapshot.getVersion(), cocktailId,
+            cocktail != null ? "aggiornato" : "eliminato");
+        return snapshot;
+    }
+
+    /**
+     * Ricostruisce lo snapshot dal database e lo pubblica con versione incrementata.
+     * Synchronized: due ricaricamenti concorrenti non possono pubblicare versioni fuori ordine.
+     *
+     * @return Il nuovo snapshot pubblicato
+     */
+    public synchronized CocktailCatalogSnapshot refresh() {
+        List<Cocktail> cocktails = cocktailRepository.findAllWithIngredients();
+
+        CocktailCatalogSnapshot previous = current.get();
+        long version = previous != null ? previous.getVersion() + 1 : 1L;
+        CocktailCatalogSnapshot snapshot = new CocktailCatalogSnapshot(version, cocktails);
+        current.set(snapshot);
+
+        log.debug("Catalogo cocktail pubblicato: versione {} ({} cocktail)", version, snapshot.size());
+        return snapshot;
+    }
+}
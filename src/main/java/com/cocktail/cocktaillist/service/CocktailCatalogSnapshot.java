@@ -0,0 +1,419 @@
+package com.cocktail.cocktaillist.service;
+
+import com.cocktail.cocktaillist.model.Cocktail;
+
+import java.math.BigDecimal;
+import java.text.CollationKey;
+import java.text.Collator;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Snapshot immutabile e versionato del catalogo cocktail.
+ *
+ * Contiene il grafo completo Cocktail → CocktailIngredient → Ingredient
+ * caricato una sola volta dal database. Le letture vengono servite da qui
+ * senza lock e senza query; quando il catalogo cambia viene costruito un
+ * NUOVO snapshot (versione + 1) e sostituito atomicamente in CocktailCatalog.
+ *
+ * NOTA: le entity contenute sono condivise tra i thread e vanno trattate
+ * in sola lettura. Per modificarle si carica l'entity dal repository.
+ */
+public final class CocktailCatalogSnapshot {
+
+    /**
+     * Ordine dei testi come la collation utf8mb4_unicode_ci del database:
+     * maiuscole e accenti ignorati (forza PRIMARY).
+     * Un Collator per thread: i suoi metodi sono synchronized sull'istanza, quindi un Collator
+     * condiviso farebbe attendere i lettori. Serve solo a calcolare le chiavi (vedi textKeys).
+     */
+    private static final ThreadLocal<Collator> TEXT_COLLATOR =
+        ThreadLocal.withInitial(CocktailCatalogSnapshot::textCollator);
+
+    /**
+     * Campi di testo ammessi per l'ordinamento in memoria: si confrontano le loro CollationKey
+     * (confronto di byte, senza lock), calcolate una volta per cocktail.
+     */
+    private enum TextField {
+        NAME("name", Cocktail::getName),
+        DESCRIPTION("description", Cocktail::getDescription),
+        CATEGORY("category", Cocktail::getCategory),
+        GLASS_TYPE("glassType", Cocktail::getGlassType),
+        PREPARATION_METHOD("preparationMethod", Cocktail::getPreparationMethod),
+        IMAGE_URL("imageUrl", Cocktail::getImageUrl);
+
+        private final String property;
+        private final Function<Cocktail, String> value;
+
+        TextField(String property, Function<Cocktail, String> value) {
+            this.property = property;
+            this.value = value;
+        }
+
+        /**
+         * @return Il campo con questo nome di proprietà, null se non è un campo di testo
+         */
+        static TextField of(String property) {
+            for (TextField field : values()) {
+                if (field.property.equals(property)) {
+                    return field;
+                }
+            }
+            return null;
+        }
+
+        CollationKey keyOf(Cocktail cocktail) {
+            String text = value.apply(cocktail);
+            return text != null ? TEXT_COLLATOR.get().getCollationKey(text) : null;
+        }
+    }
+
+    /**
+     * Altri campi ammessi per l'ordinamento in memoria (stessi nomi delle proprietà JPA:
+     * con TextField, tutti i campi semplici di Cocktail, come l'ordinamento sul database che sostituisce).
+     * A parità di valore si ordina per id, così l'ordine è sempre deterministico.
+     */
+    private static final Map<String, Comparator<Cocktail>> SORT_KEYS = Map.ofEntries(
+        Map.entry("id", Comparator.comparing(Cocktail::getId)),
+        Map.entry("alcoholic", byField(Cocktail::getAlcoholic, Comparator.naturalOrder())),
+        Map.entry("createdAt", byField(Cocktail::getCreatedAt, Comparator.naturalOrder())),
+        Map.entry("updatedAt", byField(Cocktail::getUpdatedAt, Comparator.naturalOrder())),
+        Map.entry("abv", byField(Cocktail::getAbv, Comparator.naturalOrder())),
+        Map.entry("totalVolumeMl", byField(Cocktail::getTotalVolumeMl, Comparator.naturalOrder()))
+    );
+
+    private static final Comparator<Cocktail> BY_ID = SORT_KEYS.get("id");
+
+    private final long version;
+
+    /**
+     * Tutti i cocktail ordinati per id
+     */
+    private final List<Cocktail> cocktails;
+
+    private final Map<Long, Cocktail> byId;
+
+    /**
+     * Cocktail per categoria (chiave NameKeys.nameKey: maiuscole e accenti
+     * ignorati, come nella collation del database)
+     */
+    private final Map<String, List<Cocktail>> byCategory;
+
+    /**
+     * Viste ordinate calcolate alla prima richiesta (chiave "campo:asc" / "campo:desc").
+     * Lo snapshot resta immutabile: cambia solo la cache derivata.
+     */
+    private final Map<String, List<Cocktail>> sortedViews = new ConcurrentHashMap<>();
+
+    /**
+     * Chiavi di collation per campo di testo, calcolate per tutti i cocktail alla prima
+     * richiesta ordinata su quel campo (mappe per identità, non più modificate dopo la pubblicazione).
+     * Ricerche binarie e ordinamenti confrontano queste chiavi invece di chiamare il Collator.
+     */
+    private final Map<TextField, Map<Cocktail, CollationKey>> textKeys = new ConcurrentHashMap<>();
+
+    CocktailCatalogSnapshot(long version, List<Cocktail> cocktails) {
+        this.version = version;
+
+        List<Cocktail> sorted = new ArrayList<>(cocktails);
+        sorted.sort(BY_ID);
+        this.cocktails = Collections.unmodifiableList(sorted);
+
+        Map<Long, Cocktail> ids = new HashMap<>();
+        sorted.forEach(c -> ids.put(c.getId(), c));
+        this.byId = Collections.unmodifiableMap(ids);
+
+        Map<String, List<Cocktail>> categories = new HashMap<>();
+        for (Cocktail cocktail : sorted) {
+            if (cocktail.getCategory() != null) {
+                categories.computeIfAbsent(categoryKey(cocktail.getCategory()), key -> new ArrayList<>()).add(cocktail);
+            }
+        }
+        categories.replaceAll((key, list) -> Collections.unmodifiableList(list));
+        this.byCategory = Collections.unmodifiableMap(categories);
+    }
+
+    private CocktailCatalogSnapshot(long version, List<Cocktail> cocktails, Map<Long, Cocktail> byId,
+                                    Map<String, List<Cocktail>> byCategory) {
+        this.version = version;
+        this.cocktails = cocktails;
+        this.byId = byId;
+        this.byCategory = byCategory;
+    }
+
+    /**
+     * Nuovo snapshot con un solo cocktail aggiunto, sostituito o eliminato.
+     * Le liste vengono copiate e il cocktail spostato con una ricerca binaria (nessun
+     * riordinamento); le viste ordinate già calcolate vengono aggiornate allo stesso modo.
+     *
+     * @param newVersion Versione del nuovo snapshot
+     * @param id ID del cocktail modificato
+     * @param updated Stato committato del cocktail, null se è stato eliminato
+     * @return Il nuovo snapshot (questo resta invariato)
+     */
+    CocktailCatalogSnapshot withCocktail(long newVersion, Long id, Cocktail updated) {
+        Cocktail previous = byId.get(id);
+
+        Map<Long, Cocktail> ids = new HashMap<>(byId);
+        if (updated != null) {
+            ids.put(id, updated);
+        } else {
+            ids.remove(id);
+        }
+
+        Map<String, List<Cocktail>> categories = new HashMap<>(byCategory);
+        String previousCategory = previous != null && previous.getCategory() != null
+            ? categoryKey(previous.getCategory()) : null;
+        String updatedCategory = updated != null && updated.getCategory() != null
+            ? categoryKey(updated.getCategory()) : null;
+        if (Objects.equals(previousCategory, updatedCategory)) {
+            if (updatedCategory != null) {
+                categories.put(updatedCategory, replaced(categories.get(updatedCategory), BY_ID, previous, updated));
+            }
+        } else {
+            if (previousCategory != null) {
+                List<Cocktail> list = replaced(categories.get(previousCategory), BY_ID, previous, null);
+                if (list.isEmpty()) {
+                    categories.remove(previousCategory);
+                } else {
+                    categories.put(previousCategory, list);
+                }
+            }
+            if (updatedCategory != null) {
+                categories.put(updatedCategory,
+                    replaced(categories.getOrDefault(updatedCategory, List.of()), BY_ID, null, updated));
+            }
+        }
+
+        CocktailCatalogSnapshot snapshot = new CocktailCatalogSnapshot(newVersion,
+            replaced(cocktails, BY_ID, previous, updated),
+            Collections.unmodifiableMap(ids), Collections.unmodifiableMap(categories));
+
+        // Chiavi già calcolate: copiate con quella del cocktail aggiornato. La chiave del precedente
+        // resta finché le viste non sono aggiornate (serve alla ricerca binaria per toglierlo)
+        textKeys.forEach((field, keys) -> {
+            Map<Cocktail, CollationKey> copy = new IdentityHashMap<>(keys);
+            if (updated != null) {
+                copy.put(updated, field.keyOf(updated));
+            }
+            snapshot.textKeys.put(field, copy);
+        });
+        sortedViews.forEach((key, view) -> {
+            String[] sort = key.split(":");
+            Comparator<Cocktail> comparator = snapshot.comparatorFor(sort[0], "asc".equals(sort[1]));
+            snapshot.sortedViews.put(key, replaced(view, comparator, previous, updated));
+        });
+        if (previous != null && previous != updated) {
+            snapshot.textKeys.values().forEach(keys -> keys.remove(previous));
+        }
+        return snapshot;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return Tutti i cocktail ordinati per id
+     */
+    public List<Cocktail> getAll() {
+        return cocktails;
+    }
+
+    public Optional<Cocktail> findById(Long id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    /**
+     * @param category Categoria (maiuscole e accenti ignorati, come in MySQL)
+     * @return Cocktail della categoria ordinati per id
+     */
+    public List<Cocktail> findByCategory(String category) {
+        if (category == null) {
+            return List.of();
+        }
+        return byCategory.getOrDefault(categoryKey(category), List.of());
+    }
+
+    public int size() {
+        return cocktails.size();
+    }
+
+    /**
+     * Restituisce tutti i cocktail ordinati per il campo richiesto.
+     *
+     * @param sortBy Nome della proprietà (es: "name", "createdAt")
+     * @param ascending true per ordine crescente
+     * @return Lista ordinata (immutabile)
+     * @throws RuntimeException se il campo di ordinamento non è supportato
+     */
+    public List<Cocktail> sortedBy(String sortBy, boolean ascending) {
+        Comparator<Cocktail> comparator = comparatorFor(sortBy, ascending);
+        return sortedViews.computeIfAbsent(sortBy + (ascending ? ":asc" : ":desc"), key -> {
+            List<Cocktail> view = new ArrayList<>(cocktails);
+            view.sort(comparator);
+            return Collections.unmodifiableList(view);
+        });
+    }
+
+    /**
+     * Paginazione keyset: restituisce i cocktail che seguono "last" nell'ordinamento richiesto.
+     * La posizione si trova con una ricerca binaria sulla vista ordinata (O(log n)),
+     * quindi il costo non dipende da quanto si è avanzati nella lista.
+     *
+     * @param sortBy Campo di ordinamento
+     * @param ascending true per ordine crescente
+     * @param last Ultimo elemento già restituito (o una sua sonda, vedi probe()); null per la prima pagina
+     * @param limit Numero massimo di elementi
+     * @return Sottolista (vista) della lista ordinata
+     */
+    public List<Cocktail> after(String sortBy, boolean ascending, Cocktail last, int limit) {
+        List<Cocktail> view = sortedBy(sortBy, ascending);
+        int from = 0;
+        if (last != null) {
+            int pos = Collections.binarySearch(view, last, comparatorFor(sortBy, ascending));
+            from = pos >= 0 ? pos + 1 : -pos - 1;
+        }
+        return view.subList(from, Math.min(from + limit, view.size()));
+    }
+
+    /**
+     * Valore del campo di ordinamento di un cocktail, in forma testuale (per il cursore).
+     *
+     * @return Il valore come stringa, null se il campo è null
+     */
+    static String sortKeyOf(Cocktail cocktail, String sortBy) {
+        Object value = switch (sortBy) {
+            case "id" -> cocktail.getId();
+            case "name" -> cocktail.getName();
+            case "description" -> cocktail.getDescription();
+            case "category" -> cocktail.getCategory();
+            case "glassType" -> cocktail.getGlassType();
+            case "preparationMethod" -> cocktail.getPreparationMethod();
+            case "imageUrl" -> cocktail.getImageUrl();
+            case "alcoholic" -> cocktail.getAlcoholic();
+            case "createdAt" -> cocktail.getCreatedAt();
+            case "updatedAt" -> cocktail.getUpdatedAt();
+            case "abv" -> cocktail.getAbv();
+            case "totalVolumeMl" -> cocktail.getTotalVolumeMl();
+            default -> throw new RuntimeException("Campo di ordinamento non valido: " + sortBy);
+        };
+        return value != null ? value.toString() : null;
+    }
+
+    /**
+     * Costruisce un cocktail "sonda" con solo id e campo di ordinamento valorizzati,
+     * da usare come posizione in after() anche se l'elemento originale è stato eliminato.
+     *
+     * @throws RuntimeException se il campo non è supportato o il valore non è valido
+     */
+    static Cocktail probe(String sortBy, String value, Long id) {
+        Cocktail probe = new Cocktail();
+        probe.setId(id);
+        if (value == null) {
+            return probe;
+        }
+        try {
+            switch (sortBy) {
+                case "id" -> { }
+                case "name" -> probe.setName(value);
+                case "description" -> probe.setDescription(value);
+                case "category" -> probe.setCategory(value);
+                case "glassType" -> probe.setGlassType(value);
+                case "preparationMethod" -> probe.setPreparationMethod(value);
+                case "imageUrl" -> probe.setImageUrl(value);
+                case "alcoholic" -> probe.setAlcoholic(Boolean.valueOf(value));
+                case "createdAt" -> probe.setCreatedAt(LocalDateTime.parse(value));
+                case "updatedAt" -> probe.setUpdatedAt(LocalDateTime.parse(value));
+                case "abv" -> probe.setAbv(new BigDecimal(value));
+                case "totalVolumeMl" -> probe.setTotalVolumeMl(new BigDecimal(value));
+                default -> throw new RuntimeException("Campo di ordinamento non valido: " + sortBy);
+            }
+        } catch (java.time.format.DateTimeParseException | NumberFormatException e) {
+            throw new RuntimeException("Cursore non valido per il campo: " + sortBy);
+        }
+        return probe;
+    }
+
+    /**
+     * Verifica che il campo sia ordinabile (stessi campi dell'ordinamento in memoria).
+     *
+     * @throws RuntimeException se il campo di ordinamento non è supportato
+     */
+    static void checkSortField(String sortBy) {
+        if (!SORT_KEYS.containsKey(sortBy) && TextField.of(sortBy) == null) {
+            throw new RuntimeException("Campo di ordinamento non valido: " + sortBy);
+        }
+    }
+
+    /**
+     * Comparator completo (campo + id come tie-break) per il campo richiesto.
+     * Per i campi di testo confronta le chiavi di collation di questo snapshot (calcolate alla
+     * prima richiesta); un cocktail senza chiave (la sonda di un cursore) la calcola al momento.
+     *
+     * @throws RuntimeException se il campo di ordinamento non è supportato
+     */
+    Comparator<Cocktail> comparatorFor(String sortBy, boolean ascending) {
+        Comparator<Cocktail> comparator = SORT_KEYS.get(sortBy);
+        if (comparator == null) {
+            TextField field = TextField.of(sortBy);
+            if (field == null) {
+                throw new RuntimeException("Campo di ordinamento non valido: " + sortBy);
+            }
+            Map<Cocktail, CollationKey> keys = textKeys.computeIfAbsent(field, f -> {
+                Map<Cocktail, CollationKey> computed = new IdentityHashMap<>(cocktails.size() * 2);
+                cocktails.forEach(cocktail -> computed.put(cocktail, f.keyOf(cocktail)));
+                return computed;
+            });
+            comparator = byField(cocktail -> keys.containsKey(cocktail) ? keys.get(cocktail) : field.keyOf(cocktail),
+                Comparator.<CollationKey>naturalOrder());
+        }
+        return ascending ? comparator : comparator.reversed();
+    }
+
+    private static <T> Comparator<Cocktail> byField(Function<Cocktail, T> field, Comparator<? super T> order) {
+        return Comparator.comparing(field, Comparator.nullsLast(order))
+            .thenComparing(Cocktail::getId);
+    }
+
+    /**
+     * Copia di una lista ordinata con un elemento tolto e/o inserito al suo posto (ricerca binaria).
+     */
+    private static List<Cocktail> replaced(List<Cocktail> sorted, Comparator<Cocktail> order,
+                                           Cocktail removed, Cocktail added) {
+        List<Cocktail> copy = new ArrayList<>(sorted);
+        if (removed != null) {
+            int pos = Collections.binarySearch(copy, removed, order);
+            if (pos >= 0) {
+                copy.remove(pos);
+            }
+        }
+        if (added != null) {
+            int pos = Collections.binarySearch(copy, added, order);
+            copy.add(pos >= 0 ? pos : -pos - 1, added);
+        }
+        return Collections.unmodifiableList(copy);
+    }
+
+    private static String categoryKey(String category) {
+        return NameKeys.nameKey(category);
+    }
+
+    private static Collator textCollator() {
+        Collator collator = Collator.getInstance(Locale.ROOT);
+        collator.setStrength(Collator.PRIMARY);
+        collator.setDecomposition(Collator.CANONICAL_DECOMPOSITION);
+        return collator;
+    }
+}
@@ -0,0 +1,209 @@
+package com.cocktail.cocktaillist.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Export dell'intero catalogo (cocktail + ingredienti) in streaming, in NDJSON o CSV.
+ *
+ * A differenza di getAllCocktails() non carica il catalogo in memoria:
+ * - una sola query con JOIN, letta con un cursore forward-only (su MySQL fetchSize
+ *   Integer.MIN_VALUE = result set in streaming, una riga alla volta dal server)
+ * - ogni riga viene scritta subito sulla risposta (JsonGenerator / Writer),
+ *   quindi la memoria usata non dipende dalla dimensione del catalogo
+ *
+ * Il formato NDJSON è lo stesso accettato dall'import massivo (CocktailRequest per riga).
+ */
+@Service
+public class CocktailExportService {
+
+    /**
+     * Righe ordinate per cocktail: gli ingredienti di un cocktail arrivano consecutivi
+     * e il cocktail può essere scritto appena cambia l'id.
+     */
+    private static final String EXPORT_QUERY =
+        "SELECT c.id, c.name, c.description, c.category, c.glass_type, c.preparation_method, c.image_url, "
+        + "c.alcoholic, c.created_at, c.updated_at, "
+        + "i.name AS ingredient_name, i.category AS ingredient_category, i.unit AS ingredient_unit, ci.quantity "
+        + "FROM cocktail c "
+        + "LEFT JOIN cocktail_ingredient ci ON ci.cocktail_id = c.id "
+        + "LEFT JOIN ingredient i ON i.id = ci.ingredient_id "
+        + "ORDER BY c.id, ci.id";
+
+    private static final String[] CSV_HEADER = {
+        "cocktail_id", "name", "description", "category", "glass_type", "preparation_method", "image_url",
+        "alcoholic", "created_at", "updated_at", "ingredient", "ingredient_category", "ingredient_unit", "quantity"
+    };
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Fetch size del cursore: Integer.MIN_VALUE attiva lo streaming del driver MySQL.
+     */
+    @Value("${cocktail.export.fetch-size:" + Integer.MIN_VALUE + "}")
+    private int fetchSize;
+
+    /**
+     * Scrive un cocktail per riga in JSON (NDJSON), con i suoi ingredienti annidati.
+     *
+     * @param out Stream della risposta (non viene chiuso)
+     */
+    public void exportNdjson(OutputStream out) {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            json.setRootValueSeparator(null);
+
+            // Stato del cocktail corrente: l'oggetto resta aperto finché arrivano i suoi ingredienti
+            long[] currentId = {-1};
+            streamRows(rs -> {
+                try {
+                    long id = rs.getLong("id");
+                    if (id != currentId[0]) {
+                        if (currentId[0] != -1) {
+                            closeCocktail(json);
+                        }
+                        openCocktail(json, rs);
+                        currentId[0] = id;
+                    }
+                    if (rs.getString("ingredient_name") != null) {
+                        json.writeStartObject();
+                        json.writeStringField("name", rs.getString("ingredient_name"));
+                        json.writeStringField("quantity", rs.getString("quantity"));
+                        json.writeStringField("category", rs.getString("ingredient_category"));
+                        json.writeStringField("unit", rs.getString("ingredient_unit"));
+                        json.writeEndObject();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (currentId[0] != -1) {
+                closeCocktail(json);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Errore durante l'export NDJSON dei cocktail", e);
+        }
+    }
+
+    /**
+     * Scrive una riga CSV per ogni coppia cocktail-ingrediente (RFC 4180, UTF-8, intestazione inclusa).
+     * I cocktail senza ingredienti hanno una riga con le colonne dell'ingrediente vuote.
+     *
+     * @param out Stream della risposta (non viene chiuso)
+     */
+    public void exportCsv(OutputStream out) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try {
+            writeCsvRow(writer, CSV_HEADER);
+            streamRows(rs -> {
+                try {
+                    writeCsvRow(writer, new String[] {
+                        rs.getString("id"),
+                        rs.getString("name"),
+                        rs.getString("description"),
+                        rs.getString("category"),
+                        rs.getString("glass_type"),
+                        rs.getString("preparation_method"),
+                        rs.getString("image_url"),
+                        String.valueOf(rs.getBoolean("alcoholic")),
+                        timestamp(rs, "created_at"),
+                        timestamp(rs, "updated_at"),
+                        rs.getString("ingredient_name"),
+                        rs.getString("ingredient_category"),
+                        rs.getString("ingredient_unit"),
+                        rs.getString("quantity")
+                    });
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Errore durante l'export CSV dei cocktail", e);
+        }
+    }
+
+    // ========================================
+    // METODI UTILITY
+    // ========================================
+
+    /**
+     * Esegue la query di export passando una riga alla volta a "handler".
+     * Il cursore è forward-only e read-only (impostazioni di default di JdbcTemplate).
+     */
+    private void streamRows(RowCallbackHandler handler) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(fetchSize);
+        jdbcTemplate.query(EXPORT_QUERY, handler);
+    }
+
+    private void openCocktail(JsonGenerator json, ResultSet rs) throws IOException, SQLException {
+        json.writeStartObject();
+        json.writeNumberField("id", rs.getLong("id"));
+        json.writeStringField("name", rs.getString("name"));
+        json.writeStringField("description", rs.getString("description"));
+        json.writeStringField("category", rs.getString("category"));
+        json.writeStringField("glassType", rs.getString("glass_type"));
+        json.writeStringField("preparationMethod", rs.getString("preparation_method"));
+        json.writeStringField("imageUrl", rs.getString("image_url"));
+        json.writeBooleanField("alcoholic", rs.getBoolean("alcoholic"));
+        json.writeStringField("createdAt", timestamp(rs, "created_at"));
+        json.writeStringField("updatedAt", timestamp(rs, "updated_at"));
+        json.writeArrayFieldStart("ingredients");
+    }
+
+    private void closeCocktail(JsonGenerator json) throws IOException {
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private static String timestamp(ResultSet rs, String column) throws SQLException {
+        Timestamp value = rs.getTimestamp(column);
+        return value != null ? value.toLocalDateTime().toString() : null;
+    }
+
+    private static void writeCsvRow(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvField(values[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * Campo CSV: tra virgolette (raddoppiate all'interno) se contiene separatori, virgolette o a capo.
+     */
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
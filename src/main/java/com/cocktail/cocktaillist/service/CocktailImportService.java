@@ -0,0 +1,429 @@
+package com.cocktail.cocktaillist.service;
+
+import com.cocktail.cocktaillist.dto.CocktailImportReport;
+import com.cocktail.cocktaillist.dto.CocktailRequest;
+import com.cocktail.cocktaillist.dto.IngredientRequest;
+import com.cocktail.cocktaillist.dto.IngredientSuggestion;
+import com.cocktail.cocktaillist.model.Cocktail;
+import com.cocktail.cocktaillist.model.Ingredient;
+import com.cocktail.cocktaillist.model.Quantity;
+import com.cocktail.cocktaillist.repository.IngredientRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Import massivo di cocktail (migliaia di ricette in una sola richiesta).
+ *
+ * createCocktail() fa, per OGNI cocktail: existsByName, una ricerca per ogni ingrediente
+ * e INSERT singoli (GenerationType.IDENTITY impedisce il batching di Hibernate).
+ * Qui invece, per ogni blocco di righe:
+ * - una transazione per blocco: un errore annulla solo il blocco corrente
+ * - ricerche per nome raggruppate (WHERE name IN (...)) per cocktail e ingredienti
+ * - INSERT in batch JDBC (con rewriteBatchedStatements MySQL li trasforma in INSERT multi-riga);
+ *   gli ingredienti nuovi con un INSERT IGNORE multi-riga, per contare solo quelli creati davvero
+ * - gli ID AUTO_INCREMENT vengono riletti con una sola query per nome (colonna UNIQUE)
+ * - nessuna entity gestita da JPA: la memoria non cresce con il numero di righe
+ *
+ * Le righe non valide vengono scartate e riportate nel CocktailImportReport, come gli ingredienti
+ * nuovi con nome simile a uno esistente (IngredientService.suggestAlternatives): nessun nome viene sostituito.
+ */
+@Service
+public class CocktailImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CocktailImportService.class);
+
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+    public static final int MAX_CHUNK_SIZE = 5_000;
+
+    private static final String INSERT_COCKTAIL =
+        "INSERT INTO cocktail (name, description, category, glass_type, preparation_method, image_url, "
+        + "alcoholic, created_at, updated_at, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    /**
+     * INSERT multi-riga degli ingredienti mancanti (i VALUES vengono aggiunti per ogni blocco).
+     * IGNORE: un nome già presente, anche se inserito da una transazione concorrente (dopo averne
+     * atteso il commit), viene saltato e conta 0 nelle righe modificate, quindi il risultato è il
+     * numero di ingredienti creati davvero. Con ON DUPLICATE KEY UPDATE id = id il driver MySQL
+     * conta 1 anche per le righe già esistenti (CLIENT_FOUND_ROWS) e, con rewriteBatchedStatements,
+     * un batch non restituisce il conteggio per riga.
+     * IGNORE trasformerebbe anche i valori troppo lunghi in avvisi: le lunghezze sono verificate in validate().
+     */
+    private static final String INSERT_INGREDIENTS =
+        "INSERT IGNORE INTO ingredient (name, category, unit, description, created_at) VALUES ";
+
+    private static final String INGREDIENT_VALUES = "(?, ?, ?, ?, ?)";
+
+    /**
+     * Righe per INSERT multi-riga (resta ampiamente sotto il limite di 65535 parametri)
+     */
+    private static final int INSERT_ROWS = 1_000;
+
+    /**
+     * Lunghezze massime delle colonne di ingredient (stesse di Ingredient)
+     */
+    private static final int MAX_INGREDIENT_NAME = 100;
+    private static final int MAX_INGREDIENT_CATEGORY = 50;
+    private static final int MAX_INGREDIENT_UNIT = 20;
+
+    private static final String INSERT_COCKTAIL_INGREDIENT =
+        "INSERT INTO cocktail_ingredient (cocktail_id, ingredient_id, quantity, amount, unit, volume_ml) "
+        + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private CocktailStrengthService cocktailStrengthService;
+
+    @Autowired
+    private IngredientService ingredientService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Importa i cocktail letti in streaming da un array JSON ([{...}, {...}])
+     * o da NDJSON (un oggetto JSON per riga). Ogni elemento ha il formato di CocktailRequest.
+     *
+     * L'input viene letto un elemento alla volta: i blocchi vengono salvati man mano.
+     * Se un elemento non è JSON valido l'import si ferma lì (i blocchi precedenti restano salvati).
+     *
+     * @param input Corpo della richiesta
+     * @param chunkSize Righe per transazione (1 - MAX_CHUNK_SIZE)
+     * @return Esito con contatori e righe scartate
+     * @throws RuntimeException se chunkSize non è valido
+     */
+    public CocktailImportReport importCocktails(InputStream input, int chunkSize) {
+        if (chunkSize < 1 || chunkSize > MAX_CHUNK_SIZE) {
+            throw new RuntimeException("chunkSize deve essere tra 1 e " + MAX_CHUNK_SIZE);
+        }
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CocktailImportReport report = new CocktailImportReport();
+        Set<String> seenNames = new HashSet<>();
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        int row = 0;
+
+        try (MappingIterator<CocktailRequest> requests =
+                 objectMapper.readerFor(CocktailRequest.class).readValues(input)) {
+            while (true) {
+                CocktailRequest request;
+                try {
+                    if (!requests.hasNextValue()) {
+                        break;
+                    }
+                    request = requests.nextValue();
+                } catch (JsonProcessingException e) {
+                    report.addError(++row, null, "JSON non valido, import interrotto: " + e.getOriginalMessage());
+                    break;
+                }
+                row++;
+
+                String error = validate(request, seenNames);
+                if (error != null) {
+                    report.addError(row, request.getName(), error);
+                    continue;
+                }
+
+                chunk.add(new ImportRow(row, request));
+                if (chunk.size() == chunkSize) {
+                    importChunk(transaction, chunk, report);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Errore durante la lettura dei cocktail da importare", e);
+        }
+
+        if (!chunk.isEmpty()) {
+            importChunk(transaction, chunk, report);
+        }
+        report.setTotalRows(row);
+
+        // Un solo ricaricamento del catalogo e delle cache per tutto l'import
+        if (report.getImported() > 0) {
+            eventPublisher.publishEvent(new CatalogChangedEvent("importCocktails"));
+        }
+        if (report.getCreatedIngredients() > 0) {
+            eventPublisher.publishEvent(new IngredientsChangedEvent("importCocktails"));
+        }
+
+        log.info("Import cocktail: {} righe, {} importati, {} scartati, {} ingredienti creati",
+                row, report.getImported(), report.getFailed(), report.getCreatedIngredients());
+        return report;
+    }
+
+    // ========================================
+    // BLOCCHI
+    // ========================================
+
+    /**
+     * Salva un blocco in una transazione. Se il database rifiuta il blocco
+     * (es: nome inserito nel frattempo da un'altra richiesta) tutte le sue righe
+     * vengono riportate come scartate e l'import prosegue col blocco successivo.
+     */
+    private void importChunk(TransactionTemplate transaction, List<ImportRow> rows, CocktailImportReport report) {
+        try {
+            ChunkResult result = transaction.execute(status -> writeChunk(rows));
+            result.rejected.forEach((row, error) -> report.addError(row.index, row.request.getName(), error));
+            report.addImported(result.imported);
+            report.addCreatedIngredients(result.createdIngredients);
+            result.suggestions.forEach(suggestion -> report.addSuggestions(suggestion.getRow(), suggestion.getName(),
+                suggestion.getIngredient(), suggestion.getSimilar()));
+        } catch (DataAccessException | TransactionException e) {
+            String cause = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            log.warn("Import cocktail: blocco righe {}-{} annullato: {}",
+                    rows.get(0).index, rows.get(rows.size() - 1).index, cause);
+            for (ImportRow row : rows) {
+                report.addError(row.index, row.request.getName(), "Blocco annullato dal database: " + cause);
+            }
+        }
+    }
+
+    /**
+     * Scrive un blocco: 2 query per i nomi dei cocktail, 2 per gli ingredienti,
+     * un INSERT IGNORE multi-riga, 2 INSERT in batch e un UPDATE di volume e gradazione, indipendentemente dal numero di righe.
+     */
+    private ChunkResult writeChunk(List<ImportRow> rows) {
+        ChunkResult result = new ChunkResult();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        // 1. Scarta i cocktail già presenti nel database (una sola query)
+        Set<String> existing = new HashSet<>();
+        selectIdsByName("cocktail", rows.stream().map(r -> r.request.getName()).toList())
+            .keySet().forEach(existing::add);
+
+        List<ImportRow> toInsert = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            if (existing.contains(NameKeys.nameKey(row.request.getName()))) {
+                result.rejected.put(row, "Esiste già un cocktail con nome: " + row.request.getName());
+            } else {
+                toInsert.add(row);
+            }
+        }
+        if (toInsert.isEmpty()) {
+            return result;
+        }
+
+        // 2. Ingredienti: cerca tutti i nomi del blocco, crea in batch quelli mancanti
+        Map<String, IngredientRequest> ingredientsByName = new LinkedHashMap<>();
+        for (ImportRow row : toInsert) {
+            for (IngredientRequest ingredient : row.request.getIngredients()) {
+                ingredientsByName.putIfAbsent(NameKeys.nameKey(ingredient.getName()), ingredient);
+            }
+        }
+        Map<String, Long> ingredientIds = selectIdsByName("ingredient",
+            ingredientsByName.values().stream().map(IngredientRequest::getName).toList());
+
+        // In ordine di nome: transazioni concorrenti prendono i lock sugli stessi nomi nello stesso ordine
+        List<Object[]> newIngredients = new ArrayList<>();
+        List<String> newIngredientNames = new ArrayList<>();
+        Map<String, List<IngredientSuggestion>> alternatives = new HashMap<>();
+        new TreeMap<>(ingredientsByName).forEach((key, request) -> {
+            if (!ingredientIds.containsKey(key)) {
+                // Nome nuovo: nomi esistenti quasi uguali per il report (indice in memoria, nessuna query)
+                List<IngredientSuggestion> similar = ingredientService.suggestAlternatives(request.getName(), null);
+                if (!similar.isEmpty()) {
+                    alternatives.put(key, similar);
+                }
+                Ingredient ingredient = IngredientService.newIngredient(request.getName(), request.getCategory(), request.getUnit());
+                newIngredients.add(new Object[] {
+                    ingredient.getName(), ingredient.getCategory(), ingredient.getUnit(), ingredient.getDescription(), now
+                });
+                newIngredientNames.add(ingredient.getName());
+            }
+        });
+        if (!newIngredients.isEmpty()) {
+            // IGNORE: un nome creato nel frattempo da un'altra transazione non fa fallire il blocco
+            // e non viene contato tra quelli creati; la rilettura con lock vede anche le righe
+            // committate dopo l'inizio della transazione
+            result.createdIngredients = insertIngredients(newIngredients);
+            NameKeys.matchByName(newIngredientNames, ingredientRepository.findByNameInForShare(newIngredientNames),
+                Ingredient::getName, name -> ingredientRepository.findByNameInForShare(List.of(name)).stream().findFirst())
+                .forEach((key, ingredient) -> ingredientIds.put(key, ingredient.getId()));
+        }
+
+        // 3. Cocktail in batch, poi rilettura degli ID generati per nome
+        List<Object[]> cocktails = new ArrayList<>(toInsert.size());
+        for (ImportRow row : toInsert) {
+            Cocktail cocktail = CocktailService.newCocktail(row.request);
+            cocktails.add(new Object[] {
+                cocktail.getName(), cocktail.getDescription(), cocktail.getCategory(), cocktail.getGlassType(),
+                cocktail.getPreparationMethod(), cocktail.getImageUrl(), cocktail.getAlcoholic(), now, now
+            });
+        }
+        jdbcTemplate.getJdbcOperations().batchUpdate(INSERT_COCKTAIL, cocktails);
+        Map<String, Long> cocktailIds = selectIdsByName("cocktail",
+            toInsert.stream().map(r -> r.request.getName()).toList());
+
+        // 4. Righe di cocktail_ingredient in batch (prima i contatori di utilizzo, come CocktailService)
+        List<Object[]> links = new ArrayList<>();
+        Map<Long, Integer> usageDeltas = new HashMap<>();
+        for (ImportRow row : toInsert) {
+            Long cocktailId = cocktailIds.get(NameKeys.nameKey(row.request.getName()));
+            for (IngredientRequest ingredient : row.request.getIngredients()) {
+                String key = NameKeys.nameKey(ingredient.getName());
+                Long ingredientId = ingredientIds.get(key);
+                if (alternatives.containsKey(key)) {
+                    result.suggestions.add(new CocktailImportReport.RowSuggestions(
+                        row.index, row.request.getName(), ingredient.getName(), alternatives.get(key)));
+                }
+                Quantity quantity = Quantity.parse(ingredient.getQuantity());
+                links.add(new Object[] {
+                    cocktailId, ingredientId, ingredient.getQuantity(),
+                    quantity.getAmount(), quantity.getUnit(), quantity.getVolumeMl()
+                });
+                usageDeltas.merge(ingredientId, 1, Integer::sum);
+            }
+        }
+        ingredientService.adjustUsageCounts(usageDeltas);
+        jdbcTemplate.getJdbcOperations().batchUpdate(INSERT_COCKTAIL_INGREDIENT, links);
+
+        // 5. Volume e gradazione stimati, un solo UPDATE per il blocco
+        cocktailStrengthService.recompute(cocktailIds.values());
+
+        result.imported = toInsert.size();
+        return result;
+    }
+
+    // ========================================
+    // METODI UTILITY
+    // ========================================
+
+    /**
+     * Stesse regole di createCocktail(), più il controllo dei nomi ripetuti nell'input.
+     *
+     * @return Il motivo dello scarto, null se la riga è valida
+     */
+    private String validate(CocktailRequest request, Set<String> seenNames) {
+        if (request == null) {
+            return "Riga vuota";
+        }
+        if (request.getName() == null || request.getName().trim().isEmpty()) {
+            return "Il nome del cocktail è obbligatorio";
+        }
+        if (request.getIngredients() == null || request.getIngredients().isEmpty()) {
+            return "Un cocktail deve avere almeno un ingrediente";
+        }
+        for (IngredientRequest ingredient : request.getIngredients()) {
+            if (ingredient == null || ingredient.getName() == null || ingredient.getName().trim().isEmpty()) {
+                return "Il nome dell'ingrediente è obbligatorio";
+            }
+            if (ingredient.getQuantity() == null || ingredient.getQuantity().trim().isEmpty()) {
+                return "La quantità dell'ingrediente è obbligatoria";
+            }
+            if (ingredient.getName().length() > MAX_INGREDIENT_NAME) {
+                return "Nome dell'ingrediente troppo lungo (max " + MAX_INGREDIENT_NAME + " caratteri): " + ingredient.getName();
+            }
+            if (ingredient.getCategory() != null && ingredient.getCategory().length() > MAX_INGREDIENT_CATEGORY) {
+                return "Categoria dell'ingrediente troppo lunga (max " + MAX_INGREDIENT_CATEGORY + " caratteri): "
+                    + ingredient.getCategory();
+            }
+            if (ingredient.getUnit() != null && ingredient.getUnit().length() > MAX_INGREDIENT_UNIT) {
+                return "Unità dell'ingrediente troppo lunga (max " + MAX_INGREDIENT_UNIT + " caratteri): "
+                    + ingredient.getUnit();
+            }
+        }
+        if (!seenNames.add(NameKeys.nameKey(request.getName()))) {
+            return "Cocktail ripetuto nell'import: " + request.getName();
+        }
+        return null;
+    }
+
+    /**
+     * Inserisce gli ingredienti con INSERT multi-riga (INSERT_ROWS righe per statement).
+     *
+     * @param rows Valori di INGREDIENT_VALUES, in ordine di nome
+     * @return Numero di ingredienti creati (esclusi i nomi già presenti)
+     */
+    private int insertIngredients(List<Object[]> rows) {
+        int created = 0;
+        for (int start = 0; start < rows.size(); start += INSERT_ROWS) {
+            List<Object[]> group = rows.subList(start, Math.min(start + INSERT_ROWS, rows.size()));
+            String sql = INSERT_INGREDIENTS + String.join(", ", Collections.nCopies(group.size(), INGREDIENT_VALUES));
+            Object[] args = group.stream().flatMap(Arrays::stream).toArray();
+            created += jdbcTemplate.getJdbcOperations().update(sql, args);
+        }
+        return created;
+    }
+
+    /**
+     * ID per nome in una sola query (tabelle con colonna "name" UNIQUE).
+     *
+     * @return Mappa NameKeys.nameKey(nome richiesto) → id
+     */
+    private Map<String, Long> selectIdsByName(String table, Collection<String> names) {
+        Map<String, Long> ids = new HashMap<>();
+        if (names.isEmpty()) {
+            return ids;
+        }
+        String sql = "SELECT id, name FROM " + table + " WHERE name IN (:names)";
+        RowMapper<Map.Entry<String, Long>> row = (rs, rowNum) -> Map.entry(rs.getString("name"), rs.getLong("id"));
+        NameKeys.matchByName(names, jdbcTemplate.query(sql, Map.of("names", names), row), Map.Entry::getKey,
+            name -> jdbcTemplate.query(sql, Map.of("names", List.of(name)), row).stream().findFirst())
+            .forEach((key, entry) -> ids.put(key, entry.getValue()));
+        return ids;
+    }
+
+    /**
+     * Riga dell'input già validata, con il suo numero (1-based) per il report
+     */
+    private static final class ImportRow {
+        private final int index;
+        private final CocktailRequest request;
+
+        private ImportRow(int index, CocktailRequest request) {
+            this.index = index;
+            this.request = request;
+        }
+    }
+
+    /**
+     * Esito di un blocco, applicato al report solo dopo il commit
+     */
+    private static final class ChunkResult {
+        private final Map<ImportRow, String> rejected = new LinkedHashMap<>();
+        private int imported;
+        private int createdIngredients;
+        private final List<CocktailImportReport.RowSuggestions> suggestions = new ArrayList<>();
+    }
+}
@@ -0,0 +1,212 @@
+package com.cocktail.cocktaillist.service;
+
+import com.cocktail.cocktaillist.model.Cocktail;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Indice invertito ingrediente → cocktail che lo usano.
+ *
+ * Per ogni ingrediente mantiene una bitmap compressa (RoaringBitmap) con gli ID
+ * dei cocktail che lo contengono: le ricerche "contiene TUTTI / ALMENO UNO / NESSUNO
+ * di questi ingredienti" diventano intersezioni/unioni/differenze di bitmap
+ * in memoria, senza join sul database.
+ *
+ * - Costruito all'avvio dallo snapshot del catalogo (stesse righe di cocktail_ingredient)
+ * - Aggiornato dopo ogni commit SOLO per il cocktail modificato (CatalogChangedEvent)
+ * - Copy-on-write: una bitmap pubblicata non viene più modificata, quindi i lettori
+ *   non usano lock; le scritture creano una copia e la sostituiscono
+ *
+ * NOTA: gli ID dei cocktail sono memorizzati come int (limite di RoaringBitmap).
+ */
+@Component
+public class CocktailIngredientIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CocktailIngredientIndex.class);
+
+    private static final RoaringBitmap EMPTY = new RoaringBitmap();
+
+    @Autowired
+    private CocktailCatalog cocktailCatalog;
+
+    /**
+     * ID ingrediente → bitmap degli ID dei cocktail che lo usano
+     */
+    private volatile Map<Long, RoaringBitmap> cocktailsByIngredient = new ConcurrentHashMap<>();
+
+    /**
+     * Tutti i cocktail indicizzati (serve per NONE senza ALL/ANY)
+     */
+    private volatile RoaringBitmap allCocktails = new RoaringBitmap();
+
+    /**
+     * ID cocktail → ID dei suoi ingredienti: permette di togliere un cocktail
+     * dalle bitmap giuste quando cambia. Usato solo dentro i metodi synchronized.
+     */
+    private Map<Long, Set<Long>> ingredientsByCocktail = new HashMap<>();
+
+    /**
+     * Costruisce l'indice all'avvio partendo dallo snapshot del catalogo.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild(cocktailCatalog.snapshot());
+    }
+
+    /**
+     * Aggiorna l'indice dopo il commit di una scrittura.
+     * Gira dopo CocktailCatalog.onCatalogChanged, quindi lo snapshot contiene già la modifica.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        CocktailCatalogSnapshot snapshot = cocktailCatalog.snapshot();
+        if (event.getCocktailId() == null) {
+            rebuild(snapshot);
+        } else {
+            reindex(event.getCocktailId(), snapshot.findById(event.getCocktailId()));
+        }
+    }
+
+    /**
+     * Cocktail che soddisfano i vincoli sugli ingredienti.
+     * I parametri null o vuoti vengono ignorati.
+     *
+     * @param all Il cocktail deve contenere TUTTI questi ingredienti
+     * @param any Il cocktail deve contenere ALMENO UNO di questi ingredienti
+     * @param none Il cocktail NON deve contenere nessuno di questi ingredienti
+     * @return Bitmap (nuova, modificabile) degli ID dei cocktail trovati, in ordine crescente
+     */
+    public RoaringBitmap match(Collection<Long> all, Collection<Long> any, Collection<Long> none) {
+        Map<Long, RoaringBitmap> index = cocktailsByIngredient;
+        RoaringBitmap result = allCocktails.clone();
+
+        if (all != null && !all.isEmpty()) {
+            RoaringBitmap[] bitmaps = all.stream().map(id -> index.getOrDefault(id, EMPTY)).toArray(RoaringBitmap[]::new);
+            result.and(FastAggregation.and(bitmaps));
+        }
+        if (any != null && !any.isEmpty()) {
+            RoaringBitmap[] bitmaps = any.stream().map(id -> index.getOrDefault(id, EMPTY)).toArray(RoaringBitmap[]::new);
+            result.and(FastAggregation.or(bitmaps));
+        }
+        if (none != null && !none.isEmpty()) {
+            RoaringBitmap[] bitmaps = none.stream().map(id -> index.getOrDefault(id, EMPTY)).toArray(RoaringBitmap[]::new);
+            result.andNot(FastAggregation.or(bitmaps));
+        }
+        return result;
+    }
+
+    /**
+     * @return Numero di cocktail che usano l'ingrediente
+     */
+    public int countCocktailsUsing(Long ingredientId) {
+        return cocktailsByIngredient.getOrDefault(ingredientId, EMPTY).getCardinality();
+    }
+
+    /**
+     * Ricostruisce l'intero indice dallo snapshot e lo pubblica in un colpo solo.
+     */
+    public synchronized void rebuild(CocktailCatalogSnapshot snapshot) {
+        Map<Long, RoaringBitmap> index = new ConcurrentHashMap<>();
+        Map<Long, Set<Long>> forward = new HashMap<>();
+        RoaringBitmap all = new RoaringBitmap();
+
+        for (Cocktail cocktail : snapshot.getAll()) {
+            int cocktailId = toIndexId(cocktail.getId());
+            Set<Long> ingredientIds = ingredientIdsOf(cocktail);
+            for (Long ingredientId : ingredientIds) {
+                index.computeIfAbsent(ingredientId, id -> new RoaringBitmap()).add(cocktailId);
+            }
+            forward.put(cocktail.getId(), ingredientIds);
+            all.add(cocktailId);
+        }
+        index.values().forEach(RoaringBitmap::runOptimize);
+        all.runOptimize();
+
+        this.ingredientsByCocktail = forward;
+        this.allCocktails = all;
+        this.cocktailsByIngredient = index;
+
+        log.debug("Indice ingredienti ricostruito: {} ingredienti, {} cocktail (catalogo versione {})",
+                index.size(), snapshot.size(), snapshot.getVersion());
+    }
+
+    /**
+     * Aggiorna le bitmap toccate da un singolo cocktail (rimosso se non esiste più).
+     */
+    private synchronized void reindex(Long cocktailId, Optional<Cocktail> cocktail) {
+        int indexId = toIndexId(cocktailId);
+        Set<Long> before = ingredientsByCocktail.getOrDefault(cocktailId, Set.of());
+        Set<Long> after = cocktail.map(this::ingredientIdsOf).orElse(Set.of());
+
+        for (Long ingredientId : before) {
+            if (!after.contains(ingredientId)) {
+                updateBitmap(ingredientId, bitmap -> bitmap.remove(indexId));
+            }
+        }
+        for (Long ingredientId : after) {
+            if (!before.contains(ingredientId)) {
+                updateBitmap(ingredientId, bitmap -> bitmap.add(indexId));
+            }
+        }
+
+        RoaringBitmap all = allCocktails.clone();
+        if (cocktail.isPresent()) {
+            ingredientsByCocktail.put(cocktailId, after);
+            all.add(indexId);
+        } else {
+            ingredientsByCocktail.remove(cocktailId);
+            all.remove(indexId);
+        }
+        allCocktails = all;
+    }
+
+    // ========================================
+    // METODI UTILITY
+    // ========================================
+
+    /**
+     * Copy-on-write di una bitmap: copia, modifica, sostituisce (o rimuove se vuota).
+     */
+    private void updateBitmap(Long ingredientId, Consumer<RoaringBitmap> change) {
+        RoaringBitmap copy = cocktailsByIngredient.getOrDefault(ingredientId, EMPTY).clone();
+        change.accept(copy);
+        if (copy.isEmpty()) {
+            cocktailsByIngredient.remove(ingredientId);
+        } else {
+            copy.runOptimize();
+            cocktailsByIngredient.put(ingredientId, copy);
+        }
+    }
+
+    private Set<Long> ingredientIdsOf(Cocktail cocktail) {
+        return cocktail.getCocktailIngredients().stream()
+            .map(ci -> ci.getIngredient().getId())
+            .filter(Objects::nonNull)
+            .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private static int toIndexId(Long cocktailId) {
+        try {
+            return Math.toIntExact(cocktailId);
+        } catch (ArithmeticException e) {
+            throw new RuntimeException("ID cocktail fuori dal range dell'indice ingredienti: " + cocktailId);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.cocktail.cocktaillist.service;
+
+import com.cocktail.cocktaillist.dto.CocktailSearchResult;
+import com.cocktail.cocktaillist.dto.CocktailSummary;
+import com.cocktail.cocktaillist.model.Cocktail;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.it.ItalianAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.uhighlight.DefaultPassageFormatter;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Indice full-text (Apache Lucene, in memoria) dei cocktail.
+ *
+ * - Indicizza nome, descrizione, metodo di preparazione e nomi degli ingredienti
+ *   con l'analizzatore italiano (minuscole, elisioni, stopword, stemming leggero)
+ * - I risultati sono ordinati per rilevanza (BM25) con pesi diversi per campo:
+ *   un termine nel nome conta più di uno nel metodo di preparazione
+ * - Resta allineato al catalogo: dopo ogni scrittura in CocktailService viene
+ *   aggiornato SOLO il documento del cocktail modificato (ricostruzione completa
+ *   solo quando la modifica può toccare più cocktail, es: rinomina di un ingrediente)
+ *
+ * I lettori usano un IndexSearcher point-in-time (SearcherManager): le scritture
+ * diventano visibili tutte insieme al refresh, senza bloccare le ricerche in corso.
+ */
+@Component
+public class CocktailSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CocktailSearchIndex.class);
+
+    static final String FIELD_ID = "id";
+    static final String FIELD_NAME = "name";
+    static final String FIELD_DESCRIPTION = "description";
+    static final String FIELD_PREPARATION = "preparationMethod";
+    static final String FIELD_INGREDIENTS = "ingredients";
+
+    private static final String[] SEARCH_FIELDS = {
+        FIELD_NAME, FIELD_INGREDIENTS, FIELD_DESCRIPTION, FIELD_PREPARATION
+    };
+
+    /**
+     * Peso di ciascun campo nel punteggio di rilevanza
+     */
+    private static final Map<String, Float> FIELD_BOOSTS = Map.of(
+        FIELD_NAME, 4.0f,
+        FIELD_INGREDIENTS, 2.0f,
+        FIELD_DESCRIPTION, 1.0f,
+        FIELD_PREPARATION, 0.5f
+    );
+
+    /**
+     * Numero massimo di risultati raggiungibili con la paginazione (page * size):
+     * oltre questa soglia conviene affinare il testo cercato.
+     */
+    private static final int MAX_RESULT_WINDOW = 10_000;
+
+    @Autowired
+    private CocktailCatalog cocktailCatalog;
+
+    private final Analyzer analyzer = new ItalianAnalyzer();
+    private final ByteBuffersDirectory directory = new ByteBuffersDirectory();
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    public CocktailSearchIndex() {
+        try {
+            this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+            this.searcherManager = new SearcherManager(writer, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossibile creare l'indice di ricerca dei cocktail", e);
+        }
+    }
+
+    /**
+     * Costruisce l'indice all'avvio partendo dallo snapshot del catalogo.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild(cocktailCatalog.snapshot());
+    }
+
+    /**
+     * Aggiorna l'indice dopo il commit di una scrittura.
+     * Gira dopo CocktailCatalog.onCatalogChanged (ordine di default più basso),
+     * quindi lo snapshot letto qui contiene già la modifica.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        CocktailCatalogSnapshot snapshot = cocktailCatalog.snapshot();
+        if (event.getCocktailId() == null) {
+            rebuild(snapshot);
+        } else {
+            reindex(event.getCocktailId(), snapshot.findById(event.getCocktailId()));
+        }
+    }
+
+    /**
+     * Ricerca full-text ordinata per rilevanza.
+     *
+     * @param text Testo libero (es: "rum lime"); tutti i termini devono comparire in almeno un campo
+     * @param page Numero pagina (0-based)
+     * @param size Elementi per pagina
+     * @return Pagina di risultati con punteggio e frammenti evidenziati
+     * @throws RuntimeException se il testo è vuoto o la pagina è oltre il limite consentito
+     */
+    public Page<CocktailSearchResult> search(String text, int page, int size) {
+        if (text == null || text.trim().isEmpty()) {
+            throw new RuntimeException("Il testo da cercare è obbligatorio");
+        }
+        Pageable pageable = PageRequest.of(page, size);
+        if (pageable.getOffset() + size > MAX_RESULT_WINDOW) {
+            throw new RuntimeException("Pagina troppo avanzata (max " + MAX_RESULT_WINDOW
+                    + " risultati): affina il testo cercato");
+        }
+
+        Query query = parse(text);
+        CocktailCatalogSnapshot snapshot = cocktailCatalog.snapshot();
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs top = searcher.search(query, (int) pageable.getOffset() + size);
+                ScoreDoc[] hits = top.scoreDocs;
+                int from = (int) Math.min(pageable.getOffset(), hits.length);
+                ScoreDoc[] pageHits = Arrays.copyOfRange(hits, from, hits.length);
+
+                Map<String, String[]> highlights = highlight(searcher, query, pageHits);
+
+                List<CocktailSearchResult> results = new ArrayList<>(pageHits.length);
+                for (int i = 0; i < pageHits.length; i++) {
+                    String id = searcher.storedFields().document(pageHits[i].doc).get(FIELD_ID);
+                    Optional<Cocktail> cocktail = snapshot.findById(Long.valueOf(id));
+                    if (cocktail.isEmpty()) {
+                        continue; // eliminato dopo il refresh del searcher
+                    }
+
+                    Map<String, String> fragments = new LinkedHashMap<>();
+                    for (String field : SEARCH_FIELDS) {
+                        String fragment = highlights.get(field)[i];
+                        if (fragment != null) {
+                            fragments.put(field, fragment);
+                        }
+                    }
+                    results.add(new CocktailSearchResult(
+                        CocktailSummary.from(cocktail.get()), pageHits[i].score, fragments));
+                }
+
+                // Oltre 1000 risultati Lucene restituisce un totale approssimato per difetto
+                return new PageImpl<>(results, pageable, top.totalHits.value);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Errore durante la ricerca dei cocktail", e);
+        }
+    }
+
+    /**
+     * Ricostruisce l'intero indice dallo snapshot.
+     * Le ricerche in corso continuano a vedere il vecchio indice fino al refresh finale.
+     */
+    public synchronized void rebuild(CocktailCatalogSnapshot snapshot) {
+        try {
+            writer.deleteAll();
+            for (Cocktail cocktail : snapshot.getAll()) {
+                writer.addDocument(toDocument(cocktail));
+            }
+            searcherManager.maybeRefreshBlocking();
+            log.debug("Indice di ricerca ricostruito: {} cocktail (catalogo versione {})",
+                    snapshot.size(), snapshot.getVersion());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Errore durante la ricostruzione dell'indice di ricerca", e);
+        }
+    }
+
+    /**
+     * Aggiorna (o rimuove, se non esiste più) il documento di un singolo cocktail.
+     */
+    private synchronized void reindex(Long cocktailId, Optional<Cocktail> cocktail) {
+        try {
+            Term idTerm = new Term(FIELD_ID, String.valueOf(cocktailId));
+            if (cocktail.isPresent()) {
+                writer.updateDocument(idTerm, toDocument(cocktail.get()));
+            } else {
+                writer.deleteDocuments(idTerm);
+            }
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Errore durante l'aggiornamento dell'indice di ricerca", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    // ========================================
+    // METODI UTILITY
+    // ========================================
+
+    /**
+     * Documento Lucene di un cocktail. I campi di testo sono memorizzati (Store.YES)
+     * perché servono all'evidenziatore per costruire i frammenti.
+     */
+    private Document toDocument(Cocktail cocktail) {
+        Document doc = new Document();
+        doc.add(new StringField(FIELD_ID, String.valueOf(cocktail.getId()), Field.Store.YES));
+        addText(doc, FIELD_NAME, cocktail.getName());
+        addText(doc, FIELD_DESCRIPTION, cocktail.getDescription());
+        addText(doc, FIELD_PREPARATION, cocktail.getPreparationMethod());
+        addText(doc, FIELD_INGREDIENTS, cocktail.getCocktailIngredients().stream()
+            .map(ci -> ci.getIngredient().getName())
+            .filter(Objects::nonNull)
+            .collect(Collectors.joining(", ")));
+        return doc;
+    }
+
+    private void addText(Document doc, String field, String value) {
+        if (value != null && !value.isEmpty()) {
+            doc.add(new TextField(field, value, Field.Store.YES));
+        }
+    }
+
+    /**
+     * Converte il testo dell'utente in una query sui campi indicizzati.
+     * I caratteri speciali della sintassi Lucene vengono neutralizzati:
+     * il testo è sempre trattato come parole semplici.
+     */
+    private Query parse(String text) {
+        MultiFieldQueryParser parser = new MultiFieldQueryParser(SEARCH_FIELDS, analyzer, FIELD_BOOSTS);
+        parser.setDefaultOperator(QueryParser.Operator.AND);
+        try {
+            return parser.parse(QueryParser.escape(text.trim()));
+        } catch (ParseException e) {
+            throw new RuntimeException("Testo di ricerca non valido: " + text);
+        }
+    }
+
+    /**
+     * Frammenti evidenziati per ogni campo e risultato (null se il campo non contiene termini cercati).
+     * Il testo è HTML-escaped: l'unico markup presente sono i tag <em> dei termini trovati.
+     */
+    private Map<String, String[]> highlight(IndexSearcher searcher, Query query, ScoreDoc[] hits) throws IOException {
+        if (hits.length == 0) {
+            return Map.of();
+        }
+        int[] docIds = new int[hits.length];
+        int[] maxPassages = new int[SEARCH_FIELDS.length];
+        for (int i = 0; i < hits.length; i++) {
+            docIds[i] = hits[i].doc;
+        }
+        Arrays.fill(maxPassages, 1);
+
+        UnifiedHighlighter highlighter = UnifiedHighlighter.builder(searcher, analyzer)
+            .withFormatter(new DefaultPassageFormatter("<em>", "</em>", "…", true))
+            .withMaxNoHighlightPassages(0)
+            .build();
+        return highlighter.highlightFields(SEARCH_FIELDS, query, docIds, maxPassages);
+    }
+}
@@ -1,20 +1,33 @@
 package com.cocktail.cocktaillist.service;
 
 import com.cocktail.cocktaillist.dto.CocktailRequest;
+import com.cocktail.cocktaillist.dto.CocktailSearchResult;
+import com.cocktail.cocktaillist.dto.CocktailSummary;
+import com.cocktail.cocktaillist.dto.CursorPage;
 import com.cocktail.cocktaillist.dto.IngredientRequest;
+import com.cocktail.cocktaillist.dto.KeysetCursor;
 import com.cocktail.cocktaillist.model.Cocktail;
 import com.cocktail.cocktaillist.model.CocktailIngredient;
 import com.cocktail.cocktaillist.model.Ingredient;
+import com.cocktail.cocktaillist.model.Quantity;
 import com.cocktail.cocktaillist.repository.CocktailRepository;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -32,6 +45,13 @@ import java.util.Optional;
 @Transactional
 public class CocktailService {
 
+    /**
+     * Limiti superiori usati quando il filtro indica solo il minimo
+     * (gradazione in % vol; volume: massimo della colonna DECIMAL(10,2))
+     */
+    private static final BigDecimal MAX_ABV = new BigDecimal("100");
+    private static final BigDecimal MAX_VOLUME_ML = Quantity.MAX_VOLUME_ML;
+
     @Autowired
     private CocktailRepository cocktailRepository;
 
@@ -39,33 +59,64 @@ public class CocktailService {
     private IngredientService ingredientService;
 
     @Autowired
-    private com.cocktail.cocktaillist.repository.FavoriteRepository favoriteRepository;
+    private FavoriteService favoriteService;
+
+    @Autowired
+    private FavoriteChangeLog favoriteChangeLog;
+
+    @Autowired
+    private ColorCache colorCache;
+
+    @Autowired
+    private CocktailCatalog cocktailCatalog;
+
+    @Autowired
+    private CocktailSearchIndex cocktailSearchIndex;
+
+    @Autowired
+    private CocktailIngredientIndex cocktailIngredientIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     // ========================================
     // OPERAZIONI DI LETTURA
     // ========================================
 
     /**
-     * Ottiene tutti i cocktail dal database.
+     * Ottiene tutti i cocktail (dallo snapshot in memoria del catalogo).
      * 
      * @return Lista di tutti i cocktail
      */
     public List<Cocktail> getAllCocktails() {
-        return cocktailRepository.findAll();
+        return cocktailCatalog.snapshot().getAll();
     }
 
     /**
-     * Ottiene un cocktail specifico per ID.
+     * Ottiene un cocktail specifico per ID (dallo snapshot in memoria del catalogo).
+     * L'oggetto restituito è condiviso: per modificarlo usa findManagedCocktail().
      * 
      * @param id ID del cocktail
      * @return Il cocktail trovato
      * @throws RuntimeException se il cocktail non esiste
      */
     public Cocktail getCocktailById(Long id) {
-        return cocktailRepository.findById(id)
+        return cocktailCatalog.snapshot().findById(id)
                 .orElseThrow(() -> new RuntimeException("Cocktail non trovato con ID: " + id));
     }
 
+    /**
+     * Versione corrente di un cocktail (per ETag / If-None-Match), letta dallo snapshot:
+     * nessuna query e nessun ingrediente da caricare.
+     *
+     * @param id ID del cocktail
+     * @return La versione del cocktail
+     * @throws RuntimeException se il cocktail non esiste
+     */
+    public Long getCocktailVersion(Long id) {
+        return getCocktailById(id).getVersion();
+    }
+
     /**
      * Cerca un cocktail per nome.
      * 
@@ -83,7 +134,7 @@ public class CocktailService {
      * @return Lista di cocktail della categoria
      */
     public List<Cocktail> getCocktailsByCategory(String category) {
-        return cocktailRepository.findByCategory(category);
+        return cocktailCatalog.snapshot().findByCategory(category);
     }
 
     /**
@@ -131,6 +182,7 @@ public class CocktailService {
 
     /**
      * Ottiene tutti i cocktail con paginazione e ordinamento.
+     * La pagina viene ritagliata dalla vista ordinata dello snapshot (nessuna query).
      * 
      * @param page Numero pagina (0-based)
      * @param size Elementi per pagina
@@ -139,12 +191,60 @@ public class CocktailService {
      * @return Pagina di cocktail
      */
     public Page<Cocktail> getAllCocktailsPaginated(int page, int size, String sortBy, String sortDir) {
-        Sort sort = sortDir.equalsIgnoreCase("asc") 
+        boolean ascending = sortDir.equalsIgnoreCase("asc");
+        Sort sort = ascending 
             ? Sort.by(sortBy).ascending() 
             : Sort.by(sortBy).descending();
         
         Pageable pageable = PageRequest.of(page, size, sort);
-        return cocktailRepository.findAll(pageable);
+        List<Cocktail> sorted = cocktailCatalog.snapshot().sortedBy(sortBy, ascending);
+
+        int from = (int) Math.min(pageable.getOffset(), sorted.size());
+        int to = Math.min(from + size, sorted.size());
+        return new PageImpl<>(sorted.subList(from, to), pageable, sorted.size());
+    }
+
+    /**
+     * Ottiene tutti i cocktail con paginazione a cursore (keyset).
+     * Invece di saltare "page * size" elementi si riparte dalla coppia (campo, id)
+     * dell'ultimo elemento: il costo resta costante anche a pagina 10.000.
+     * 
+     * @param cursor Cursore restituito dalla pagina precedente (null per la prima pagina)
+     * @param size Elementi per pagina
+     * @param sortBy Campo per ordinamento (ignorato se c'è un cursore: vale quello del cursore)
+     * @param sortDir Direzione ordinamento ("asc" o "desc")
+     * @param includeTotal true per includere il numero totale di cocktail
+     * @return Pagina con cursore per la pagina successiva
+     */
+    public CursorPage<Cocktail> getAllCocktailsKeyset(String cursor, int size, String sortBy, String sortDir,
+                                                      boolean includeTotal) {
+        if (size < 1) {
+            throw new RuntimeException("La dimensione della pagina deve essere almeno 1");
+        }
+        CocktailCatalogSnapshot snapshot = cocktailCatalog.snapshot();
+
+        Cocktail last = null;
+        boolean ascending = sortDir.equalsIgnoreCase("asc");
+        if (cursor != null && !cursor.isBlank()) {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            sortBy = position.getSortBy();
+            ascending = position.isAscending();
+            last = CocktailCatalogSnapshot.probe(sortBy, position.getLastValue(), position.getLastId());
+        }
+
+        // Chiede un elemento in più per sapere se esiste una pagina successiva
+        List<Cocktail> window = snapshot.after(sortBy, ascending, last, size + 1);
+        boolean hasNext = window.size() > size;
+        List<Cocktail> content = hasNext ? window.subList(0, size) : window;
+
+        String nextCursor = null;
+        if (hasNext) {
+            Cocktail lastOfPage = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(sortBy, ascending, lastOfPage.getId(),
+                CocktailCatalogSnapshot.sortKeyOf(lastOfPage, sortBy)).encode();
+        }
+
+        return new CursorPage<>(content, size, nextCursor, includeTotal ? (long) snapshot.size() : null);
     }
 
     /**
@@ -157,7 +257,7 @@ public class CocktailService {
      */
     public Page<Cocktail> getCocktailsByCategoryPaginated(String category, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("name").ascending());
-        return cocktailRepository.findByCategory(category, pageable);
+        return withIngredients(cocktailRepository.findByCategory(category, pageable));
     }
 
     /**
@@ -170,7 +270,143 @@ public class CocktailService {
      */
     public Page<Cocktail> searchCocktailsByNamePaginated(String name, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("name").ascending());
-        return cocktailRepository.findByNameContainingIgnoreCase(name, pageable);
+        return withIngredients(cocktailRepository.findByNameContainingIgnoreCase(name, pageable));
+    }
+
+    // ========================================
+    // LISTE IN FORMATO RIEPILOGO (CocktailSummary)
+    // ========================================
+
+    /**
+     * Come getAllCocktailsPaginated, ma restituisce solo i riepiloghi.
+     * I dati arrivano dallo snapshot in memoria: nessuna query.
+     */
+    public Page<CocktailSummary> getAllCocktailSummariesPaginated(int page, int size, String sortBy, String sortDir) {
+        return getAllCocktailsPaginated(page, size, sortBy, sortDir).map(CocktailSummary::from);
+    }
+
+    /**
+     * Come getAllCocktailsKeyset, ma restituisce solo i riepiloghi.
+     */
+    public CursorPage<CocktailSummary> getAllCocktailSummariesKeyset(String cursor, int size, String sortBy,
+                                                                     String sortDir, boolean includeTotal) {
+        return getAllCocktailsKeyset(cursor, size, sortBy, sortDir, includeTotal).map(CocktailSummary::from);
+    }
+
+    /**
+     * Riepiloghi dei cocktail di una categoria (paginato, ordinati per nome).
+     * Una query di proiezione + COUNT, senza caricare entity.
+     */
+    public Page<CocktailSummary> getCocktailSummariesByCategoryPaginated(String category, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("name").ascending());
+        return cocktailRepository.findSummariesByCategory(category, pageable);
+    }
+
+    /**
+     * Riepiloghi dei cocktail il cui nome contiene una stringa (paginato, ordinati per nome).
+     */
+    public Page<CocktailSummary> searchCocktailSummariesByNamePaginated(String name, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("name").ascending());
+        return cocktailRepository.findSummariesByNameContaining(name, pageable);
+    }
+
+    /**
+     * Ricerca full-text ordinata per rilevanza su nome, descrizione,
+     * metodo di preparazione e ingredienti (indice Lucene in memoria).
+     *
+     * @param text Testo da cercare (es: "rum menta")
+     * @param page Numero pagina (0-based)
+     * @param size Elementi per pagina
+     * @return Pagina di risultati con punteggio e frammenti evidenziati
+     * @throws RuntimeException se il testo è vuoto o non valido
+     */
+    @Transactional(readOnly = true)
+    public Page<CocktailSearchResult> searchCocktailsRanked(String text, int page, int size) {
+        return cocktailSearchIndex.search(text, page, size);
+    }
+
+    /**
+     * Cerca i cocktail in base agli ingredienti (indice invertito in memoria, nessuna query).
+     * Esempio: all=[rum, lime], none=[zucchero] → cocktail con rum E lime ma senza zucchero.
+     *
+     * @param all ID degli ingredienti che devono esserci TUTTI
+     * @param any ID degli ingredienti di cui deve esserci ALMENO UNO
+     * @param none ID degli ingredienti che NON devono esserci
+     * @param page Numero pagina (0-based)
+     * @param size Elementi per pagina
+     * @return Pagina di riepiloghi ordinati per id
+     * @throws RuntimeException se non viene indicato nessun ingrediente
+     */
+    @Transactional(readOnly = true)
+    public Page<CocktailSummary> getCocktailSummariesByIngredients(List<Long> all, List<Long> any, List<Long> none,
+                                                                   int page, int size) {
+        if ((all == null || all.isEmpty()) && (any == null || any.isEmpty()) && (none == null || none.isEmpty())) {
+            throw new RuntimeException("Specifica almeno un ingrediente (all, any o none)");
+        }
+        Pageable pageable = PageRequest.of(page, size);
+        RoaringBitmap ids = cocktailIngredientIndex.match(all, any, none);
+        CocktailCatalogSnapshot snapshot = cocktailCatalog.snapshot();
+
+        List<CocktailSummary> content = new java.util.ArrayList<>(size);
+        if (pageable.getOffset() < ids.getLongCardinality()) {
+            // Salta direttamente al primo id della pagina (select = id in posizione "offset")
+            PeekableIntIterator it = ids.getIntIterator();
+            it.advanceIfNeeded(ids.select((int) pageable.getOffset()));
+            while (it.hasNext() && content.size() < size) {
+                snapshot.findById((long) it.next()).map(CocktailSummary::from).ifPresent(content::add);
+            }
+        }
+        return new PageImpl<>(content, pageable, ids.getLongCardinality());
+    }
+
+    /**
+     * Riepiloghi dei cocktail filtrati per gradazione e/o volume stimati (paginato).
+     * Le colonne sono precalcolate e indicizzate: la query è un range scan sull'indice,
+     * non un calcolo sugli ingredienti di ogni cocktail.
+     * Con un filtro sulla gradazione restano esclusi i cocktail senza volume noto (gradazione null).
+     *
+     * @param minAbv Gradazione minima in % vol (null = nessun limite)
+     * @param maxAbv Gradazione massima in % vol (null = nessun limite)
+     * @param minVolume Volume minimo in ml (null = nessun limite)
+     * @param maxVolume Volume massimo in ml (null = nessun limite)
+     * @param page Numero pagina (0-based)
+     * @param size Elementi per pagina
+     * @param sortBy Campo per ordinamento (es: "abv", "totalVolumeMl", "name")
+     * @param sortDir Direzione ordinamento ("asc" o "desc")
+     * @return Pagina di riepiloghi
+     * @throws RuntimeException se un intervallo non è valido
+     */
+    @Transactional(readOnly = true)
+    public Page<CocktailSummary> getCocktailSummariesByStrength(BigDecimal minAbv, BigDecimal maxAbv,
+                                                               BigDecimal minVolume, BigDecimal maxVolume,
+                                                               int page, int size, String sortBy, String sortDir) {
+        if (minAbv == null && maxAbv == null && minVolume == null && maxVolume == null) {
+            throw new RuntimeException("Specifica almeno un limite di gradazione o di volume");
+        }
+        BigDecimal fromVolume = minVolume != null ? minVolume : BigDecimal.ZERO;
+        BigDecimal toVolume = maxVolume != null ? maxVolume : MAX_VOLUME_ML;
+        checkRange("volume", fromVolume, toVolume);
+
+        // Valida il campo (stessi campi dell'ordinamento in memoria); a parità di valore ordina per id
+        boolean ascending = sortDir.equalsIgnoreCase("asc");
+        CocktailCatalogSnapshot.checkSortField(sortBy);
+        Sort.Direction direction = ascending ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy).and(Sort.by(direction, "id")));
+
+        if (minAbv == null && maxAbv == null) {
+            return cocktailRepository.findSummariesByVolume(fromVolume, toVolume, pageable);
+        }
+        BigDecimal fromAbv = minAbv != null ? minAbv : BigDecimal.ZERO;
+        BigDecimal toAbv = maxAbv != null ? maxAbv : MAX_ABV;
+        checkRange("gradazione", fromAbv, toAbv);
+        return cocktailRepository.findSummariesByStrength(fromAbv, toAbv, fromVolume, toVolume, pageable);
+    }
+
+    /**
+     * Riepiloghi dei cocktail alcolici o analcolici (ordinati per nome).
+     */
+    public List<CocktailSummary> getCocktailSummariesByAlcoholic(Boolean alcoholic) {
+        return cocktailRepository.findSummariesByAlcoholic(alcoholic);
     }
 
     // ========================================
@@ -179,6 +415,8 @@ public class CocktailService {
 
     /**
      * Crea un nuovo cocktail con ingredienti auto-creati se necessario.
+     * Le righe con un nome nuovo simile a un ingrediente esistente riportano i suggerimenti
+     * (CocktailIngredient.suggestions): l'ingrediente viene creato comunque, il client può correggerlo.
      * 
      * @param request Il DTO con i dati del cocktail e gli ingredienti
      * @return Il cocktail creato (con ID generato e relazioni)
@@ -200,73 +438,38 @@ public class CocktailService {
             throw new RuntimeException("Un cocktail deve avere almeno un ingrediente");
         }
 
-        // Crea l'entità cocktail
-        Cocktail cocktail = new Cocktail();
-        cocktail.setName(request.getName());
-        
-        // Imposta descrizione con default se nulla
-        cocktail.setDescription(
-            request.getDescription() != null && !request.getDescription().trim().isEmpty() 
-                ? request.getDescription() 
-                : "Un buonissimo cocktail"
-        );
-        
-        // Imposta category con default se nulla
-        cocktail.setCategory(
-            request.getCategory() != null && !request.getCategory().trim().isEmpty()
-                ? request.getCategory()
-                : "Altro"
-        );
-        
-        // Imposta glassType con default se nullo
-        cocktail.setGlassType(
-            request.getGlassType() != null && !request.getGlassType().trim().isEmpty()
-                ? request.getGlassType()
-                : "Bicchiere standard"
-        );
-        
-        // Imposta metodo di preparazione con default se nullo
-        cocktail.setPreparationMethod(
-            request.getPreparationMethod() != null && !request.getPreparationMethod().trim().isEmpty()
-                ? request.getPreparationMethod()
-                : "Mescolare"
-        );
-        
-        // imageUrl può essere null (opzionale)
-        cocktail.setImageUrl(request.getImageUrl());
-        
-        // Imposta alcoholic con default se nullo
-        cocktail.setAlcoholic(
-            request.getAlcoholic() != null ? request.getAlcoholic() : true
-        );
+        // Crea l'entità cocktail (con i valori di default per i campi mancanti)
+        Cocktail cocktail = newCocktail(request);
 
-        // Gestione ingredienti: auto-crea se non esistono
-        if (request.getIngredients() != null) {
-            for (IngredientRequest ingReq : request.getIngredients()) {
-                // Validazione: nome ingrediente obbligatorio
-                if (ingReq.getName() == null || ingReq.getName().trim().isEmpty()) {
-                    throw new RuntimeException("Il nome dell'ingrediente è obbligatorio");
-                }
-                
-                // Validazione: quantità obbligatoria
-                if (ingReq.getQuantity() == null || ingReq.getQuantity().trim().isEmpty()) {
-                    throw new RuntimeException("La quantità dell'ingrediente è obbligatoria");
-                }
-                
-                // findOrCreateIngredient cerca l'ingrediente, se non esiste lo crea
-                Ingredient ingredient = ingredientService.findOrCreateIngredient(
-                    ingReq.getName(), 
-                    ingReq.getCategory(), 
-                    ingReq.getUnit()
-                );
-                
-                // Aggiungi la relazione cocktail-ingrediente con quantità
-                cocktail.addIngredient(ingredient, ingReq.getQuantity());
+        // Validazione degli ingredienti prima di toccare il database
+        for (IngredientRequest ingReq : request.getIngredients()) {
+            // Validazione: nome ingrediente obbligatorio
+            if (ingReq.getName() == null || ingReq.getName().trim().isEmpty()) {
+                throw new RuntimeException("Il nome dell'ingrediente è obbligatorio");
             }
+            
+            // Validazione: quantità obbligatoria
+            if (ingReq.getQuantity() == null || ingReq.getQuantity().trim().isEmpty()) {
+                throw new RuntimeException("La quantità dell'ingrediente è obbligatoria");
+            }
+        }
+
+        // Gestione ingredienti: trova o auto-crea tutti gli ingredienti in blocco
+        // (numero di query costante, indipendente dal numero di ingredienti)
+        List<Ingredient> ingredients = ingredientService.findOrCreateIngredients(request.getIngredients());
+        for (int i = 0; i < ingredients.size(); i++) {
+            // Aggiungi la relazione cocktail-ingrediente con quantità
+            IngredientRequest ingReq = request.getIngredients().get(i);
+            cocktail.addIngredient(ingredients.get(i), ingReq.getQuantity())
+                .setSuggestions(ingredientService.suggestAlternatives(ingReq.getName(), ingredients.get(i).getId()));
         }
+        ingredientService.adjustUsageCounts(usageDeltas(ingredients, 1));
+        cocktail.updateStrength();
         
         // Salva nel database (cascade salva anche le relazioni CocktailIngredient)
-        return cocktailRepository.save(cocktail);
+        Cocktail saved = cocktailRepository.save(cocktail);
+        publishCatalogChange("createCocktail", saved.getId());
+        return saved;
     }
 
     /**
@@ -282,8 +485,34 @@ public class CocktailService {
      * @throws RuntimeException se il cocktail non esiste
      */
     public Cocktail updateCocktail(Long id, CocktailRequest request) {
+        return updateCocktail(id, request, null);
+    }
+
+    /**
+     * Aggiorna un cocktail solo se è ancora alla versione attesa (header If-Match).
+     * La versione viene controllata prima con una query sulla sola colonna "version"
+     * (niente caricamento dell'aggregato se è già cambiata) e poi da Hibernate
+     * nell'UPDATE (... WHERE version = ?), che copre le modifiche concorrenti.
+     *
+     * @param id ID del cocktail da aggiornare
+     * @param request Nuovi dettagli del cocktail (ingredienti vengono ignorati)
+     * @param expectedVersion Versione attesa; null per aggiornare senza controllo
+     * @return Il cocktail aggiornato (con la nuova versione)
+     * @throws OptimisticLockingFailureException se il cocktail è stato modificato nel frattempo
+     * @throws RuntimeException se il cocktail non esiste
+     */
+    public Cocktail updateCocktail(Long id, CocktailRequest request, Long expectedVersion) {
+        if (expectedVersion != null) {
+            Long currentVersion = cocktailRepository.findVersionById(id)
+                    .orElseThrow(() -> new RuntimeException("Cocktail non trovato con ID: " + id));
+            checkVersion(expectedVersion, currentVersion);
+        }
+
         // Trova il cocktail esistente
-        Cocktail existingCocktail = getCocktailById(id);
+        Cocktail existingCocktail = findManagedCocktail(id);
+        if (expectedVersion != null) {
+            checkVersion(expectedVersion, existingCocktail.getVersion());
+        }
 
         // Aggiorna solo i campi base (NON gli ingredienti)
         if (request.getName() != null) {
@@ -312,7 +541,9 @@ public class CocktailService {
         // Usa gli endpoint dedicati per gestire ingredienti
 
         // Salva le modifiche (l'@PreUpdate aggiornerà updated_at automaticamente)
-        return cocktailRepository.save(existingCocktail);
+        Cocktail saved = cocktailRepository.save(existingCocktail);
+        publishCatalogChange("updateCocktail", id);
+        return saved;
     }
 
     /**
@@ -327,7 +558,12 @@ public class CocktailService {
             throw new RuntimeException("Impossibile eliminare: cocktail non trovato con ID: " + id);
         }
         
+        ingredientService.releaseUsageCounts(id);
+        favoriteChangeLog.recordCocktailRemoved(id);
         cocktailRepository.deleteById(id);
+        publishCatalogChange("deleteCocktail", id);
+        // I preferiti del cocktail vengono eliminati in cascata dal database
+        eventPublisher.publishEvent(new FavoritesChangedEvent("deleteCocktail", null, id));
     }
 
     // ========================================
@@ -336,7 +572,8 @@ public class CocktailService {
 
     /**
      * Aggiunge uno o più ingredienti a un cocktail esistente.
-     * Se un ingrediente non esiste nel database, viene creato automaticamente.
+     * Se un ingrediente non esiste nel database, viene creato automaticamente
+     * (con i suggerimenti dei nomi simili nella riga, come in createCocktail).
      *
      * @param cocktailId ID del cocktail
      * @param ingredientRequests Lista di ingredienti da aggiungere
@@ -344,25 +581,26 @@ public class CocktailService {
      * @throws RuntimeException se il cocktail non esiste
      */
     public Cocktail addIngredientsToCocktail(Long cocktailId, List<IngredientRequest> ingredientRequests) {
-        Cocktail cocktail = getCocktailById(cocktailId);
+        Cocktail cocktail = findManagedCocktail(cocktailId);
 
         if (ingredientRequests == null || ingredientRequests.isEmpty()) {
             throw new RuntimeException("La lista ingredienti non può essere vuota");
         }
 
-        for (IngredientRequest ingReq : ingredientRequests) {
-            // Trova o crea l'ingrediente
-            Ingredient ingredient = ingredientService.findOrCreateIngredient(
-                ingReq.getName(),
-                ingReq.getCategory(),
-                ingReq.getUnit()
-            );
-
-            // Aggiungi al cocktail
-            cocktail.addIngredient(ingredient, ingReq.getQuantity());
+        // Trova o crea tutti gli ingredienti in blocco
+        List<Ingredient> ingredients = ingredientService.findOrCreateIngredients(ingredientRequests);
+        for (int i = 0; i < ingredients.size(); i++) {
+            // Aggiungi al cocktail (con i nomi simili già esistenti, se il nome era nuovo)
+            IngredientRequest ingReq = ingredientRequests.get(i);
+            cocktail.addIngredient(ingredients.get(i), ingReq.getQuantity())
+                .setSuggestions(ingredientService.suggestAlternatives(ingReq.getName(), ingredients.get(i).getId()));
         }
+        ingredientService.adjustUsageCounts(usageDeltas(ingredients, 1));
 
-        return cocktailRepository.save(cocktail);
+        markModified(cocktail);
+        Cocktail saved = cocktailRepository.save(cocktail);
+        publishCatalogChange("addIngredientsToCocktail", cocktailId);
+        return saved;
     }
 
     /**
@@ -374,7 +612,7 @@ public class CocktailService {
      * @throws RuntimeException se il cocktail o l'ingrediente non esistono
      */
     public Cocktail removeIngredientFromCocktail(Long cocktailId, Long ingredientId) {
-        Cocktail cocktail = getCocktailById(cocktailId);
+        Cocktail cocktail = findManagedCocktail(cocktailId);
 
         // Trova la relazione CocktailIngredient da rimuovere
         CocktailIngredient toRemove = cocktail.getCocktailIngredients().stream()
@@ -386,8 +624,12 @@ public class CocktailService {
 
         // Rimuovi la relazione
         cocktail.removeIngredient(toRemove);
+        ingredientService.adjustUsageCounts(Map.of(toRemove.getIngredient().getId(), -1));
 
-        return cocktailRepository.save(cocktail);
+        markModified(cocktail);
+        Cocktail saved = cocktailRepository.save(cocktail);
+        publishCatalogChange("removeIngredientFromCocktail", cocktailId);
+        return saved;
     }
 
     /**
@@ -399,7 +641,7 @@ public class CocktailService {
      * @throws RuntimeException se il cocktail o l'ingrediente non esistono
      */
     public Cocktail removeIngredientFromCocktailByName(Long cocktailId, String ingredientName) {
-        Cocktail cocktail = getCocktailById(cocktailId);
+        Cocktail cocktail = findManagedCocktail(cocktailId);
 
         // Trova la relazione CocktailIngredient da rimuovere cercando per nome
         CocktailIngredient toRemove = cocktail.getCocktailIngredients().stream()
@@ -411,8 +653,12 @@ public class CocktailService {
 
         // Rimuovi la relazione
         cocktail.removeIngredient(toRemove);
+        ingredientService.adjustUsageCounts(Map.of(toRemove.getIngredient().getId(), -1));
 
-        return cocktailRepository.save(cocktail);
+        markModified(cocktail);
+        Cocktail saved = cocktailRepository.save(cocktail);
+        publishCatalogChange("removeIngredientFromCocktailByName", cocktailId);
+        return saved;
     }
 
     /**
@@ -425,7 +671,7 @@ public class CocktailService {
      * @throws RuntimeException se il cocktail o l'ingrediente non esistono
      */
     public Cocktail updateIngredientQuantity(Long cocktailId, Long ingredientId, String newQuantity) {
-        Cocktail cocktail = getCocktailById(cocktailId);
+        Cocktail cocktail = findManagedCocktail(cocktailId);
 
         // Trova la relazione CocktailIngredient da aggiornare
         CocktailIngredient toUpdate = cocktail.getCocktailIngredients().stream()
@@ -438,7 +684,10 @@ public class CocktailService {
         // Aggiorna la quantità
         toUpdate.setQuantity(newQuantity);
 
-        return cocktailRepository.save(cocktail);
+        markModified(cocktail);
+        Cocktail saved = cocktailRepository.save(cocktail);
+        publishCatalogChange("updateIngredientQuantity", cocktailId);
+        return saved;
     }
 
     /**
@@ -446,13 +695,161 @@ public class CocktailService {
      * Utile per test o reset del database.
      */
     public void deleteAllCocktails() {
+        ingredientService.resetUsageCounts();
+        favoriteChangeLog.recordCocktailRemoved(null);
         cocktailRepository.deleteAll();
+        publishCatalogChange("deleteAllCocktails", null);
+        eventPublisher.publishEvent(new FavoritesChangedEvent("deleteAllCocktails", null, null));
     }
 
     // ========================================
     // METODI UTILITY
     // ========================================
 
+    /**
+     * Variazioni dei contatori di utilizzo per una lista di ingredienti (ripetizioni comprese).
+     *
+     * @param ingredients Ingredienti aggiunti o rimossi
+     * @param sign 1 per aggiunta, -1 per rimozione
+     * @return ID ingrediente → variazione
+     */
+    private static Map<Long, Integer> usageDeltas(List<Ingredient> ingredients, int sign) {
+        Map<Long, Integer> deltas = new HashMap<>();
+        for (Ingredient ingredient : ingredients) {
+            deltas.merge(ingredient.getId(), sign, Integer::sum);
+        }
+        return deltas;
+    }
+
+    /**
+     * Carica dal database l'entity gestita da JPA, da usare nelle operazioni di scrittura.
+     * (Gli oggetti dello snapshot sono condivisi tra i thread e non vanno modificati.)
+     *
+     * @param id ID del cocktail
+     * @return Il cocktail gestito dalla transazione corrente
+     * @throws RuntimeException se il cocktail non esiste
+     */
+    private Cocktail findManagedCocktail(Long id) {
+        return cocktailRepository.findWithIngredientsById(id)
+                .orElseThrow(() -> new RuntimeException("Cocktail non trovato con ID: " + id));
+    }
+
+    /**
+     * Crea l'entity cocktail dai dati della richiesta, senza ingredienti,
+     * applicando i valori di default per i campi mancanti.
+     * Usato da createCocktail() e dall'import massivo (CocktailImportService).
+     *
+     * @param request Dati del cocktail
+     * @return Nuovo cocktail non ancora salvato
+     */
+    static Cocktail newCocktail(CocktailRequest request) {
+        Cocktail cocktail = new Cocktail();
+        cocktail.setName(request.getName());
+        
+        // Imposta descrizione con default se nulla
+        cocktail.setDescription(
+            request.getDescription() != null && !request.getDescription().trim().isEmpty() 
+                ? request.getDescription() 
+                : "Un buonissimo cocktail"
+        );
+        
+        // Imposta category con default se nulla
+        cocktail.setCategory(
+            request.getCategory() != null && !request.getCategory().trim().isEmpty()
+                ? request.getCategory()
+                : "Altro"
+        );
+        
+        // Imposta glassType con default se nullo
+        cocktail.setGlassType(
+            request.getGlassType() != null && !request.getGlassType().trim().isEmpty()
+                ? request.getGlassType()
+                : "Bicchiere standard"
+        );
+        
+        // Imposta metodo di preparazione con default se nullo
+        cocktail.setPreparationMethod(
+            request.getPreparationMethod() != null && !request.getPreparationMethod().trim().isEmpty()
+                ? request.getPreparationMethod()
+                : "Mescolare"
+        );
+        
+        // imageUrl può essere null (opzionale)
+        cocktail.setImageUrl(request.getImageUrl());
+        
+        // Imposta alcoholic con default se nullo
+        cocktail.setAlcoholic(
+            request.getAlcoholic() != null ? request.getAlcoholic() : true
+        );
+
+        return cocktail;
+    }
+
+    /**
+     * Segna il cocktail come modificato quando cambiano solo i suoi ingredienti:
+     * aggiorna updated_at e fa incrementare la versione (ETag), che altrimenti
+     * resterebbe invariata perché le righe modificate sono in cocktail_ingredient.
+     * Ricalcola anche volume totale e gradazione stimati.
+     */
+    private void markModified(Cocktail cocktail) {
+        cocktail.updateStrength();
+        cocktail.setUpdatedAt(java.time.LocalDateTime.now());
+    }
+
+    /**
+     * @throws RuntimeException se l'intervallo è negativo o vuoto (min maggiore di max)
+     */
+    private void checkRange(String field, BigDecimal min, BigDecimal max) {
+        if (min.signum() < 0 || max.signum() < 0) {
+            throw new RuntimeException("I limiti di " + field + " non possono essere negativi");
+        }
+        if (min.compareTo(max) > 0) {
+            throw new RuntimeException("Intervallo di " + field + " non valido: " + min + " > " + max);
+        }
+    }
+
+    /**
+     * @throws OptimisticLockingFailureException se la versione attuale non è quella attesa
+     */
+    private void checkVersion(Long expectedVersion, Long currentVersion) {
+        if (!expectedVersion.equals(currentVersion)) {
+            throw new OptimisticLockingFailureException(
+                "Il cocktail è stato modificato da un'altra richiesta (versione attuale: " + currentVersion
+                + ", attesa: " + expectedVersion + "). Ricarica il cocktail e riprova.");
+        }
+    }
+
+    /**
+     * Carica in una sola query gli ingredienti dei cocktail di una pagina.
+     * La pagina arriva dal fetch plan "summary" (nessun ingrediente): in totale
+     * servono sempre 3 query (pagina, COUNT, ingredienti) qualunque sia la dimensione.
+     *
+     * @param page Pagina di cocktail senza ingredienti
+     * @return La stessa pagina con gli ingredienti inizializzati
+     */
+    private Page<Cocktail> withIngredients(Page<Cocktail> page) {
+        if (page.isEmpty()) {
+            return page;
+        }
+
+        List<Long> ids = page.getContent().stream().map(Cocktail::getId).toList();
+        java.util.Map<Long, Cocktail> detailed = cocktailRepository.findWithIngredientsByIdIn(ids).stream()
+            .collect(java.util.stream.Collectors.toMap(Cocktail::getId, c -> c));
+
+        return page.map(c -> detailed.getOrDefault(c.getId(), c));
+    }
+
+    /**
+     * Notifica che il catalogo è cambiato: dopo il commit CocktailCatalog
+     * pubblica un nuovo snapshot e CocktailSearchIndex aggiorna il documento del cocktail.
+     *
+     * @param operation Nome dell'operazione che ha modificato il catalogo
+     * @param cocktailId ID del cocktail modificato (null se la modifica riguarda tutto il catalogo)
+     */
+    private void publishCatalogChange(String operation, Long cocktailId) {
+        eventPublisher.publishEvent(new CatalogChangedEvent(operation, cocktailId));
+    }
+
     /**
      * Verifica se esiste un cocktail con un determinato nome.
      *
@@ -473,7 +870,7 @@ public class CocktailService {
      * @return Numero di cocktail alcolici
      */
     public long countAlcoholic() {
-        return cocktailRepository.findByAlcoholic(true).size();
+        return cocktailRepository.countByAlcoholic(true);
     }
 
     /**
@@ -482,7 +879,7 @@ public class CocktailService {
      * @return Numero di cocktail analcolici
      */
     public long countNonAlcoholic() {
-        return cocktailRepository.findByAlcoholic(false).size();
+        return cocktailRepository.countByAlcoholic(false);
     }
 
     /**
@@ -544,25 +941,18 @@ public class CocktailService {
             String userId, int page, int size) {
         
         Pageable pageable = PageRequest.of(page, size, Sort.by("name").ascending());
-        Page<Cocktail> cocktailsPage = cocktailRepository.findAll(pageable);
-        
-        // Ottieni tutti i preferiti dell'utente con i colori caricati esplicitamente
-        List<com.cocktail.cocktaillist.model.Favorite> userFavorites = 
-                favoriteRepository.findByUserIdWithColors(userId);
+        Page<Cocktail> cocktailsPage = withIngredients(cocktailRepository.findAllSummaries(pageable));
         
-        // Crea una mappa cocktailId -> Favorite per accesso veloce
-        java.util.Map<Long, com.cocktail.cocktaillist.model.Favorite> favoritesMap = 
-                userFavorites.stream()
-                    .collect(java.util.stream.Collectors.toMap(
-                        fav -> fav.getCocktail().getId(),
-                        fav -> fav
-                    ));
+        // Solo i preferiti dei cocktail di questa pagina (cache per utente, altrimenti una query IN)
+        List<Long> pageIds = cocktailsPage.getContent().stream().map(Cocktail::getId).toList();
+        Map<Long, Long> colorIdsByCocktail = favoriteService.getFavoriteColorIds(userId, pageIds);
         
-        // Mappa ogni cocktail al DTO con info sui preferiti
+        // Mappa ogni cocktail al DTO con info sui preferiti (colori dalla palette in memoria)
         return cocktailsPage.map(cocktail -> {
-            com.cocktail.cocktaillist.model.Favorite favorite = favoritesMap.get(cocktail.getId());
-            boolean isFavorite = favorite != null;
-            com.cocktail.cocktaillist.model.Color favoriteColor = isFavorite ? favorite.getColor() : null;
+            boolean isFavorite = colorIdsByCocktail.containsKey(cocktail.getId());
+            com.cocktail.cocktaillist.model.Color favoriteColor = isFavorite
+                    ? colorCache.find(colorIdsByCocktail.get(cocktail.getId())).orElse(null)
+                    : null;
             
             return new com.cocktail.cocktaillist.dto.CocktailWithFavoriteInfo(
                     cocktail, isFavorite, favoriteColor);
@@ -0,0 +1,206 @@
+package com.cocktail.cocktaillist.service;
+
+import com.cocktail.cocktaillist.model.Quantity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Volume totale e gradazione stimati dei cocktail (cocktail.total_volume_ml e cocktail.abv).
+ *
+ * I valori sono calcolati in scrittura e salvati in colonne indicizzate, così filtri e
+ * ordinamenti per gradazione/volume non ricalcolano nulla a ogni lettura:
+ * - scritture JPA: Cocktail.updateStrength() sull'aggregato in memoria
+ * - scritture in blocco (import, unione ingredienti, gradazione di un ingrediente cambiata):
+ *   un solo UPDATE set-based con la stessa formula (RECOMPUTE_STRENGTH)
+ * - all'avvio: backfill dei cocktail ancora senza valori (colonne appena aggiunte)
+ */
+@Service
+public class CocktailStrengthService {
+
+    private static final Logger log = LoggerFactory.getLogger(CocktailStrengthService.class);
+
+    /**
+     * Cocktail per UPDATE (IN ...) e per transazione durante il backfill
+     */
+    private static final int BATCH_SIZE = 1_000;
+
+    /**
+     * Volume = somma dei volumi noti (limitata al massimo della colonna, Quantity.MAX_VOLUME_ML);
+     * gradazione = media delle gradazioni pesata sul volume
+     * (ingredienti senza gradazione contano come analcolici), null se il volume è 0.
+     */
+    private static final String RECOMPUTE_STRENGTH =
+        "UPDATE cocktail SET "
+        + "total_volume_ml = (SELECT LEAST(COALESCE(SUM(ci.volume_ml), 0), " + Quantity.MAX_VOLUME_ML + ") "
+        + "FROM cocktail_ingredient ci WHERE ci.cocktail_id = cocktail.id), "
+        + "abv = (SELECT ROUND(SUM(ci.volume_ml * COALESCE(i.abv, 0)) / NULLIF(SUM(ci.volume_ml), 0), 2) "
+        + "FROM cocktail_ingredient ci JOIN ingredient i ON i.id = ci.ingredient_id "
+        + "WHERE ci.cocktail_id = cocktail.id) "
+        + "WHERE id IN (:ids)";
+
+    private static final String COCKTAILS_USING_INGREDIENT =
+        "SELECT DISTINCT cocktail_id FROM cocktail_ingredient WHERE ingredient_id = :id ORDER BY cocktail_id";
+
+    /**
+     * Gradazione stimata e ingredienti annidati fanno parte del cocktail: nuova versione (ETag) e updated_at
+     */
+    private static final String TOUCH_COCKTAILS =
+        "UPDATE cocktail SET updated_at = :now, version = version + 1 WHERE id IN (:ids)";
+
+    private static final String BACKFILL_COCKTAILS =
+        "SELECT id FROM cocktail WHERE id BETWEEN :from AND :to AND total_volume_ml IS NULL";
+
+    private static final String BACKFILL_ROWS =
+        "SELECT id, quantity FROM cocktail_ingredient WHERE cocktail_id IN (:ids)";
+
+    private static final String UPDATE_QUANTITY =
+        "UPDATE cocktail_ingredient SET amount = ?, unit = ?, volume_ml = ? WHERE id = ?";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Ricalcola volume e gradazione dei cocktail indicati, nella transazione corrente.
+     * Non tocca versione e updated_at: chi chiama ha già segnato i cocktail come modificati.
+     *
+     * @param cocktailIds ID dei cocktail
+     * @return Numero di cocktail aggiornati
+     */
+    public int recompute(Collection<Long> cocktailIds) {
+        if (cocktailIds.isEmpty()) {
+            return 0;
+        }
+        int updated = 0;
+        List<Long> ids = new ArrayList<>(cocktailIds);
+        for (int start = 0; start < ids.size(); start += BATCH_SIZE) {
+            List<Long> chunk = ids.subList(start, Math.min(start + BATCH_SIZE, ids.size()));
+            updated += jdbcTemplate.update(RECOMPUTE_STRENGTH, Map.of("ids", chunk));
+        }
+        return updated;
+    }
+
+    /**
+     * Ricalcola i cocktail che usano un ingrediente (es: gradazione dell'ingrediente cambiata)
+     * e ne aggiorna versione e updated_at, nella transazione corrente.
+     *
+     * @param ingredientId ID dell'ingrediente
+     * @return ID dei cocktail ricalcolati
+     */
+    public List<Long> recomputeForIngredient(Long ingredientId) {
+        List<Long> cocktailIds = cocktailsUsing(ingredientId);
+        recompute(cocktailIds);
+        touch(cocktailIds);
+        return cocktailIds;
+    }
+
+    /**
+     * Aggiorna versione e updated_at dei cocktail che usano un ingrediente, senza ricalcolare nulla
+     * (es: ingrediente rinominato: i cocktail lo mostrano annidato, l'ETag deve cambiare).
+     *
+     * @param ingredientId ID dell'ingrediente
+     * @return ID dei cocktail aggiornati
+     */
+    public List<Long> touchForIngredient(Long ingredientId) {
+        List<Long> cocktailIds = cocktailsUsing(ingredientId);
+        touch(cocktailIds);
+        return cocktailIds;
+    }
+
+    private List<Long> cocktailsUsing(Long ingredientId) {
+        return jdbcTemplate.queryForList(COCKTAILS_USING_INGREDIENT, Map.of("id", ingredientId), Long.class);
+    }
+
+    private void touch(List<Long> cocktailIds) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int start = 0; start < cocktailIds.size(); start += BATCH_SIZE) {
+            List<Long> chunk = cocktailIds.subList(start, Math.min(start + BATCH_SIZE, cocktailIds.size()));
+            jdbcTemplate.update(TOUCH_COCKTAILS, Map.of("now", now, "ids", chunk));
+        }
+    }
+
+    // ========================================
+    // BACKFILL
+    // ========================================
+
+    /**
+     * All'avvio completa i cocktail senza volume calcolato (righe scritte prima
+     * delle colonne strutturate o direttamente nel database).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        try {
+            backfill();
+        } catch (RuntimeException e) {
+            log.error("Calcolo di volume e gradazione dei cocktail fallito: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Interpreta le quantità e ricalcola volume e gradazione dei cocktail con total_volume_ml NULL,
+     * a blocchi di ID con una transazione breve per blocco.
+     *
+     * @return Numero di cocktail aggiornati
+     */
+    public int backfill() {
+        Long maxId = jdbcTemplate.getJdbcOperations().queryForObject("SELECT MAX(id) FROM cocktail", Long.class);
+        if (maxId == null) {
+            return 0;
+        }
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int updated = 0;
+        for (long start = 1; start <= maxId; start += BATCH_SIZE) {
+            long from = start;
+            long to = start + BATCH_SIZE - 1;
+            Integer count = transaction.execute(status -> backfillRange(from, to));
+            updated += count != null ? count : 0;
+        }
+
+        if (updated > 0) {
+            log.info("Volume e gradazione calcolati per {} cocktail", updated);
+            eventPublisher.publishEvent(new CatalogChangedEvent("backfillStrength"));
+        }
+        return updated;
+    }
+
+    private int backfillRange(long from, long to) {
+        List<Long> cocktailIds = jdbcTemplate.queryForList(BACKFILL_COCKTAILS,
+            Map.of("from", from, "to", to), Long.class);
+        if (cocktailIds.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> quantities = new ArrayList<>();
+        jdbcTemplate.query(BACKFILL_ROWS, Map.of("ids", cocktailIds), rs -> {
+            Quantity quantity = Quantity.parse(rs.getString("quantity"));
+            quantities.add(new Object[] {
+                quantity.getAmount(), quantity.getUnit(), quantity.getVolumeMl(), rs.getLong("id")
+            });
+        });
+        if (!quantities.isEmpty()) {
+            jdbcTemplate.getJdbcOperations().batchUpdate(UPDATE_QUANTITY, quantities);
+        }
+        return recompute(cocktailIds);
+    }
+}
@@ -0,0 +1,87 @@
+package com.cocktail.cocktaillist.service;
+
+import com.cocktail.cocktaillist.model.Color;
+import com.cocktail.cocktaillist.repository.ColorRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Palette dei colori in memoria (ID → colore).
+ *
+ * I colori sono poche decine e cambiano solo dagli endpoint admin: le liste con
+ * i preferiti risolvono il colore di ogni riga da qui invece che con una JOIN.
+ *
+ * - Caricata alla prima richiesta con una sola query
+ * - Svuotata da ColorController a ogni creazione/eliminazione, ricaricata alla richiesta successiva
+ * - Le entity contenute sono condivise tra i thread: vanno trattate in sola lettura
+ */
+@Component
+public class ColorCache {
+
+    @Autowired
+    private ColorRepository colorRepository;
+
+    /**
+     * null = da ricaricare
+     */
+    private volatile Map<Long, Color> colorsById;
+
+    /**
+     * Cerca un colore per ID senza interrogare il database (a parte il primo caricamento).
+     *
+     * @param id ID colore (può essere null)
+     * @return Il colore, se esiste
+     */
+    public Optional<Color> find(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(colors().get(id));
+    }
+
+    /**
+     * Cerca un colore per nome senza interrogare il database (la palette è di poche decine di voci).
+     * Maiuscole e accenti ignorati come dalla collation della tabella (NameKeys.nameKey),
+     * quindi trova lo stesso colore di PATCH /color con colorName.
+     *
+     * @param name Nome del colore (es: "Rosso Classico")
+     * @return Il colore, se esiste
+     */
+    public Optional<Color> findByName(String name) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        String key = NameKeys.nameKey(name);
+        return colors().values().stream()
+            .filter(color -> NameKeys.nameKey(color.getName()).equals(key))
+            .findFirst();
+    }
+
+    /**
+     * Da chiamare dopo ogni modifica alla tabella color.
+     */
+    public synchronized void invalidate() {
+        colorsById = null;
+    }
+
+    private Map<Long, Color> colors() {
+        Map<Long, Color> current = colorsById;
+        return current != null ? current : load();
+    }
+
+    /**
+     * synchronized con invalidate(): un caricamento in corso non può ripubblicare dati già superati
+     */
+    private synchronized Map<Long, Color> load() {
+        if (colorsById == null) {
+            colorsById = colorRepository.findAll().stream()
+                .collect(Collectors.toUnmodifiableMap(Color::getId, Function.identity()));
+        }
+        return colorsById;
+    }
+}
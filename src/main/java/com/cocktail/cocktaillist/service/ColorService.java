@@ -0,0 +1,40 @@
+package com.cocktail.cocktaillist.service;
+
+import com.cocktail.cocktaillist.repository.ColorRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service per le modifiche alla palette dei colori.
+ *
+ * L'eliminazione tocca anche i preferiti che usano il colore: le due scritture
+ * avvengono nella stessa transazione, così un errore non lascia i preferiti azzerati
+ * con il colore ancora presente (o viceversa).
+ */
+@Service
+@Transactional
+public class ColorService {
+
+    @Autowired
+    private ColorRepository colorRepository;
+
+    @Autowired
+    private FavoriteService favoriteService;
+
+    /**
+     * Elimina un colore, riportando prima al colore di default i preferiti che lo usano
+     * (con una nuova versione, per la sincronizzazione incrementale).
+     * Le cache dei colori vanno svuotate dal chiamante, dopo il commit.
+     *
+     * @param id ID del colore
+     * @throws RuntimeException se il colore non esiste
+     */
+    public void deleteColor(Long id) {
+        if (!colorRepository.existsById(id)) {
+            throw new RuntimeException("Colore non trovato con ID: " + id);
+        }
+        favoriteService.clearColor(id);
+        colorRepository.deleteById(id);
+    }
+}
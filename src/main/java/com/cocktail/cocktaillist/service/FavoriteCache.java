@@ -0,0 +1,363 @@
+package com.cocktail.cocktaillist.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache per utente dei preferiti: cocktailId → colorId in una mappa di long primitivi.
+ *
+ * Controllo preferito, conteggio e decorazione delle liste leggono da qui invece che
+ * dalla tabella favorite (una ricerca in un array, nessuna query, nessun boxing).
+ *
+ * - Caricata al primo accesso dell'utente con una query sull'indice (user_id, cocktail_id)
+ * - Aggiornata DOPO il commit di ogni scrittura (FavoritesChangedEvent): la riga modificata
+ *   viene riletta per chiave univoca, quindi una transazione annullata non entra mai nella cache
+ * - Limitata: gli utenti meno recenti vengono rimossi (LRU) oltre cocktail.favorites.cache-max-users
+ *   utenti o cocktail.favorites.cache-max-slots posizioni in totale
+ *
+ * Memoria per utente: 16 byte per posizione (due long), con posizioni = potenza di 2 ≥ 2 × preferiti
+ * (minimo 8), quindi meno di 64 byte per preferito; oltre MAX_FAVORITES_PER_USER (max 128 KB)
+ * l'utente non viene messo in cache e i metodi di FavoriteService usano il database.
+ */
+@Component
+public class FavoriteCache {
+
+    private static final Logger log = LoggerFactory.getLogger(FavoriteCache.class);
+
+    /**
+     * Preferiti oltre i quali un utente non viene tenuto in cache
+     */
+    public static final int MAX_FAVORITES_PER_USER = 4_096;
+
+    /**
+     * Colore non impostato (gli ID dei colori partono da 1)
+     */
+    public static final long NO_COLOR = 0L;
+
+    private static final String LOAD_USER =
+        "SELECT cocktail_id, color_id FROM favorite WHERE user_id = ? LIMIT " + (MAX_FAVORITES_PER_USER + 1);
+
+    private static final String LOAD_FAVORITE =
+        "SELECT color_id FROM favorite WHERE user_id = ? AND cocktail_id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${cocktail.favorites.cache-max-users:10000}")
+    private int maxUsers;
+
+    @Value("${cocktail.favorites.cache-max-slots:1048576}")
+    private long maxSlots;
+
+    /**
+     * Utente → preferiti, in ordine di accesso (il primo è il meno recente). Usata solo con lock su se stessa.
+     */
+    private final LinkedHashMap<String, UserFavorites> users = new LinkedHashMap<>(256, 0.75f, true);
+
+    /**
+     * Posizioni occupate da tutti gli utenti in cache (somma di UserFavorites.accountedSlots)
+     */
+    private long totalSlots;
+
+    /**
+     * Preferiti di un utente, caricati al primo accesso.
+     *
+     * @param userId ID utente dal JWT
+     * @return I preferiti in cache, null se l'utente ne ha troppi (usare il database)
+     */
+    public UserFavorites get(String userId) {
+        UserFavorites favorites;
+        synchronized (users) {
+            favorites = users.computeIfAbsent(userId, id -> new UserFavorites());
+        }
+        if (!favorites.loaded) {
+            load(userId, favorites);
+        }
+        return favorites.tooLarge ? null : favorites;
+    }
+
+    /**
+     * Applica una scrittura sui preferiti dopo il commit.
+     * Come IngredientNameCache: legge con la connessione della transazione appena conclusa.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFavoritesChanged(FavoritesChangedEvent event) {
+        String userId = event.getUserId();
+        Long cocktailId = event.getCocktailId();
+
+        if (userId == null) {
+            if (cocktailId == null) {
+                clear();
+            } else {
+                forgetCocktail(cocktailId);
+            }
+            return;
+        }
+
+        UserFavorites favorites;
+        synchronized (users) {
+            favorites = users.get(userId);
+        }
+        if (favorites == null) {
+            return;
+        }
+        if (cocktailId == null) {
+            evict(userId, favorites);
+            return;
+        }
+        synchronized (favorites) {
+            // Non ancora caricato (o troppo grande): il caricamento leggerà già il dato committato
+            if (!favorites.loaded || favorites.tooLarge) {
+                return;
+            }
+            List<Long> colors = jdbcTemplate.query(LOAD_FAVORITE,
+                (rs, rowNum) -> rs.getLong("color_id"), userId, cocktailId);
+            if (colors.isEmpty()) {
+                favorites.remove(cocktailId);
+            } else if (favorites.size() >= MAX_FAVORITES_PER_USER && !favorites.contains(cocktailId)) {
+                favorites.markTooLarge();
+            } else {
+                favorites.put(cocktailId, colors.get(0));
+            }
+        }
+        account(userId, favorites);
+    }
+
+    /**
+     * Svuota la cache (es: eliminazione di tutti i cocktail).
+     */
+    public void clear() {
+        synchronized (users) {
+            users.clear();
+            totalSlots = 0;
+        }
+    }
+
+    // ========================================
+    // CARICAMENTO ED EVICTION
+    // ========================================
+
+    /**
+     * Carica i preferiti dal database. Lock sull'utente: un aggiornamento dopo commit
+     * arrivato durante il caricamento viene applicato dopo, mai perso.
+     */
+    private void load(String userId, UserFavorites favorites) {
+        synchronized (favorites) {
+            if (favorites.loaded) {
+                return;
+            }
+            List<long[]> rows = new ArrayList<>();
+            jdbcTemplate.query(LOAD_USER, rs -> {
+                rows.add(new long[] {rs.getLong("cocktail_id"), rs.getLong("color_id")});
+            }, userId);
+
+            if (rows.size() > MAX_FAVORITES_PER_USER) {
+                favorites.markTooLarge();
+                log.debug("Preferiti di {} non messi in cache: più di {}", userId, MAX_FAVORITES_PER_USER);
+            } else {
+                favorites.resize(UserFavorites.capacityFor(rows.size()));
+                for (long[] row : rows) {
+                    favorites.put(row[0], row[1]);
+                }
+            }
+            favorites.loaded = true;
+        }
+        account(userId, favorites);
+    }
+
+    /**
+     * Aggiorna il totale delle posizioni e rimuove gli utenti meno recenti oltre i limiti.
+     */
+    private void account(String userId, UserFavorites favorites) {
+        synchronized (users) {
+            if (users.get(userId) != favorites) {
+                return; // già rimosso
+            }
+            int slots = favorites.slots();
+            totalSlots += slots - favorites.accountedSlots;
+            favorites.accountedSlots = slots;
+
+            Iterator<Map.Entry<String, UserFavorites>> eldest = users.entrySet().iterator();
+            while ((users.size() > maxUsers || totalSlots > maxSlots) && eldest.hasNext()) {
+                Map.Entry<String, UserFavorites> entry = eldest.next();
+                if (entry.getValue() == favorites) {
+                    continue; // l'utente corrente resta
+                }
+                totalSlots -= entry.getValue().accountedSlots;
+                eldest.remove();
+            }
+        }
+    }
+
+    private void evict(String userId, UserFavorites favorites) {
+        synchronized (users) {
+            if (users.remove(userId, favorites)) {
+                totalSlots -= favorites.accountedSlots;
+            }
+        }
+    }
+
+    /**
+     * Un cocktail eliminato sparisce dai preferiti di tutti (ON DELETE CASCADE).
+     */
+    private void forgetCocktail(long cocktailId) {
+        List<Map.Entry<String, UserFavorites>> entries;
+        synchronized (users) {
+            entries = new ArrayList<>(users.entrySet());
+        }
+        for (Map.Entry<String, UserFavorites> entry : entries) {
+            synchronized (entry.getValue()) {
+                entry.getValue().remove(cocktailId);
+            }
+        }
+    }
+
+    // ========================================
+    // MAPPA PRIMITIVA
+    // ========================================
+
+    /**
+     * Mappa cocktailId → colorId a indirizzamento aperto (linear probing) su due long[].
+     * La chiave 0 indica una posizione libera (gli ID dei cocktail partono da 1).
+     * Letture e scritture sono synchronized: senza contesa costano pochi nanosecondi.
+     */
+    public static final class UserFavorites {
+
+        private static final int MIN_CAPACITY = 8;
+
+        private long[] keys = new long[MIN_CAPACITY];
+        private long[] values = new long[MIN_CAPACITY];
+        private int size;
+
+        private volatile boolean loaded;
+        private volatile boolean tooLarge;
+
+        /**
+         * Posizioni già contate in FavoriteCache.totalSlots (usato solo con lock sulla mappa utenti)
+         */
+        private int accountedSlots;
+
+        /**
+         * @return true se il cocktail è tra i preferiti
+         */
+        public synchronized boolean contains(long cocktailId) {
+            return keys[indexOf(cocktailId)] == cocktailId;
+        }
+
+        /**
+         * @return ID del colore del preferito, NO_COLOR se non impostato o se non è un preferito
+         */
+        public synchronized long colorId(long cocktailId) {
+            int index = indexOf(cocktailId);
+            return keys[index] == cocktailId ? values[index] : NO_COLOR;
+        }
+
+        /**
+         * @return Numero di preferiti
+         */
+        public synchronized int size() {
+            return size;
+        }
+
+        synchronized int slots() {
+            return keys.length;
+        }
+
+        synchronized void put(long cocktailId, long colorId) {
+            int index = indexOf(cocktailId);
+            if (keys[index] != cocktailId) {
+                if ((size + 1) * 2 > keys.length) {
+                    resize(keys.length * 2);
+                    index = indexOf(cocktailId);
+                }
+                keys[index] = cocktailId;
+                size++;
+            }
+            values[index] = colorId;
+        }
+
+        /**
+         * Rimozione con spostamento all'indietro: niente marcatori di posizione cancellata
+         */
+        synchronized void remove(long cocktailId) {
+            int mask = keys.length - 1;
+            int index = indexOf(cocktailId);
+            if (keys[index] != cocktailId) {
+                return;
+            }
+            size--;
+            int next = (index + 1) & mask;
+            while (keys[next] != 0) {
+                int home = hash(keys[next]) & mask;
+                // L'elemento in "next" può occupare "index" se la sua posizione ideale non è tra index e next
+                if (((next - home) & mask) >= ((next - index) & mask)) {
+                    keys[index] = keys[next];
+                    values[index] = values[next];
+                    index = next;
+                }
+                next = (next + 1) & mask;
+            }
+            keys[index] = 0;
+            values[index] = 0;
+        }
+
+        synchronized void markTooLarge() {
+            tooLarge = true;
+            keys = new long[MIN_CAPACITY];
+            values = new long[MIN_CAPACITY];
+            size = 0;
+        }
+
+        synchronized void resize(int capacity) {
+            long[] oldKeys = keys;
+            long[] oldValues = values;
+            keys = new long[capacity];
+            values = new long[capacity];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        /**
+         * Posizione della chiave, o della prima posizione libera dove andrebbe inserita
+         */
+        private int indexOf(long cocktailId) {
+            int mask = keys.length - 1;
+            int index = hash(cocktailId) & mask;
+            while (keys[index] != 0 && keys[index] != cocktailId) {
+                index = (index + 1) & mask;
+            }
+            return index;
+        }
+
+        private static int hash(long cocktailId) {
+            long h = cocktailId * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+
+        /**
+         * Potenza di 2 con fattore di carico massimo 0.5
+         */
+        static int capacityFor(int favorites) {
+            int capacity = MIN_CAPACITY;
+            while (capacity < favorites * 2) {
+                capacity <<= 1;
+            }
+            return capacity;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.cocktail.cocktaillist.service;
+
+import com.cocktail.cocktaillist.dto.FavoriteChanges;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Registro delle modifiche ai preferiti per la sincronizzazione incrementale dell'app.
+ *
+ * - user_favorite_version: versione per utente, incrementata da ogni scrittura sui suoi preferiti.
+ *   L'incremento blocca la riga dell'utente fino al commit: le versioni di un utente vengono
+ *   committate in ordine, quindi un client che ha visto la versione N non perde modifiche ≤ N
+ * - favorite.sync_version: versione dell'ultima aggiunta o cambio colore della riga
+ * - favorite_tombstone: preferiti rimossi con la versione della rimozione, conservati per
+ *   cocktail.favorites.tombstone-retention; un client fermo da più tempo riceve l'elenco completo
+ *
+ * I metodi di scrittura vanno chiamati nella transazione della modifica, PRIMA di scrivere
+ * su favorite (stesso ordine dei lock per tutte le scritture: versione utente, poi preferiti).
+ */
+@Component
+public class FavoriteChangeLog {
+
+    private static final Logger log = LoggerFactory.getLogger(FavoriteChangeLog.class);
+
+    /**
+     * Incremento e lettura in un solo statement: LAST_INSERT_ID(expr) salva il nuovo valore
+     * nella sessione (sia per la riga nuova sia per quella esistente)
+     */
+    private static final String NEXT_VERSION =
+        "INSERT INTO user_favorite_version (user_id, version) VALUES (?, LAST_INSERT_ID(1)) "
+        + "ON DUPLICATE KEY UPDATE version = LAST_INSERT_ID(version + 1)";
+
+    /**
+     * Valore salvato da NEXT_VERSION sulla stessa connessione (nessun accesso alle tabelle)
+     */
+    private static final String LAST_VERSION =
+        "SELECT LAST_INSERT_ID()";
+
+    /**
+     * Lock sulla riga dell'utente senza cambiare la versione (la crea con versione 0 se manca:
+     * come l'assenza della riga per changesSince)
+     */
+    private static final String LOCK_VERSION =
+        "INSERT INTO user_favorite_version (user_id, version) VALUES (?, 0) "
+        + "ON DUPLICATE KEY UPDATE version = version";
+
+    private static final String READ_VERSION =
+        "SELECT version, pruned_version FROM user_favorite_version WHERE user_id = ?";
+
+    private static final String INSERT_TOMBSTONE =
+        "INSERT INTO favorite_tombstone (user_id, cocktail_id, sync_version, removed_at) VALUES (?, ?, ?, ?) "
+        + "ON DUPLICATE KEY UPDATE sync_version = VALUES(sync_version), removed_at = VALUES(removed_at)";
+
+    private static final String TOMBSTONE_USER_FAVORITES =
+        "INSERT INTO favorite_tombstone (user_id, cocktail_id, sync_version, removed_at) "
+        + "SELECT user_id, cocktail_id, ?, ? FROM favorite WHERE user_id = ? "
+        + "ON DUPLICATE KEY UPDATE sync_version = VALUES(sync_version), removed_at = VALUES(removed_at)";
+
+    /**
+     * Modifiche che toccano più utenti (eliminazione di cocktail o colori): una nuova versione
+     * per ogni utente coinvolto, con un solo statement
+     */
+    private static final String BUMP_USERS =
+        "INSERT INTO user_favorite_version (user_id, version) SELECT DISTINCT user_id, 1 FROM favorite WHERE %s "
+        + "ON DUPLICATE KEY UPDATE version = version + 1";
+
+    private static final String TOMBSTONE_FAVORITES =
+        "INSERT INTO favorite_tombstone (user_id, cocktail_id, sync_version, removed_at) "
+        + "SELECT f.user_id, f.cocktail_id, v.version, ? FROM favorite f "
+        + "JOIN user_favorite_version v ON v.user_id = f.user_id WHERE %s "
+        + "ON DUPLICATE KEY UPDATE sync_version = VALUES(sync_version), removed_at = VALUES(removed_at)";
+
+    private static final String CLEAR_COLOR =
+        "UPDATE favorite SET color_id = NULL, sync_version = "
+        + "(SELECT v.version FROM user_favorite_version v WHERE v.user_id = favorite.user_id) "
+        + "WHERE color_id = ?";
+
+    /**
+     * Un solo range sugli indici (user_id, sync_version) di favorite e favorite_tombstone
+     */
+    private static final String CHANGES_SINCE =
+        "SELECT cocktail_id, color_id, 0 AS removed FROM favorite WHERE user_id = ? AND sync_version > ? "
+        + "UNION ALL "
+        + "SELECT cocktail_id, NULL, 1 FROM favorite_tombstone WHERE user_id = ? AND sync_version > ?";
+
+    private static final String SNAPSHOT =
+        "SELECT cocktail_id, color_id FROM favorite WHERE user_id = ?";
+
+    /**
+     * Prima di eliminare le tombstone scadute, pruned_version ricorda fin dove arrivavano:
+     * un client con "since" precedente non può più ricostruire le rimozioni
+     */
+    private static final String MARK_PRUNED =
+        "UPDATE user_favorite_version SET pruned_version = GREATEST(pruned_version, "
+        + "(SELECT MAX(t.sync_version) FROM favorite_tombstone t "
+        + "WHERE t.user_id = user_favorite_version.user_id AND t.removed_at < ?)) "
+        + "WHERE user_id IN (SELECT user_id FROM favorite_tombstone WHERE removed_at < ?)";
+
+    private static final String DELETE_PRUNED =
+        "DELETE FROM favorite_tombstone WHERE removed_at < ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${cocktail.favorites.tombstone-retention:P30D}")
+    private Duration tombstoneRetention;
+
+    /**
+     * Nuova versione dei preferiti di un utente (blocca la riga dell'utente fino al commit).
+     * La lettura di LAST_INSERT_ID() usa la connessione della transazione, la stessa dell'incremento.
+     *
+     * @param userId ID utente dal JWT
+     * @return La versione da assegnare alle righe modificate
+     */
+    public long nextVersion(String userId) {
+        jdbcTemplate.update(NEXT_VERSION, userId);
+        return jdbcTemplate.queryForObject(LAST_VERSION, Long.class);
+    }
+
+    /**
+     * Blocca la riga dell'utente fino al commit senza creare una nuova versione:
+     * per le scritture che sanno se c'è qualcosa da cambiare solo dopo aver letto i preferiti.
+     * Dopo, nextVersion sulla stessa riga non attende altri lock.
+     *
+     * @param userId ID utente dal JWT
+     */
+    public void lockVersion(String userId) {
+        jdbcTemplate.update(LOCK_VERSION, userId);
+    }
+
+    /**
+     * Registra la rimozione di alcuni preferiti di un utente.
+     *
+     * @param userId ID utente dal JWT
+     * @param version Versione ottenuta da nextVersion
+     * @param cocktailIds Cocktail rimossi
+     */
+    public void recordRemoved(String userId, long version, Collection<Long> cocktailIds) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        for (Long cocktailId : cocktailIds) {
+            rows.add(new Object[] {userId, cocktailId, version, now});
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TOMBSTONE, rows);
+        }
+    }
+
+    /**
+     * Registra la rimozione di tutti i preferiti di un utente (da chiamare prima del DELETE).
+     */
+    public void recordAllRemoved(String userId, long version) {
+        jdbcTemplate.update(TOMBSTONE_USER_FAVORITES, version, Timestamp.valueOf(LocalDateTime.now()), userId);
+    }
+
+    /**
+     * Registra l'eliminazione di un cocktail, che rimuove in cascata i preferiti di tutti gli utenti
+     * (da chiamare prima del DELETE del cocktail).
+     *
+     * @param cocktailId ID del cocktail, null per tutti i cocktail
+     */
+    public void recordCocktailRemoved(Long cocktailId) {
+        String where = cocktailId != null ? "cocktail_id = ?" : "1 = 1";
+        String joinWhere = cocktailId != null ? "f.cocktail_id = ?" : "1 = 1";
+        Object[] args = cocktailId != null ? new Object[] {cocktailId} : new Object[0];
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        jdbcTemplate.update(String.format(BUMP_USERS, where), args);
+        jdbcTemplate.update(String.format(TOMBSTONE_FAVORITES, joinWhere),
+            cocktailId != null ? new Object[] {now, cocktailId} : new Object[] {now});
+    }
+
+    /**
+     * Toglie un colore da tutti i preferiti che lo usano, con una nuova versione per ogni utente
+     * (da chiamare prima del DELETE del colore, che altrimenti li azzererebbe senza versione).
+     *
+     * @param colorId ID del colore
+     * @return Preferiti modificati
+     */
+    public int clearColor(Long colorId) {
+        jdbcTemplate.update(String.format(BUMP_USERS, "color_id = ?"), colorId);
+        return jdbcTemplate.update(CLEAR_COLOR, colorId);
+    }
+
+    /**
+     * Modifiche ai preferiti di un utente dopo una versione.
+     *
+     * Se "since" manca, è più recente della versione corrente o precede le tombstone ancora
+     * conservate, restituisce l'elenco completo con reset = true.
+     *
+     * @param userId ID utente dal JWT
+     * @param since Versione già sincronizzata dal client (null = nessuna)
+     * @return Versione corrente e preferiti aggiunti/ricolorati e rimossi
+     */
+    public FavoriteChanges changesSince(String userId, Long since) {
+        long[] state = jdbcTemplate.query(READ_VERSION, rs -> rs.next()
+            ? new long[] {rs.getLong("version"), rs.getLong("pruned_version")}
+            : new long[] {0L, 0L}, userId);
+        long version = state[0];
+        long prunedVersion = state[1];
+
+        FavoriteChanges changes = new FavoriteChanges(version);
+        if (since == null || since > version || since < prunedVersion) {
+            changes.setReset(true);
+            jdbcTemplate.query(SNAPSHOT, rs -> {
+                changes.addFavorite(rs.getLong("cocktail_id"), colorIdOf(rs.getLong("color_id")));
+            }, userId);
+            return changes;
+        }
+        if (since == version) {
+            return changes; // nessuna modifica: solo la lettura per chiave primaria
+        }
+
+        List<Long> removed = new ArrayList<>();
+        jdbcTemplate.query(CHANGES_SINCE, rs -> {
+            if (rs.getInt("removed") == 1) {
+                removed.add(rs.getLong("cocktail_id"));
+            } else {
+                changes.addFavorite(rs.getLong("cocktail_id"), colorIdOf(rs.getLong("color_id")));
+            }
+        }, userId, since, userId, since);
+        // Tombstone di una rimozione seguita da una nuova aggiunta: vale la riga attuale
+        for (Long cocktailId : removed) {
+            if (!changes.getFavorites().containsKey(cocktailId)) {
+                changes.addRemoved(cocktailId);
+            }
+        }
+        return changes;
+    }
+
+    // ========================================
+    // PULIZIA TOMBSTONE
+    // ========================================
+
+    /**
+     * Esecuzione pianificata: 5 minuti dopo l'avvio, poi ogni giorno (configurabile).
+     */
+    @Scheduled(initialDelayString = "${cocktail.favorites.tombstone-prune-initial-delay:PT5M}",
+               fixedDelayString = "${cocktail.favorites.tombstone-prune-interval:PT24H}")
+    public void scheduledPrune() {
+        try {
+            pruneTombstones();
+        } catch (RuntimeException e) {
+            log.error("Pulizia delle tombstone dei preferiti fallita: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Elimina le tombstone più vecchie di cocktail.favorites.tombstone-retention.
+     *
+     * @return Numero di tombstone eliminate
+     */
+    public int pruneTombstones() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(tombstoneRetention));
+        Integer deleted = new TransactionTemplate(transactionManager).execute(status -> {
+            jdbcTemplate.update(MARK_PRUNED, cutoff, cutoff);
+            return jdbcTemplate.update(DELETE_PRUNED, cutoff);
+        });
+        if (deleted != null && deleted > 0) {
+            log.info("Eliminate {} tombstone dei preferiti più vecchie di {}", deleted, tombstoneRetention);
+        }
+        return deleted != null ? deleted : 0;
+    }
+
+    private static Long colorIdOf(long colorId) {
+        return colorId != FavoriteCache.NO_COLOR ? colorId : null;
+    }
+}
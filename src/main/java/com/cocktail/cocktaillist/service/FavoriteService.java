@@ -1,23 +1,94 @@
 package com.cocktail.cocktaillist.service;
 
+import com.cocktail.cocktaillist.dto.FavoriteChanges;
+import com.cocktail.cocktaillist.dto.FavoriteSyncReport;
+import com.cocktail.cocktaillist.dto.FavoriteSyncRequest;
 import com.cocktail.cocktaillist.model.Cocktail;
 import com.cocktail.cocktaillist.model.Favorite;
 import com.cocktail.cocktaillist.repository.CocktailRepository;
 import com.cocktail.cocktaillist.repository.FavoriteRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
  * Service per la gestione dei preferiti degli utenti
+ *
+ * Le letture per utente (controllo, conteggio, decorazione delle liste) passano da
+ * FavoriteCache; ogni scrittura pubblica un FavoritesChangedEvent che la aggiorna dopo il commit
+ * e registra una nuova versione dell'utente in FavoriteChangeLog (sincronizzazione incrementale).
  */
 @Service
 @Transactional
 public class FavoriteService {
 
+    /**
+     * Tentativi di toggleFavorite in caso di conflitto con toggle concorrenti
+     */
+    private static final int TOGGLE_ATTEMPTS = 5;
+
+    /**
+     * Valida la FK selezionando l'ID dalla tabella cocktail: nessuna riga inserita se non esiste
+     */
+    private static final String INSERT_FAVORITE =
+        "INSERT INTO favorite (user_id, cocktail_id, created_at, sync_version) SELECT ?, id, ?, ? FROM cocktail WHERE id = ?";
+
+    private static final String DELETE_FAVORITE =
+        "DELETE FROM favorite WHERE user_id = ? AND cocktail_id = ?";
+
+    /**
+     * Operazioni massime per syncFavorites (una sola IN per ogni statement)
+     */
+    public static final int MAX_SYNC_OPERATIONS = 1_000;
+
+    /**
+     * Stato di partenza dei preferiti toccati dalla sincronizzazione, con lock fino al commit
+     */
+    private static final String SYNC_LOAD_FAVORITES =
+        "SELECT cocktail_id, color_id FROM favorite WHERE user_id = :userId AND cocktail_id IN (:ids) FOR UPDATE";
+
+    /**
+     * Lock condiviso fino al commit: un cocktail eliminato nel frattempo risulta "non trovato"
+     * invece di far fallire l'INSERT sulla FK
+     */
+    private static final String SYNC_EXISTING_COCKTAILS =
+        "SELECT id FROM cocktail WHERE id IN (:ids) FOR SHARE";
+
+    private static final String SYNC_DELETE_FAVORITES =
+        "DELETE FROM favorite WHERE user_id = :userId AND cocktail_id IN (:ids)";
+
+    /**
+     * ON DUPLICATE KEY: una riga inserita nel frattempo da un'altra richiesta non fa fallire il blocco
+     */
+    private static final String SYNC_INSERT_FAVORITE =
+        "INSERT INTO favorite (user_id, cocktail_id, color_id, created_at, sync_version) VALUES (?, ?, ?, ?, ?) "
+        + "ON DUPLICATE KEY UPDATE color_id = VALUES(color_id), sync_version = VALUES(sync_version)";
+
+    private static final String SYNC_UPDATE_COLOR =
+        "UPDATE favorite SET color_id = ?, sync_version = ? WHERE user_id = ? AND cocktail_id = ?";
+
     @Autowired
     private FavoriteRepository favoriteRepository;
 
@@ -27,6 +98,27 @@ public class FavoriteService {
     @Autowired
     private com.cocktail.cocktaillist.repository.ColorRepository colorRepository;
 
+    @Autowired
+    private FavoriteCache favoriteCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    private ColorCache colorCache;
+
+    @Autowired
+    private FavoriteChangeLog favoriteChangeLog;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     /**
      * Aggiunge un cocktail ai preferiti dell'utente
      * 
@@ -47,7 +139,10 @@ public class FavoriteService {
         
         // Crea e salva il preferito
         Favorite favorite = new Favorite(userId, cocktail);
-        return favoriteRepository.save(favorite);
+        favorite.setSyncVersion(favoriteChangeLog.nextVersion(userId));
+        Favorite saved = favoriteRepository.save(favorite);
+        eventPublisher.publishEvent(new FavoritesChangedEvent("addFavorite", userId, cocktailId));
+        return saved;
     }    /**
      * Rimuove un cocktail dai preferiti dell'utente
      * 
@@ -61,7 +156,10 @@ public class FavoriteService {
             throw new RuntimeException("Cocktail non presente nei preferiti");
         }
         
+        long version = favoriteChangeLog.nextVersion(userId);
+        favoriteChangeLog.recordRemoved(userId, version, List.of(cocktailId));
         favoriteRepository.deleteByUserIdAndCocktailId(userId, cocktailId);
+        eventPublisher.publishEvent(new FavoritesChangedEvent("removeFavorite", userId, cocktailId));
     }
 
     /**
@@ -96,7 +194,12 @@ public class FavoriteService {
      * @param cocktailId ID cocktail
      * @return true se è preferito, false altrimenti
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public boolean isFavorite(String userId, Long cocktailId) {
+        FavoriteCache.UserFavorites cached = favoriteCache.get(userId);
+        if (cached != null) {
+            return cached.contains(cocktailId);
+        }
         return favoriteRepository.existsByUserIdAndCocktailId(userId, cocktailId);
     }
 
@@ -106,10 +209,71 @@ public class FavoriteService {
      * @param userId ID utente dal JWT
      * @return Numero di cocktail preferiti
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public long countUserFavorites(String userId) {
+        FavoriteCache.UserFavorites cached = favoriteCache.get(userId);
+        if (cached != null) {
+            return cached.size();
+        }
         return favoriteRepository.countByUserId(userId);
     }
 
+    /**
+     * Preferiti di un utente limitati a un insieme di cocktail (es: quelli di una pagina),
+     * dalla cache oppure con una query IN se l'utente non è in cache.
+     *
+     * @param userId ID utente dal JWT
+     * @param cocktailIds ID dei cocktail da controllare
+     * @return Mappa cocktailId → colorId (valore null se il colore non è impostato) dei soli preferiti
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Map<Long, Long> getFavoriteColorIds(String userId, Collection<Long> cocktailIds) {
+        Map<Long, Long> colorIds = new HashMap<>();
+        if (cocktailIds.isEmpty()) {
+            return colorIds;
+        }
+        FavoriteCache.UserFavorites cached = favoriteCache.get(userId);
+        if (cached != null) {
+            for (Long cocktailId : cocktailIds) {
+                if (cached.contains(cocktailId)) {
+                    long colorId = cached.colorId(cocktailId);
+                    colorIds.put(cocktailId, colorId != FavoriteCache.NO_COLOR ? colorId : null);
+                }
+            }
+            return colorIds;
+        }
+        for (Object[] row : favoriteRepository.findColorIdsByUserIdAndCocktailIdIn(userId, cocktailIds)) {
+            colorIds.put((Long) row[0], (Long) row[1]);
+        }
+        return colorIds;
+    }
+
+    /**
+     * Modifiche ai preferiti dopo una versione già sincronizzata dal client (solo ID).
+     * Con la versione corrente è una sola lettura per chiave primaria.
+     *
+     * @param userId ID utente dal JWT
+     * @param since Versione restituita dalla sincronizzazione precedente (null = elenco completo)
+     * @return Versione corrente, preferiti aggiunti/ricolorati e rimossi
+     */
+    @Transactional(readOnly = true)
+    public FavoriteChanges getFavoriteChanges(String userId, Long since) {
+        return favoriteChangeLog.changesSince(userId, since);
+    }
+
+    /**
+     * Toglie un colore da tutti i preferiti che lo usano, prima che venga eliminato
+     * (il DELETE del colore li azzererebbe senza registrare la modifica).
+     *
+     * @param colorId ID del colore
+     */
+    public void clearColor(Long colorId) {
+        if (favoriteChangeLog.clearColor(colorId) > 0) {
+            // Preferiti di più utenti: la cache viene svuotata
+            eventPublisher.publishEvent(new FavoritesChangedEvent("clearColor", null, null));
+        }
+    }
+
     /**
      * Ottiene i cocktail più favoritati (per statistiche)
      * 
@@ -126,23 +290,233 @@ public class FavoriteService {
      * @param userId ID utente dal JWT
      */
     public void clearUserFavorites(String userId) {
+        long version = favoriteChangeLog.nextVersion(userId);
+        favoriteChangeLog.recordAllRemoved(userId, version);
         favoriteRepository.deleteByUserId(userId);
+        eventPublisher.publishEvent(new FavoritesChangedEvent("clearUserFavorites", userId, null));
     }
 
     /**
-     * Toggle preferito: aggiunge se non c'è, rimuove se c'è
-     * 
+     * Toggle preferito: aggiunge se non c'è, rimuove se c'è.
+     *
+     * Statement eseguiti, senza caricare il cocktail:
+     * - nextVersion: nuova versione dei preferiti dell'utente (INSERT ... ON DUPLICATE KEY UPDATE
+     *   più la lettura di LAST_INSERT_ID(), che non tocca tabelle)
+     * - INSERT ... SELECT dalla tabella cocktail: 1 riga = aggiunto, 0 righe = cocktail inesistente
+     * - solo per la rimozione (violazione di unique_user_cocktail = era già preferito):
+     *   DELETE sulla stessa chiave e batch della tombstone (recordRemoved)
+     * Due toggle concorrenti dello stesso utente si serializzano sulla riga della versione
+     * (il secondo attende il commit del primo e poi rimuove), quindi un doppio tap lascia lo stato di partenza.
+     * Deadlock o riga rimossa da un altro toggle tra i due statement: la transazione viene
+     * ripetuta (max TOGGLE_ATTEMPTS volte).
+     *
      * @param userId ID utente dal JWT
      * @param cocktailId ID cocktail
      * @return true se aggiunto, false se rimosso
+     * @throws RuntimeException se il cocktail non esiste
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public boolean toggleFavorite(String userId, Long cocktailId) {
-        if (favoriteRepository.existsByUserIdAndCocktailId(userId, cocktailId)) {
-            removeFavorite(userId, cocktailId);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Boolean added = transaction.execute(status -> toggleRow(userId, cocktailId));
+                // Transazione già conclusa: l'evento aggiorna subito la cache
+                eventPublisher.publishEvent(new FavoritesChangedEvent("toggleFavorite", userId, cocktailId));
+                return Boolean.TRUE.equals(added);
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= TOGGLE_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private boolean toggleRow(String userId, Long cocktailId) {
+        long version = favoriteChangeLog.nextVersion(userId);
+        try {
+            int inserted = jdbcTemplate.update(INSERT_FAVORITE,
+                userId, Timestamp.valueOf(LocalDateTime.now()), version, cocktailId);
+            if (inserted == 0) {
+                throw new RuntimeException("Cocktail non trovato con ID: " + cocktailId);
+            }
+            return true; // Aggiunto
+        } catch (DuplicateKeyException e) {
+            // Solo lo statement fallito viene annullato: la transazione prosegue
+            if (jdbcTemplate.update(DELETE_FAVORITE, userId, cocktailId) == 0) {
+                // Rimosso da un toggle concorrente tra i due statement: si ripete da capo
+                throw new ConcurrencyFailureException("Preferito modificato da un'altra richiesta");
+            }
+            favoriteChangeLog.recordRemoved(userId, version, List.of(cocktailId));
             return false; // Rimosso
+        }
+    }
+
+    /**
+     * Sincronizzazione in blocco: applica le operazioni accodate offline dall'app
+     * (add/remove/setColor) in una sola transazione.
+     *
+     * - Stato di partenza letto (con lock) con una query, cocktail verificati con un'altra (FOR SHARE)
+     * - Operazioni simulate in memoria nell'ordine dato, ognuna con il proprio esito
+     * - Solo la differenza tra stato iniziale e finale va sul database: un DELETE con IN,
+     *   un batch di INSERT e uno di UPDATE del colore
+     * - Nuova versione dei preferiti solo se la differenza non è vuota: rinviare una coda
+     *   già applicata non cambia la versione (i client non rileggono nulla)
+     * Idempotente: un'operazione già applicata risulta "unchanged", quindi la stessa coda
+     * può essere rinviata dopo un errore di rete. Le operazioni non valide vengono
+     * scartate una per una senza annullare le altre.
+     *
+     * @param userId ID utente dal JWT
+     * @param operations Operazioni nell'ordine in cui l'utente le ha fatte
+     * @return Esito per ogni operazione
+     * @throws RuntimeException se la lista manca o supera MAX_SYNC_OPERATIONS
+     */
+    public FavoriteSyncReport syncFavorites(String userId, List<FavoriteSyncRequest.Operation> operations) {
+        if (operations == null) {
+            throw new RuntimeException("operations è obbligatorio nel body");
+        }
+        if (operations.size() > MAX_SYNC_OPERATIONS) {
+            throw new RuntimeException("Massimo " + MAX_SYNC_OPERATIONS + " operazioni per sincronizzazione");
+        }
+
+        Set<Long> cocktailIds = new LinkedHashSet<>();
+        Set<Long> addedIds = new HashSet<>();
+        for (FavoriteSyncRequest.Operation operation : operations) {
+            if (operation != null && operation.getCocktailId() != null) {
+                cocktailIds.add(operation.getCocktailId());
+                if (FavoriteSyncRequest.ADD.equals(operation.getOp())) {
+                    addedIds.add(operation.getCocktailId());
+                }
+            }
+        }
+
+        // Stato iniziale: cocktailId → colorId (NO_COLOR se non impostato)
+        Map<Long, Long> initial = new HashMap<>();
+        Set<Long> existingCocktails = new HashSet<>();
+        if (!cocktailIds.isEmpty()) {
+            // Prima il lock sulla versione dell'utente, poi quello sui preferiti (come le altre scritture);
+            // la versione viene incrementata solo se c'è qualcosa da scrivere (writeSyncChanges)
+            favoriteChangeLog.lockVersion(userId);
+            namedJdbcTemplate.query(SYNC_LOAD_FAVORITES, Map.of("userId", userId, "ids", cocktailIds), rs -> {
+                initial.put(rs.getLong("cocktail_id"), rs.getLong("color_id"));
+            });
+        }
+        if (!addedIds.isEmpty()) {
+            existingCocktails.addAll(namedJdbcTemplate.queryForList(SYNC_EXISTING_COCKTAILS,
+                Map.of("ids", addedIds), Long.class));
+        }
+
+        FavoriteSyncReport report = new FavoriteSyncReport();
+        Map<Long, Long> state = new HashMap<>(initial);
+        for (int index = 0; index < operations.size(); index++) {
+            applySyncOperation(index, operations.get(index), state, existingCocktails, report);
+        }
+
+        writeSyncChanges(userId, initial, state);
+        if (report.getApplied() > 0) {
+            eventPublisher.publishEvent(new FavoritesChangedEvent("syncFavorites", userId, null));
+        }
+        return report;
+    }
+
+    private void applySyncOperation(int index, FavoriteSyncRequest.Operation operation, Map<Long, Long> state,
+                                    Set<Long> existingCocktails, FavoriteSyncReport report) {
+        String op = operation != null ? operation.getOp() : null;
+        Long cocktailId = operation != null ? operation.getCocktailId() : null;
+        if (cocktailId == null) {
+            report.addFailed(index, op, null, "cocktailId è obbligatorio");
+            return;
+        }
+
+        if (FavoriteSyncRequest.ADD.equals(op)) {
+            if (state.containsKey(cocktailId)) {
+                report.addUnchanged(index, op, cocktailId);
+            } else if (!existingCocktails.contains(cocktailId)) {
+                report.addFailed(index, op, cocktailId, "Cocktail non trovato con ID: " + cocktailId);
+            } else {
+                state.put(cocktailId, FavoriteCache.NO_COLOR);
+                report.addApplied(index, op, cocktailId);
+            }
+        } else if (FavoriteSyncRequest.REMOVE.equals(op)) {
+            if (state.remove(cocktailId) != null) {
+                report.addApplied(index, op, cocktailId);
+            } else {
+                report.addUnchanged(index, op, cocktailId);
+            }
+        } else if (FavoriteSyncRequest.SET_COLOR.equals(op)) {
+            Optional<com.cocktail.cocktaillist.model.Color> color;
+            if (operation.getColorName() != null) {
+                color = colorCache.findByName(operation.getColorName());
+            } else if (operation.getColorId() != null) {
+                color = colorCache.find(operation.getColorId());
+            } else {
+                report.addFailed(index, op, cocktailId, "colorId o colorName è obbligatorio");
+                return;
+            }
+
+            if (color.isEmpty()) {
+                report.addFailed(index, op, cocktailId, operation.getColorName() != null
+                    ? "Colore non trovato con nome: " + operation.getColorName()
+                    : "Colore non trovato con ID: " + operation.getColorId());
+            } else if (!state.containsKey(cocktailId)) {
+                report.addFailed(index, op, cocktailId,
+                    "Cocktail non trovato nei preferiti. Aggiungi prima il cocktail ai preferiti.");
+            } else if (color.get().getId().equals(state.get(cocktailId))) {
+                report.addUnchanged(index, op, cocktailId);
+            } else {
+                state.put(cocktailId, color.get().getId());
+                report.addApplied(index, op, cocktailId);
+            }
         } else {
-            addFavorite(userId, cocktailId);
-            return true; // Aggiunto
+            report.addFailed(index, op, cocktailId, "Operazione non valida: " + op);
+        }
+    }
+
+    /**
+     * Scrive solo la differenza tra stato iniziale e finale (righe rimosse, aggiunte e ricolorate),
+     * con una nuova versione dei preferiti solo se la differenza non è vuota.
+     */
+    private void writeSyncChanges(String userId, Map<Long, Long> initial, Map<Long, Long> state) {
+        List<Long> removed = new ArrayList<>();
+        for (Long cocktailId : initial.keySet()) {
+            if (!state.containsKey(cocktailId)) {
+                removed.add(cocktailId);
+            }
+        }
+        List<Long> added = new ArrayList<>();
+        List<Long> changedColor = new ArrayList<>();
+        for (Map.Entry<Long, Long> entry : state.entrySet()) {
+            if (!initial.containsKey(entry.getKey())) {
+                added.add(entry.getKey());
+            } else if (!Objects.equals(initial.get(entry.getKey()), entry.getValue())) {
+                changedColor.add(entry.getKey());
+            }
+        }
+        if (removed.isEmpty() && added.isEmpty() && changedColor.isEmpty()) {
+            return; // tutto "unchanged" (o scartato): nessuna nuova versione
+        }
+
+        // La riga della versione è già bloccata da lockVersion: nessuna attesa, ordine dei lock invariato
+        long version = favoriteChangeLog.nextVersion(userId);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> inserted = new ArrayList<>();
+        for (Long cocktailId : added) {
+            inserted.add(new Object[] {userId, cocktailId, colorIdOf(state.get(cocktailId)), now, version});
+        }
+        List<Object[]> recolored = new ArrayList<>();
+        for (Long cocktailId : changedColor) {
+            recolored.add(new Object[] {colorIdOf(state.get(cocktailId)), version, userId, cocktailId});
+        }
+
+        if (!removed.isEmpty()) {
+            favoriteChangeLog.recordRemoved(userId, version, removed);
+            namedJdbcTemplate.update(SYNC_DELETE_FAVORITES, Map.of("userId", userId, "ids", removed));
+        }
+        if (!inserted.isEmpty()) {
+            jdbcTemplate.batchUpdate(SYNC_INSERT_FAVORITE, inserted);
+        }
+        if (!recolored.isEmpty()) {
+            jdbcTemplate.batchUpdate(SYNC_UPDATE_COLOR, recolored);
         }
     }
 
@@ -167,7 +541,10 @@ public class FavoriteService {
         
         // Aggiorna il colore
         favorite.setColor(color);
-        return favoriteRepository.save(favorite);
+        favorite.setSyncVersion(favoriteChangeLog.nextVersion(userId));
+        Favorite saved = favoriteRepository.save(favorite);
+        eventPublisher.publishEvent(new FavoritesChangedEvent("updateFavoriteColor", userId, cocktailId));
+        return saved;
     }
 
     /**
@@ -191,6 +568,13 @@ public class FavoriteService {
         
         // Aggiorna il colore
         favorite.setColor(color);
-        return favoriteRepository.save(favorite);
+        favorite.setSyncVersion(favoriteChangeLog.nextVersion(userId));
+        Favorite saved = favoriteRepository.save(favorite);
+        eventPublisher.publishEvent(new FavoritesChangedEvent("updateFavoriteColor", userId, cocktailId));
+        return saved;
+    }
+
+    private static Long colorIdOf(Long colorId) {
+        return colorId != FavoriteCache.NO_COLOR ? colorId : null;
     }
 }
@@ -0,0 +1,48 @@
+package com.cocktail.cocktaillist.service;
+
+/**
+ * Evento pubblicato quando cambiano i preferiti (aggiunta, rimozione, colore, svuotamento,
+ * eliminazione di cocktail). Gestito DOPO il commit da FavoriteCache.
+ */
+public class FavoritesChangedEvent {
+
+    /**
+     * Descrizione dell'operazione (es: "addFavorite")
+     */
+    private final String operation;
+
+    /**
+     * Utente dei preferiti modificati; null se la modifica riguarda tutti gli utenti
+     * (es: eliminazione di un cocktail, che elimina i preferiti in cascata)
+     */
+    private final String userId;
+
+    /**
+     * Cocktail del preferito modificato; null se la modifica può toccarne più di uno
+     */
+    private final Long cocktailId;
+
+    public FavoritesChangedEvent(String operation, String userId, Long cocktailId) {
+        this.operation = operation;
+        this.userId = userId;
+        this.cocktailId = cocktailId;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public Long getCocktailId() {
+        return cocktailId;
+    }
+
+    @Override
+    public String toString() {
+        return "FavoritesChangedEvent{operation='" + operation + "', userId='" + userId
+            + "', cocktailId=" + cocktailId + "}";
+    }
+}
@@ -0,0 +1,453 @@
+package com.cocktail.cocktaillist.service;
+
+import com.cocktail.cocktaillist.dto.IngredientSuggestion;
+import com.cocktail.cocktaillist.model.Ingredient;
+import com.cocktail.cocktaillist.repository.IngredientRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Indice in memoria per l'autocomplete dei nomi degli ingredienti.
+ *
+ * Sostituisce la LIKE '%testo%' sul database a ogni tasto premuto:
+ * - Array ordinato di chiavi normalizzate (senza maiuscole e accenti), ricerca binaria del prefisso
+ * - Ogni nome è indicizzato anche dall'inizio di ogni parola ("bianco" trova "Rum Bianco")
+ * - Risultati ordinati per contatore di utilizzo (ingredient.usage_count), a parità per nome
+ * - Prefissi corti (fino a TOP_PREFIX_LENGTH caratteri, i più frequenti e con più risultati):
+ *   i primi MAX_LIMIT ingredienti sono precalcolati per prefisso, una ricerca costa un accesso
+ *   alla mappa più N. I prefissi più lunghi scorrono solo l'intervallo (ristretto) delle chiavi che
+ *   iniziano col prefisso.
+ *
+ * Aggiornato dopo il commit solo per gli ingredienti cambiati: nome/categoria (IngredientsChangedEvent)
+ * o contatore di utilizzo (IngredientUsageChangedEvent). Le chiavi cambiate vengono tolte e inserite
+ * nell'array con ricerca binaria e System.arraycopy (nessun riordinamento); le classifiche dei prefissi
+ * vengono corrette in modo incrementale. Copy-on-write: i lettori usano array pubblicati senza lock.
+ */
+@Component
+public class IngredientAutocompleteIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(IngredientAutocompleteIndex.class);
+
+    /**
+     * Numero massimo di suggerimenti per richiesta
+     */
+    public static final int MAX_LIMIT = 50;
+
+    /**
+     * Lunghezza massima dei prefissi con classifica precalcolata
+     */
+    static final int TOP_PREFIX_LENGTH = 3;
+
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private static final Item[] NO_ITEMS = new Item[0];
+
+    private static final Comparator<Entry> BY_KEY =
+        Comparator.comparing((Entry e) -> e.key).thenComparing(e -> e.id);
+
+    /**
+     * Dal più usato; a parità per nome e ID
+     */
+    private static final Comparator<Item> BY_USAGE =
+        Comparator.comparingLong((Item item) -> item.usageCount).reversed()
+            .thenComparing(item -> item.name)
+            .thenComparing(item -> item.id);
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Chiavi ordinate (una per nome + una per ogni parola successiva alla prima)
+     */
+    private volatile Entry[] entries = NO_ENTRIES;
+
+    /**
+     * ID ingrediente → dati da restituire e contatore di utilizzo
+     */
+    private volatile Map<Long, Item> itemsById = new ConcurrentHashMap<>();
+
+    /**
+     * Prefisso (1 - TOP_PREFIX_LENGTH caratteri) → primi MAX_LIMIT ingredienti per utilizzo
+     * (array mai modificati dopo la pubblicazione)
+     */
+    private volatile Map<String, Item[]> topByPrefix = new ConcurrentHashMap<>();
+
+    /**
+     * Costruisce l'indice all'avvio.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reload();
+    }
+
+    /**
+     * Aggiorna l'indice dopo il commit di una scrittura sugli ingredienti
+     * (come IngredientNameCache: connessione della transazione conclusa, persistence context svuotato).
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientsChanged(IngredientsChangedEvent event) {
+        entityManager.clear();
+        if (event.getIngredientIds() == null) {
+            reload();
+        } else {
+            refresh(event.getIngredientIds());
+        }
+    }
+
+    /**
+     * Riordina gli ingredienti il cui contatore di utilizzo è cambiato (ricette modificate).
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsageChanged(IngredientUsageChangedEvent event) {
+        entityManager.clear();
+        if (event.getIngredientIds() == null) {
+            reload();
+        } else {
+            refresh(event.getIngredientIds());
+        }
+    }
+
+    /**
+     * Ingredienti il cui nome (o una sua parola) inizia con il prefisso.
+     *
+     * @param prefix Testo digitato (maiuscole e accenti ignorati)
+     * @param limit Numero massimo di risultati (1 - MAX_LIMIT)
+     * @return Suggerimenti, dal più usato al meno usato
+     * @throws RuntimeException se limit non è valido
+     */
+    public List<IngredientSuggestion> suggest(String prefix, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new RuntimeException("limit deve essere tra 1 e " + MAX_LIMIT);
+        }
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        String key = NameKeys.nameKey(prefix);
+        Item[] top = key.length() <= TOP_PREFIX_LENGTH
+            ? topByPrefix.getOrDefault(key, NO_ITEMS)
+            : rank(entries, itemsById, key, limit);
+
+        List<IngredientSuggestion> result = new ArrayList<>(Math.min(limit, top.length));
+        for (Item item : Arrays.asList(top).subList(0, Math.min(limit, top.length))) {
+            result.add(new IngredientSuggestion(item.id, item.name, item.category, item.unit,
+                (int) Math.min(item.usageCount, Integer.MAX_VALUE)));
+        }
+        return result;
+    }
+
+    /**
+     * Ricostruisce l'intero indice dal database.
+     */
+    public synchronized void reload() {
+        List<Entry> all = new ArrayList<>();
+        Map<Long, Item> items = new ConcurrentHashMap<>();
+        Map<String, List<Item>> candidates = new HashMap<>();
+        for (Ingredient ingredient : ingredientRepository.findAll()) {
+            Item item = new Item(ingredient);
+            items.put(item.id, item);
+            for (String key : item.keys) {
+                all.add(new Entry(key, item.id));
+            }
+            for (String prefix : prefixes(item.keys)) {
+                candidates.computeIfAbsent(prefix, p -> new ArrayList<>()).add(item);
+            }
+        }
+        all.sort(BY_KEY);
+
+        Map<String, Item[]> top = new ConcurrentHashMap<>();
+        candidates.forEach((prefix, list) -> {
+            list.sort(BY_USAGE);
+            top.put(prefix, list.subList(0, Math.min(MAX_LIMIT, list.size())).toArray(NO_ITEMS));
+        });
+
+        this.itemsById = items;
+        this.entries = all.toArray(NO_ENTRIES);
+        this.topByPrefix = top;
+        log.debug("Indice autocomplete ingredienti costruito: {} chiavi, {} prefissi", all.size(), top.size());
+    }
+
+    /**
+     * Rilegge gli ingredienti indicati (una query per chiave primaria) e ne aggiorna chiavi e classifiche.
+     * - Chiavi: solo quelle cambiate (rinomina, creazione, eliminazione), posizione con ricerca binaria
+     *   e un solo passaggio di System.arraycopy nel nuovo array
+     * - Classifiche dei prefissi: l'ingrediente viene tolto e reinserito nella posizione del suo contatore;
+     *   l'intervallo del prefisso viene riscandito solo se l'ingrediente esce da una classifica piena
+     */
+    private synchronized void refresh(Collection<Long> ingredientIds) {
+        Map<Long, Ingredient> fresh = new HashMap<>();
+        for (Ingredient ingredient : ingredientRepository.findAllById(ingredientIds)) {
+            fresh.put(ingredient.getId(), ingredient);
+        }
+
+        List<Entry> removed = new ArrayList<>();
+        List<Entry> added = new ArrayList<>();
+        Map<String, Map<Long, Item>> changedPrefixes = new HashMap<>();
+        for (Long id : new HashSet<>(ingredientIds)) {
+            Item old = itemsById.get(id);
+            Ingredient ingredient = fresh.get(id);
+            Item item = ingredient != null ? new Item(ingredient) : null;
+            if (old == null && item == null) {
+                continue;
+            }
+            List<String> oldKeys = old != null ? old.keys : List.of();
+            List<String> newKeys = item != null ? item.keys : List.of();
+            for (String key : oldKeys) {
+                if (!newKeys.contains(key)) {
+                    removed.add(new Entry(key, id));
+                }
+            }
+            for (String key : newKeys) {
+                if (!oldKeys.contains(key)) {
+                    added.add(new Entry(key, id));
+                }
+            }
+            // Prefissi dei vecchi nomi: l'ingrediente ne esce (null); dei nuovi: entra o cambia posizione
+            for (String prefix : prefixes(oldKeys)) {
+                changedPrefixes.computeIfAbsent(prefix, p -> new HashMap<>()).put(id, null);
+            }
+            for (String prefix : prefixes(newKeys)) {
+                changedPrefixes.computeIfAbsent(prefix, p -> new HashMap<>()).put(id, item);
+            }
+            if (item != null) {
+                itemsById.put(id, item);
+            } else {
+                itemsById.remove(id);
+            }
+        }
+
+        if (!removed.isEmpty() || !added.isEmpty()) {
+            entries = replace(entries, removed, added);
+        }
+        Entry[] sorted = entries;
+        changedPrefixes.forEach((prefix, changes) -> {
+            Item[] bucket = topByPrefix.getOrDefault(prefix, NO_ITEMS);
+            Item[] updated = updateBucket(bucket, changes);
+            if (updated == null) {
+                updated = rank(sorted, itemsById, prefix, MAX_LIMIT);
+            }
+            if (updated.length == 0) {
+                topByPrefix.remove(prefix);
+            } else {
+                topByPrefix.put(prefix, updated);
+            }
+        });
+    }
+
+    // ========================================
+    // METODI UTILITY
+    // ========================================
+
+    /**
+     * Nuovo array ordinato senza le chiavi "removed" e con le chiavi "added":
+     * posizioni trovate con ricerca binaria, il resto copiato a blocchi con System.arraycopy.
+     */
+    private static Entry[] replace(Entry[] sorted, List<Entry> removed, List<Entry> added) {
+        int[] removePositions = new int[removed.size()];
+        int count = 0;
+        for (Entry entry : removed) {
+            int position = Arrays.binarySearch(sorted, entry, BY_KEY);
+            if (position >= 0) {
+                removePositions[count++] = position;
+            }
+        }
+        removePositions = Arrays.copyOf(removePositions, count);
+        Arrays.sort(removePositions);
+        Entry[] inserts = added.toArray(NO_ENTRIES);
+        Arrays.sort(inserts, BY_KEY);
+
+        Entry[] result = new Entry[sorted.length - removePositions.length + inserts.length];
+        int src = 0;
+        int dst = 0;
+        int r = 0;
+        int a = 0;
+        while (r < removePositions.length || a < inserts.length) {
+            int insertAt = a < inserts.length ? insertionPoint(sorted, inserts[a]) : Integer.MAX_VALUE;
+            int removeAt = r < removePositions.length ? removePositions[r] : Integer.MAX_VALUE;
+            int next = Math.min(insertAt, removeAt);
+            System.arraycopy(sorted, src, result, dst, next - src);
+            dst += next - src;
+            src = next;
+            if (insertAt <= removeAt) {
+                result[dst++] = inserts[a++];
+            } else {
+                src++;
+                r++;
+            }
+        }
+        System.arraycopy(sorted, src, result, dst, sorted.length - src);
+        return result;
+    }
+
+    /**
+     * Classifica di un prefisso con gli ingredienti cambiati tolti e reinseriti al loro posto.
+     *
+     * @param changes ID → nuovi dati, null se l'ingrediente non ha più chiavi con questo prefisso
+     * @return La nuova classifica, oppure null se va ricalcolata dall'intervallo del prefisso
+     */
+    private static Item[] updateBucket(Item[] bucket, Map<Long, Item> changes) {
+        List<Item> list = new ArrayList<>(bucket.length + changes.size());
+        int kept = 0;
+        for (Item item : bucket) {
+            if (!changes.containsKey(item.id)) {
+                list.add(item);
+                kept++;
+            }
+        }
+        for (Item item : changes.values()) {
+            if (item != null) {
+                int position = Collections.binarySearch(list, item, BY_USAGE);
+                list.add(position < 0 ? -position - 1 : position, item);
+            }
+        }
+        if (bucket.length == MAX_LIMIT) {
+            // Classifica piena: gli ingredienti rimasti fuori stanno dopo tutti quelli rimasti dentro,
+            // ma non si sa dove rispetto a quelli cambiati finiti dopo l'ultimo rimasto dentro
+            int lastKept = -1;
+            for (int i = 0, seen = 0; i < list.size() && seen < kept; i++) {
+                if (!changes.containsKey(list.get(i).id)) {
+                    lastKept = i;
+                    seen++;
+                }
+            }
+            if (list.size() < MAX_LIMIT || lastKept < MAX_LIMIT - 1) {
+                return null;
+            }
+        }
+        return list.subList(0, Math.min(MAX_LIMIT, list.size())).toArray(NO_ITEMS);
+    }
+
+    /**
+     * Primi "limit" ingredienti per utilizzo tra le chiavi che iniziano con il prefisso
+     * (scansione dell'intervallo con un min-heap, in cima il candidato peggiore).
+     */
+    private static Item[] rank(Entry[] sorted, Map<Long, Item> items, String prefix, int limit) {
+        PriorityQueue<Item> top = new PriorityQueue<>(limit + 1, BY_USAGE.reversed());
+        Set<Long> seen = new HashSet<>();
+        for (int i = lowerBound(sorted, prefix); i < sorted.length && sorted[i].key.startsWith(prefix); i++) {
+            Item item = items.get(sorted[i].id);
+            if (item == null || !seen.add(item.id)) {
+                continue;
+            }
+            top.add(item);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        Item[] result = new Item[top.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = top.poll();
+        }
+        return result;
+    }
+
+    /**
+     * Una chiave per il nome completo e una per ogni parola successiva alla prima.
+     */
+    private static List<String> keysOf(String name) {
+        String key = NameKeys.nameKey(name);
+        List<String> keys = new ArrayList<>();
+        keys.add(key);
+        for (int i = 1; i < key.length(); i++) {
+            if (!Character.isLetterOrDigit(key.charAt(i - 1)) && Character.isLetterOrDigit(key.charAt(i))) {
+                keys.add(key.substring(i));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Prefissi (1 - TOP_PREFIX_LENGTH caratteri) delle chiavi, senza ripetizioni.
+     */
+    private static Set<String> prefixes(List<String> keys) {
+        Set<String> prefixes = new LinkedHashSet<>();
+        for (String key : keys) {
+            for (int length = 1; length <= Math.min(TOP_PREFIX_LENGTH, key.length()); length++) {
+                prefixes.add(key.substring(0, length));
+            }
+        }
+        return prefixes;
+    }
+
+    /**
+     * Prima posizione con chiave >= key (ricerca binaria).
+     */
+    private static int lowerBound(Entry[] sorted, String key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid].key.compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Posizione in cui inserire una chiave assente dall'array ordinato.
+     */
+    private static int insertionPoint(Entry[] sorted, Entry entry) {
+        int position = Arrays.binarySearch(sorted, entry, BY_KEY);
+        return position < 0 ? -position - 1 : position;
+    }
+
+    /**
+     * Chiave dell'indice (immutabile)
+     */
+    private static final class Entry {
+        private final String key;
+        private final Long id;
+
+        Entry(String key, Long id) {
+            this.key = key;
+            this.id = id;
+        }
+    }
+
+    /**
+     * Ingrediente indicizzato: dati da restituire, contatore e chiavi (immutabile)
+     */
+    private static final class Item {
+        private final Long id;
+        private final String name;
+        private final String category;
+        private final String unit;
+        private final long usageCount;
+        private final List<String> keys;
+
+        private Item(Ingredient ingredient) {
+            this.id = ingredient.getId();
+            this.name = ingredient.getName();
+            this.category = ingredient.getCategory();
+            this.unit = ingredient.getUnit();
+            this.usageCount = ingredient.getUsageCount();
+            this.keys = List.copyOf(keysOf(ingredient.getName()));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.cocktail.cocktaillist.service;
+
+import com.cocktail.cocktaillist.repository.IngredientRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mantiene l'ultimo IngredientCategorySnapshot.
+ *
+ * - Il raggruppamento viene ricalcolato solo quando gli ingredienti cambiano:
+ *   dopo il commit di una scrittura (IngredientsChangedEvent) la versione avanza
+ *   e il nuovo snapshot viene costruito alla prima lettura successiva
+ *   (un import che crea molti ingredienti non provoca molte ricostruzioni)
+ * - I lettori ricevono uno snapshot immutabile, senza lock
+ */
+@Component
+public class IngredientCategoryCatalog {
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    /**
+     * Versione corrente degli ingredienti, incrementata a ogni scrittura
+     */
+    private final AtomicLong version = new AtomicLong(1);
+
+    private volatile IngredientCategorySnapshot current;
+
+    /**
+     * @return Lo snapshot della versione corrente (ricostruito se gli ingredienti sono cambiati)
+     */
+    public IngredientCategorySnapshot snapshot() {
+        IngredientCategorySnapshot snapshot = current;
+        if (snapshot != null && snapshot.getVersion() == version.get()) {
+            return snapshot;
+        }
+        return rebuild();
+    }
+
+    /**
+     * Versione corrente degli ingredienti (usata anche da ResponseCache come versione delle risposte).
+     * Uno snapshot ottenuto dopo questa lettura ha sempre una versione uguale o successiva.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientsChanged(IngredientsChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Synchronized: richieste concorrenti dopo una modifica costruiscono lo snapshot una volta sola.
+     */
+    private synchronized IngredientCategorySnapshot rebuild() {
+        long expected = version.get();
+        IngredientCategorySnapshot snapshot = current;
+        if (snapshot != null && snapshot.getVersion() == expected) {
+            return snapshot;
+        }
+        // Se durante la lettura arriva un'altra modifica la versione non coincide più
+        // e la richiesta successiva ricostruisce di nuovo
+        snapshot = new IngredientCategorySnapshot(expected, ingredientRepository.findAll());
+        current = snapshot;
+        return snapshot;
+    }
+}
@@ -0,0 +1,108 @@
+package com.cocktail.cocktaillist.service;
+
+import com.cocktail.cocktaillist.dto.IngredientCategorySummary;
+import com.cocktail.cocktaillist.model.Ingredient;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Raggruppamento immutabile e versionato degli ingredienti per categoria.
+ *
+ * Calcolato una sola volta per versione degli ingredienti (IngredientCategoryCatalog):
+ * le richieste a /api/ingredients/grouped-by-category leggono da qui senza query
+ * e senza ricalcolare il raggruppamento.
+ *
+ * - Categorie in ordine alfabetico, ingredienti di ogni categoria ordinati per nome
+ * - Gli ingredienti senza categoria finiscono in "Altro"
+ * - Ricerca della categoria case-insensitive (come la collation del database)
+ *
+ * NOTA: le entity contenute sono condivise tra i thread e vanno trattate in sola lettura.
+ */
+public final class IngredientCategorySnapshot {
+
+    /**
+     * Categoria usata per gli ingredienti senza categoria
+     */
+    public static final String DEFAULT_CATEGORY = "Altro";
+
+    private final long version;
+
+    /**
+     * Categoria → ingredienti, in ordine di categoria
+     */
+    private final Map<String, List<Ingredient>> groups;
+
+    /**
+     * Categoria in minuscolo → nome della categoria come salvato
+     */
+    private final Map<String, String> categoryNames;
+
+    private final List<IngredientCategorySummary> summaries;
+
+    IngredientCategorySnapshot(long version, List<Ingredient> ingredients) {
+        this.version = version;
+
+        Map<String, List<Ingredient>> grouped = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Ingredient ingredient : ingredients) {
+            String category = ingredient.getCategory() != null ? ingredient.getCategory() : DEFAULT_CATEGORY;
+            grouped.computeIfAbsent(category, c -> new ArrayList<>()).add(ingredient);
+        }
+
+        Map<String, List<Ingredient>> ordered = new LinkedHashMap<>();
+        Map<String, String> names = new HashMap<>();
+        List<IngredientCategorySummary> counts = new ArrayList<>(grouped.size());
+        grouped.forEach((category, list) -> {
+            list.sort(Comparator.comparing(Ingredient::getName, String.CASE_INSENSITIVE_ORDER));
+            ordered.put(category, Collections.unmodifiableList(list));
+            names.put(category.toLowerCase(Locale.ROOT), category);
+            counts.add(new IngredientCategorySummary(category, list.size()));
+        });
+
+        this.groups = Collections.unmodifiableMap(ordered);
+        this.categoryNames = Collections.unmodifiableMap(names);
+        this.summaries = Collections.unmodifiableList(counts);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return Tutte le categorie con i loro ingredienti
+     */
+    public Map<String, List<Ingredient>> getGroups() {
+        return groups;
+    }
+
+    /**
+     * @param category Categoria (case-insensitive), null per tutte
+     * @return Mappa con la sola categoria richiesta (vuota se non esiste), o tutte se category è null
+     */
+    public Map<String, List<Ingredient>> getGroups(String category) {
+        if (category == null) {
+            return groups;
+        }
+        String name = categoryNames.get(category.toLowerCase(Locale.ROOT));
+        return name != null ? Map.of(name, groups.get(name)) : Map.of();
+    }
+
+    /**
+     * @param category Categoria (case-insensitive), null per tutte
+     * @return Numero di ingredienti per categoria
+     */
+    public List<IngredientCategorySummary> getSummaries(String category) {
+        if (category == null) {
+            return summaries;
+        }
+        String name = categoryNames.get(category.toLowerCase(Locale.ROOT));
+        return name != null ? List.of(new IngredientCategorySummary(name, groups.get(name).size())) : List.of();
+    }
+}
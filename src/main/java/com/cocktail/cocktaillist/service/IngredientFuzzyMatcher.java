@@ -0,0 +1,316 @@
+package com.cocktail.cocktaillist.service;
+
+import com.cocktail.cocktaillist.dto.IngredientSuggestion;
+import com.cocktail.cocktaillist.model.Ingredient;
+import com.cocktail.cocktaillist.repository.IngredientRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ricerca in memoria degli ingredienti con nome simile (errori di battitura).
+ *
+ * findOrCreateIngredient riconosce solo i nomi uguali a meno di maiuscole e accenti:
+ * "Sucoo di Lime" diventa un nuovo ingrediente accanto a "Succo di lime".
+ * Questo indice trova i nomi a distanza di modifica 1 (un carattere inserito, tolto,
+ * sostituito o due caratteri adiacenti scambiati) senza confrontare tutti gli ingredienti.
+ * I risultati sono solo suggerimenti: per ogni riga di ricetta con un nome nuovo
+ * (createCocktail, addIngredientsToCocktail, import), in GET /api/ingredients/similar e
+ * in POST /api/ingredients?checkSimilar=true (409). Nessun ingrediente di una ricetta viene
+ * sostituito automaticamente con uno simile.
+ *
+ * - Symmetric delete: ogni chiave è indicizzata insieme alle sue varianti con un carattere
+ *   in meno; due chiavi a distanza 1 hanno sempre una variante in comune, quindi una ricerca
+ *   costa (lunghezza del nome + 1) accessi alla mappa più la verifica dei pochi candidati
+ * - Chiave: nome normalizzato (NameKeys.nameKey) con gli spazi consecutivi ridotti a uno
+ *
+ * Aggiornato dopo il commit delle scritture su ingredienti (IngredientsChangedEvent) solo per
+ * gli ingredienti modificati, come IngredientNameCache. I lettori non usano lock: le liste di ID
+ * pubblicate nella mappa non vengono più modificate (copy-on-write).
+ */
+@Component
+public class IngredientFuzzyMatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(IngredientFuzzyMatcher.class);
+
+    /**
+     * Distanza massima tra due nomi considerati simili
+     */
+    public static final int MAX_DISTANCE = 1;
+
+    /**
+     * Numero massimo di suggerimenti per richiesta
+     */
+    public static final int MAX_LIMIT = 20;
+
+    /**
+     * Nomi più corti non vengono confrontati con tolleranza ("gin" e "rum" sono ingredienti diversi)
+     */
+    private static final int MIN_FUZZY_LENGTH = 4;
+
+    private static final long[] NO_IDS = new long[0];
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private CocktailIngredientIndex cocktailIngredientIndex;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Chiave o variante con un carattere in meno → ID degli ingredienti (array mai modificati dopo la pubblicazione)
+     */
+    private volatile Map<String, long[]> idsByVariant = new ConcurrentHashMap<>();
+
+    /**
+     * ID ingrediente → chiave e copia detached dell'ingrediente
+     */
+    private volatile Map<Long, Entry> entriesById = new ConcurrentHashMap<>();
+
+    /**
+     * Costruisce l'indice all'avvio.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reload();
+    }
+
+    /**
+     * Aggiorna l'indice dopo il commit di una scrittura sugli ingredienti
+     * (come IngredientNameCache: connessione della transazione conclusa, persistence context svuotato).
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientsChanged(IngredientsChangedEvent event) {
+        entityManager.clear();
+        if (event.getIngredientIds() == null) {
+            reload();
+        } else {
+            refresh(event.getIngredientIds());
+        }
+    }
+
+    /**
+     * Ingredienti con nome uguale o simile (distanza massima MAX_DISTANCE).
+     *
+     * @param name Nome cercato (maiuscole, accenti e spazi ripetuti ignorati)
+     * @param limit Numero massimo di risultati (1 - MAX_LIMIT)
+     * @return Suggerimenti dal più vicino; a parità, dal più usato nei cocktail
+     * @throws RuntimeException se limit non è valido
+     */
+    public List<IngredientSuggestion> findSimilar(String name, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new RuntimeException("limit deve essere tra 1 e " + MAX_LIMIT);
+        }
+        if (name == null || name.isBlank()) {
+            return List.of();
+        }
+        List<Match> matches = match(fuzzyKey(name));
+        matches.sort(Comparator.comparingInt((Match m) -> m.distance)
+            .thenComparing(m -> -m.cocktailCount)
+            .thenComparing(m -> m.entry.key));
+
+        List<IngredientSuggestion> result = new ArrayList<>(Math.min(limit, matches.size()));
+        for (Match m : matches.subList(0, Math.min(limit, matches.size()))) {
+            Ingredient ingredient = m.entry.ingredient;
+            result.add(new IngredientSuggestion(ingredient.getId(), ingredient.getName(), ingredient.getCategory(),
+                ingredient.getUnit(), m.cocktailCount));
+        }
+        return result;
+    }
+
+    /**
+     * @param id ID ingrediente
+     * @return true se l'ingrediente è nell'indice (esisteva all'ultimo aggiornamento)
+     */
+    public boolean contains(Long id) {
+        return entriesById.containsKey(id);
+    }
+
+    /**
+     * Ricostruisce l'intero indice dal database e lo pubblica in un colpo solo.
+     */
+    public synchronized void reload() {
+        Map<String, long[]> variants = new ConcurrentHashMap<>();
+        Map<Long, Entry> entries = new ConcurrentHashMap<>();
+        for (Ingredient ingredient : ingredientRepository.findAll()) {
+            Entry entry = new Entry(fuzzyKey(ingredient.getName()), ingredient);
+            entries.put(ingredient.getId(), entry);
+            for (String variant : variants(entry.key)) {
+                variants.merge(variant, new long[] {ingredient.getId()}, IngredientFuzzyMatcher::concat);
+            }
+        }
+        this.entriesById = entries;
+        this.idsByVariant = variants;
+
+        log.debug("Indice nomi simili ingredienti costruito: {} ingredienti, {} varianti", entries.size(), variants.size());
+    }
+
+    /**
+     * Rilegge gli ingredienti indicati (una query): li aggiunge, li sostituisce
+     * (anche se rinominati) o li rimuove se non esistono più.
+     */
+    private synchronized void refresh(Collection<Long> ingredientIds) {
+        List<Ingredient> ingredients = ingredientRepository.findAllById(ingredientIds);
+
+        for (Long id : ingredientIds) {
+            Entry old = entriesById.remove(id);
+            if (old != null) {
+                for (String variant : variants(old.key)) {
+                    idsByVariant.computeIfPresent(variant, (v, ids) -> without(ids, id));
+                }
+            }
+        }
+        for (Ingredient ingredient : ingredients) {
+            Entry entry = new Entry(fuzzyKey(ingredient.getName()), ingredient);
+            entriesById.put(ingredient.getId(), entry);
+            for (String variant : variants(entry.key)) {
+                idsByVariant.merge(variant, new long[] {ingredient.getId()}, IngredientFuzzyMatcher::concat);
+            }
+        }
+    }
+
+    // ========================================
+    // METODI UTILITY
+    // ========================================
+
+    /**
+     * Candidati dalle varianti della chiave, verificati con la distanza effettiva.
+     */
+    private List<Match> match(String key) {
+        Map<String, long[]> variants = idsByVariant;
+        Map<Long, Entry> entries = entriesById;
+        Map<Long, Match> matches = new HashMap<>();
+
+        for (String variant : variants(key)) {
+            for (long id : variants.getOrDefault(variant, NO_IDS)) {
+                if (matches.containsKey(id)) {
+                    continue;
+                }
+                Entry entry = entries.get(id);
+                if (entry == null) {
+                    continue;
+                }
+                int bound = Math.min(key.length(), entry.key.length()) < MIN_FUZZY_LENGTH ? 0 : MAX_DISTANCE;
+                int distance = distance(key, entry.key, bound);
+                if (distance <= bound) {
+                    matches.put(id, new Match(entry, distance, cocktailIngredientIndex.countCocktailsUsing(id)));
+                }
+            }
+        }
+        return new ArrayList<>(matches.values());
+    }
+
+    /**
+     * Nome normalizzato come la collation del database, con gli spazi consecutivi ridotti a uno.
+     */
+    static String fuzzyKey(String name) {
+        return NameKeys.nameKey(name).replaceAll("\\s+", " ");
+    }
+
+    /**
+     * La chiave stessa e tutte le varianti con un carattere in meno (senza ripetizioni).
+     */
+    private static Set<String> variants(String key) {
+        Set<String> variants = new LinkedHashSet<>(key.length() + 1);
+        variants.add(key);
+        for (int i = 0; i < key.length(); i++) {
+            variants.add(key.substring(0, i) + key.substring(i + 1));
+        }
+        return variants;
+    }
+
+    /**
+     * Distanza di modifica con scambio di caratteri adiacenti (Damerau-Levenshtein ristretta).
+     * Si ferma appena la distanza supera "bound" e in quel caso restituisce bound + 1.
+     */
+    static int distance(String a, String b, int bound) {
+        if (Math.abs(a.length() - b.length()) > bound) {
+            return bound + 1;
+        }
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > bound) {
+                return bound + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], bound + 1);
+    }
+
+    private static long[] concat(long[] ids, long[] more) {
+        long[] result = Arrays.copyOf(ids, ids.length + more.length);
+        System.arraycopy(more, 0, result, ids.length, more.length);
+        return result;
+    }
+
+    /**
+     * @return Copia senza "id", o null (la voce viene rimossa dalla mappa) se non resta nessun ID
+     */
+    private static long[] without(long[] ids, long id) {
+        long[] result = Arrays.stream(ids).filter(existing -> existing != id).toArray();
+        return result.length > 0 ? result : null;
+    }
+
+    /**
+     * Ingrediente indicizzato con la sua chiave (immutabile)
+     */
+    private static final class Entry {
+        private final String key;
+        private final Ingredient ingredient;
+
+        private Entry(String key, Ingredient ingredient) {
+            this.key = key;
+            this.ingredient = ingredient;
+        }
+    }
+
+    private static final class Match {
+        private final Entry entry;
+        private final int distance;
+        private final int cocktailCount;
+
+        private Match(Entry entry, int distance, int cocktailCount) {
+            this.entry = entry;
+            this.distance = distance;
+            this.cocktailCount = cocktailCount;
+        }
+    }
+}
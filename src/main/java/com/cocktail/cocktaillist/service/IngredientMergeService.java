@@ -0,0 +1,286 @@
+package com.cocktail.cocktaillist.service;
+
+import com.cocktail.cocktaillist.dto.IngredientMergeReport;
+import com.cocktail.cocktaillist.dto.IngredientMergeRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Unione di ingredienti doppioni (es: "Succo di lime" e "Sucoo di Lime").
+ *
+ * Un ingrediente usato in una ricetta non si può eliminare (FK ON DELETE RESTRICT):
+ * l'unione sposta prima tutte le righe di cocktail_ingredient dei sorgenti sulla
+ * destinazione e poi elimina i sorgenti.
+ *
+ * - A blocchi di cocktail, una transazione breve per blocco: le tabelle del catalogo
+ *   restano bloccate solo per le righe del blocco corrente
+ * - Ogni blocco usa UPDATE/DELETE set-based (WHERE id IN ...), non una query per riga
+ * - Stesso cocktail con destinazione e sorgente: resta una sola riga (vedi IngredientMergeReport)
+ * - Contatori di utilizzo, versione, updated_at e gradazione dei cocktail aggiornati nello stesso blocco
+ * - Avanzamento nel log a ogni blocco; catalogo e cache ricaricati una volta sola alla fine
+ */
+@Service
+public class IngredientMergeService {
+
+    private static final Logger log = LoggerFactory.getLogger(IngredientMergeService.class);
+
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+    public static final int MAX_CHUNK_SIZE = 5_000;
+
+    /**
+     * Numero massimo di ingredienti sorgente per richiesta
+     */
+    public static final int MAX_SOURCES = 100;
+
+    /**
+     * Prossimo blocco: i cocktail che usano ancora un sorgente. Le righe elaborate non usano
+     * più i sorgenti, quindi ogni blocco riparte dall'inizio senza cursore; anche le ricette
+     * scritte durante l'unione vengono prese dai blocchi successivi.
+     */
+    private static final String NEXT_CHUNK =
+        "SELECT DISTINCT cocktail_id FROM cocktail_ingredient WHERE ingredient_id IN (:sources) "
+        + "ORDER BY cocktail_id LIMIT :limit";
+
+    /**
+     * Lock sulle righe degli ingredienti prima di quelle di cocktail_ingredient,
+     * nello stesso ordine di CocktailService (adjustUsageCounts)
+     */
+    private static final String LOCK_INGREDIENTS =
+        "SELECT id FROM ingredient WHERE id IN (:ids) ORDER BY id FOR UPDATE";
+
+    private static final String SELECT_ROWS =
+        "SELECT id, cocktail_id, ingredient_id FROM cocktail_ingredient "
+        + "WHERE cocktail_id IN (:cocktails) AND ingredient_id IN (:ingredients) ORDER BY id FOR UPDATE";
+
+    private static final String DELETE_ROWS =
+        "DELETE FROM cocktail_ingredient WHERE id IN (:ids)";
+
+    private static final String REPOINT_ROWS =
+        "UPDATE cocktail_ingredient SET ingredient_id = :target WHERE id IN (:ids)";
+
+    /**
+     * La ricetta è cambiata: come un salvataggio JPA, nuova versione (ETag) e updated_at
+     */
+    private static final String TOUCH_COCKTAILS =
+        "UPDATE cocktail SET updated_at = :now, version = version + 1 WHERE id IN (:cocktails)";
+
+    /**
+     * Elimina un sorgente solo se nessuna ricetta lo usa più
+     */
+    private static final String DELETE_SOURCE =
+        "DELETE FROM ingredient WHERE id = :id "
+        + "AND NOT EXISTS (SELECT 1 FROM cocktail_ingredient ci WHERE ci.ingredient_id = :id)";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private IngredientService ingredientService;
+
+    @Autowired
+    private CocktailStrengthService cocktailStrengthService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Unisce gli ingredienti sorgente nella destinazione ed elimina i sorgenti.
+     *
+     * @param request ID della destinazione e dei sorgenti
+     * @param chunkSize Cocktail per transazione (1 - MAX_CHUNK_SIZE)
+     * @return Esito con contatori e ingredienti eliminati
+     * @throws RuntimeException se la richiesta non è valida o un ingrediente non esiste
+     */
+    public IngredientMergeReport mergeIngredients(IngredientMergeRequest request, int chunkSize) {
+        if (chunkSize < 1 || chunkSize > MAX_CHUNK_SIZE) {
+            throw new RuntimeException("chunkSize deve essere tra 1 e " + MAX_CHUNK_SIZE);
+        }
+        Long targetId = request.getTargetId();
+        Set<Long> sources = validate(targetId, request.getSourceIds());
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        IngredientMergeReport report = new IngredientMergeReport(targetId);
+
+        while (true) {
+            Boolean processed = transaction.execute(status -> mergeChunk(targetId, sources, chunkSize, report));
+            if (!Boolean.TRUE.equals(processed)) {
+                break;
+            }
+            log.info("Unione ingredienti {} → {}: blocco {} completato, {} cocktail aggiornati finora",
+                    sources, targetId, report.getChunks(), report.getCocktailsUpdated());
+        }
+
+        deleteSources(transaction, sources, report);
+
+        // Un solo ricaricamento del catalogo e delle cache per tutta l'unione
+        if (report.getCocktailsUpdated() > 0) {
+            eventPublisher.publishEvent(new CatalogChangedEvent("mergeIngredients"));
+        }
+        Set<Long> changed = new HashSet<>(sources);
+        changed.add(targetId);
+        eventPublisher.publishEvent(new IngredientsChangedEvent("mergeIngredients", changed));
+
+        log.info("Unione ingredienti {} → {}: {} cocktail, {} righe spostate, {} doppioni risolti, {} ingredienti eliminati",
+                sources, targetId, report.getCocktailsUpdated(), report.getRowsRepointed(),
+                report.getCollisionsResolved(), report.getDeletedIngredients().size());
+        return report;
+    }
+
+    // ========================================
+    // BLOCCHI
+    // ========================================
+
+    /**
+     * Sposta sulla destinazione le righe dei sorgenti per il prossimo blocco di cocktail.
+     *
+     * @return false se nessun cocktail usa più i sorgenti
+     */
+    private boolean mergeChunk(Long targetId, Set<Long> sources, int chunkSize, IngredientMergeReport report) {
+        List<Long> cocktails = jdbcTemplate.queryForList(NEXT_CHUNK,
+            Map.of("sources", sources, "limit", chunkSize), Long.class);
+        if (cocktails.isEmpty()) {
+            return false;
+        }
+
+        Set<Long> ingredients = new TreeSet<>(sources);
+        ingredients.add(targetId);
+        jdbcTemplate.queryForList(LOCK_INGREDIENTS, Map.of("ids", ingredients), Long.class);
+
+        // Per ogni cocktail: la riga da tenere (destinazione, altrimenti il primo sorgente) e le altre
+        Map<Long, Long> keptByCocktail = new LinkedHashMap<>();
+        Map<Long, Boolean> keptIsTarget = new HashMap<>();
+        List<Long> toDelete = new ArrayList<>();
+        List<Long> toRepoint = new ArrayList<>();
+        Map<Long, Integer> usageDeltas = new HashMap<>();
+
+        jdbcTemplate.query(SELECT_ROWS, Map.of("cocktails", cocktails, "ingredients", ingredients), rs -> {
+            long rowId = rs.getLong("id");
+            long cocktailId = rs.getLong("cocktail_id");
+            long ingredientId = rs.getLong("ingredient_id");
+            boolean target = ingredientId == targetId;
+
+            Long kept = keptByCocktail.get(cocktailId);
+            if (kept == null) {
+                keptByCocktail.put(cocktailId, rowId);
+                keptIsTarget.put(cocktailId, target);
+            } else if (target && !keptIsTarget.get(cocktailId)) {
+                // La destinazione arriva dopo un sorgente: tiene la destinazione, il sorgente diventa un doppione
+                toDelete.add(kept);
+                keptByCocktail.put(cocktailId, rowId);
+                keptIsTarget.put(cocktailId, true);
+            } else if (!target) {
+                toDelete.add(rowId);
+            }
+            if (!target) {
+                usageDeltas.merge(ingredientId, -1, Integer::sum);
+            }
+        });
+        keptByCocktail.forEach((cocktailId, rowId) -> {
+            if (!keptIsTarget.get(cocktailId)) {
+                toRepoint.add(rowId);
+            }
+        });
+        usageDeltas.merge(targetId, toRepoint.size(), Integer::sum);
+
+        // Prima i contatori (lock su ingredient), poi cocktail_ingredient, come le altre scritture
+        ingredientService.adjustUsageCounts(usageDeltas);
+        if (!toDelete.isEmpty()) {
+            jdbcTemplate.update(DELETE_ROWS, Map.of("ids", toDelete));
+        }
+        if (!toRepoint.isEmpty()) {
+            jdbcTemplate.update(REPOINT_ROWS, Map.of("target", targetId, "ids", toRepoint));
+        }
+        jdbcTemplate.update(TOUCH_COCKTAILS,
+            Map.of("now", Timestamp.valueOf(LocalDateTime.now()), "cocktails", cocktails));
+        // La destinazione può avere una gradazione diversa dai sorgenti
+        cocktailStrengthService.recompute(cocktails);
+
+        report.addChunk(cocktails.size(), toRepoint.size(), toDelete.size());
+        return true;
+    }
+
+    /**
+     * Elimina i sorgenti non più usati. Un sorgente usato di nuovo da una ricetta
+     * scritta dopo l'ultimo blocco resta e viene riportato nel report.
+     */
+    private void deleteSources(TransactionTemplate transaction, Set<Long> sources, IngredientMergeReport report) {
+        try {
+            transaction.executeWithoutResult(status -> {
+                for (Long id : new TreeSet<>(sources)) {
+                    if (jdbcTemplate.update(DELETE_SOURCE, Map.of("id", id)) > 0) {
+                        report.getDeletedIngredients().add(id);
+                    } else {
+                        report.getRetainedIngredients().add(id);
+                    }
+                }
+            });
+        } catch (DataAccessException e) {
+            log.warn("Unione ingredienti: eliminazione dei sorgenti {} non riuscita: {}", sources, e.getMessage());
+            report.getDeletedIngredients().clear();
+            report.getRetainedIngredients().clear();
+            report.getRetainedIngredients().addAll(new TreeSet<>(sources));
+        }
+    }
+
+    // ========================================
+    // METODI UTILITY
+    // ========================================
+
+    /**
+     * @return I sorgenti senza ripetizioni
+     * @throws RuntimeException se la richiesta non è valida o un ingrediente non esiste
+     */
+    private Set<Long> validate(Long targetId, List<Long> sourceIds) {
+        if (targetId == null) {
+            throw new RuntimeException("L'ID dell'ingrediente di destinazione è obbligatorio");
+        }
+        if (sourceIds == null || sourceIds.isEmpty()) {
+            throw new RuntimeException("Indica almeno un ingrediente da unire");
+        }
+        Set<Long> sources = new TreeSet<>();
+        for (Long id : sourceIds) {
+            if (id == null) {
+                throw new RuntimeException("ID ingrediente non valido: null");
+            }
+            sources.add(id);
+        }
+        if (sources.size() > MAX_SOURCES) {
+            throw new RuntimeException("Puoi unire al massimo " + MAX_SOURCES + " ingredienti per volta");
+        }
+        if (sources.contains(targetId)) {
+            throw new RuntimeException("L'ingrediente di destinazione non può essere anche un sorgente: " + targetId);
+        }
+
+        Set<Long> all = new TreeSet<>(sources);
+        all.add(targetId);
+        Set<Long> existing = new HashSet<>(jdbcTemplate.queryForList(
+            "SELECT id FROM ingredient WHERE id IN (:ids)", Map.of("ids", all), Long.class));
+        for (Long id : all) {
+            if (!existing.contains(id)) {
+                throw new RuntimeException("Ingrediente non trovato con ID: " + id);
+            }
+        }
+        return sources;
+    }
+}
@@ -0,0 +1,131 @@
+package com.cocktail.cocktaillist.service;
+
+import com.cocktail.cocktaillist.model.Ingredient;
+import com.cocktail.cocktaillist.repository.IngredientRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache nome → ingrediente usata da IngredientService.findOrCreateIngredient.
+ *
+ * Creare o modificare un cocktail cerca ogni ingrediente per nome: con la cache
+ * gli ingredienti già noti vengono risolti senza query (nessun findByNameIgnoreCase).
+ *
+ * - Chiave: nome normalizzato come la collation del database (maiuscole e accenti ignorati)
+ * - Valore: copia detached dell'ingrediente (solo l'ID serve per la FK di cocktail_ingredient)
+ * - Caricata all'avvio dalla tabella ingredient
+ * - Aggiornata DOPO il commit di ogni scrittura (IngredientsChangedEvent): un ingrediente
+ *   creato in una transazione poi annullata non entra mai nella cache
+ *
+ * I lettori non usano lock; le scritture e il ricaricamento completo sono synchronized,
+ * così un ricaricamento non può sovrascrivere una modifica più recente.
+ */
+@Component
+public class IngredientNameCache {
+
+    private static final Logger log = LoggerFactory.getLogger(IngredientNameCache.class);
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Nome normalizzato → ingrediente
+     */
+    private volatile Map<String, Ingredient> ingredientsByName = new ConcurrentHashMap<>();
+
+    /**
+     * ID ingrediente → nome normalizzato: serve a togliere la vecchia chiave
+     * quando un ingrediente viene rinominato o eliminato. Usato solo dentro i metodi synchronized.
+     */
+    private Map<Long, String> namesById = new HashMap<>();
+
+    /**
+     * Carica la cache all'avvio, così la prima ricetta non paga le ricerche per nome.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reload();
+    }
+
+    /**
+     * Cerca un ingrediente per nome (case- e accent-insensitive) senza interrogare il database.
+     *
+     * @param name Nome ingrediente
+     * @return L'ingrediente se è nella cache
+     */
+    public Optional<Ingredient> find(String name) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(ingredientsByName.get(NameKeys.nameKey(name)));
+    }
+
+    /**
+     * Aggiorna la cache dopo il commit di una scrittura sugli ingredienti.
+     * Come CocktailCatalog.onCatalogChanged: legge con la connessione della transazione
+     * appena conclusa, dopo aver svuotato il persistence context.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientsChanged(IngredientsChangedEvent event) {
+        entityManager.clear();
+        if (event.getIngredientIds() == null) {
+            reload();
+        } else {
+            refresh(event.getIngredientIds());
+        }
+    }
+
+    /**
+     * Ricarica l'intera cache dal database e la pubblica in un colpo solo.
+     */
+    public synchronized void reload() {
+        Map<String, Ingredient> byName = new ConcurrentHashMap<>();
+        Map<Long, String> byId = new HashMap<>();
+        for (Ingredient ingredient : ingredientRepository.findAll()) {
+            String key = NameKeys.nameKey(ingredient.getName());
+            byName.put(key, ingredient);
+            byId.put(ingredient.getId(), key);
+        }
+        this.namesById = byId;
+        this.ingredientsByName = byName;
+
+        log.debug("Cache nomi ingredienti caricata: {} ingredienti", byName.size());
+    }
+
+    /**
+     * Rilegge gli ingredienti indicati (una query): li aggiunge, li sostituisce
+     * (anche se rinominati) o li rimuove se non esistono più.
+     */
+    private synchronized void refresh(Collection<Long> ingredientIds) {
+        List<Ingredient> ingredients = ingredientRepository.findAllById(ingredientIds);
+
+        for (Long id : ingredientIds) {
+            String oldKey = namesById.remove(id);
+            if (oldKey != null) {
+                ingredientsByName.remove(oldKey);
+            }
+        }
+        for (Ingredient ingredient : ingredients) {
+            String key = NameKeys.nameKey(ingredient.getName());
+            ingredientsByName.put(key, ingredient);
+            namesById.put(ingredient.getId(), key);
+        }
+    }
+}
@@ -1,17 +1,39 @@
 package com.cocktail.cocktaillist.service;
 
+import com.cocktail.cocktaillist.dto.CursorPage;
+import com.cocktail.cocktaillist.dto.IngredientCategorySummary;
+import com.cocktail.cocktaillist.dto.IngredientRequest;
+import com.cocktail.cocktaillist.dto.IngredientSuggestion;
+import com.cocktail.cocktaillist.dto.IngredientUsage;
+import com.cocktail.cocktaillist.dto.KeysetCursor;
 import com.cocktail.cocktaillist.model.Ingredient;
 import com.cocktail.cocktaillist.repository.IngredientRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
 
 /**
  * Service per la gestione degli ingredienti
@@ -21,9 +43,64 @@ import java.util.Optional;
 @Transactional
 public class IngredientService {
 
+    /**
+     * INSERT JDBC "atomico" di un ingrediente: se il nome esiste già (UNIQUE, anche se inserito
+     * da una transazione concorrente) la riga viene ignorata invece di far fallire la transazione.
+     * In batch diventa un INSERT multi-riga (rewriteBatchedStatements). Usato anche dall'import massivo.
+     */
+    static final String UPSERT_INGREDIENT =
+        "INSERT INTO ingredient (name, category, unit, description, created_at) VALUES (?, ?, ?, ?, ?) "
+        + "ON DUPLICATE KEY UPDATE id = id";
+
+    /**
+     * Variazione del contatore di utilizzo di un ingrediente (vedi adjustUsageCounts)
+     */
+    private static final String ADJUST_USAGE_COUNT =
+        "UPDATE ingredient SET usage_count = usage_count + ? WHERE id = ?";
+
+    /**
+     * Decrementa i contatori degli ingredienti di un cocktail, prima di eliminarlo
+     */
+    private static final String RELEASE_COCKTAIL_USAGE =
+        "UPDATE ingredient SET usage_count = usage_count - "
+        + "(SELECT COUNT(*) FROM cocktail_ingredient ci WHERE ci.ingredient_id = ingredient.id AND ci.cocktail_id = ?) "
+        + "WHERE id IN (SELECT ingredient_id FROM cocktail_ingredient WHERE cocktail_id = ?)";
+
+    private static final String COCKTAIL_INGREDIENT_IDS =
+        "SELECT DISTINCT ingredient_id FROM cocktail_ingredient WHERE cocktail_id = ? ORDER BY ingredient_id";
+
+    /**
+     * Suggerimenti per ogni ingrediente di una ricetta con nome nuovo (vedi suggestAlternatives)
+     */
+    private static final int RECIPE_SUGGESTIONS = 5;
+
     @Autowired
     private IngredientRepository ingredientRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private IngredientNameCache ingredientNameCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private IngredientUsageRanking ingredientUsageRanking;
+
+    @Autowired
+    private IngredientAutocompleteIndex ingredientAutocompleteIndex;
+
+    @Autowired
+    private IngredientCategoryCatalog ingredientCategoryCatalog;
+
+    @Autowired
+    private IngredientFuzzyMatcher ingredientFuzzyMatcher;
+
+    @Autowired
+    private CocktailStrengthService cocktailStrengthService;
+
     /**
      * METODO CHIAVE: Trova un ingrediente per nome, se non esiste lo crea automaticamente
      * 
@@ -31,20 +108,132 @@ public class IngredientService {
      * Quando un utente crea un cocktail con un ingrediente nuovo, 
      * non deve prima creare l'ingrediente manualmente
      * 
+     * Gli ingredienti già noti vengono risolti dalla IngredientNameCache, senza query;
+     * il database viene interrogato solo per i nomi che non sono in cache.
+     * Sicuro con più utenti che creano lo stesso ingrediente nello stesso momento
+     * (vedi findOrCreateIngredients).
+     * 
      * @param name Nome ingrediente
      * @param category Categoria (opzionale, default "Altro")
      * @param unit Unità di misura (opzionale, default "pezzi")
      * @return Ingrediente esistente o appena creato
      */
     public Ingredient findOrCreateIngredient(String name, String category, String unit) {
-        // Cerca ingrediente esistente (case-insensitive)
-        Optional<Ingredient> existing = ingredientRepository.findByNameIgnoreCase(name);
-        
-        if (existing.isPresent()) {
-            return existing.get();
+        IngredientRequest request = new IngredientRequest();
+        request.setName(name);
+        request.setCategory(category);
+        request.setUnit(unit);
+        return findOrCreateIngredients(List.of(request)).get(0);
+    }
+
+    /**
+     * Versione in blocco di findOrCreateIngredient, per tutti gli ingredienti di una ricetta.
+     * 
+     * Il numero di query non dipende dal numero di ingredienti:
+     * - gli ingredienti già noti vengono risolti dalla IngredientNameCache
+     * - gli altri vengono cercati con una sola query (name IN (...))
+     * - quelli che mancano ancora vengono creati con un solo INSERT multi-riga
+     *   e riletti con una seconda query IN
+     * 
+     * Creazioni concorrenti dello stesso nome: l'INSERT usa ON DUPLICATE KEY, quindi
+     * se un'altra transazione ha già inserito il nome la riga viene ignorata (dopo aver
+     * atteso il suo commit) invece di violare il vincolo UNIQUE. La rilettura è una lettura
+     * con lock (FOR SHARE), che vede anche le righe committate dopo l'inizio della transazione.
+     * I nomi vengono inseriti in ordine, così due transazioni prendono i lock nello stesso ordine.
+     * 
+     * I nomi ripetuti (anche con maiuscole/accenti diversi) vengono risolti una volta sola.
+     * 
+     * @param requests Ingredienti della ricetta (nome, categoria e unità opzionali)
+     * @return Gli ingredienti nello stesso ordine delle richieste
+     * @throws RuntimeException se un nome è vuoto
+     */
+    public List<Ingredient> findOrCreateIngredients(List<IngredientRequest> requests) {
+        Map<String, Ingredient> resolved = new HashMap<>();
+        Map<String, IngredientRequest> missing = new LinkedHashMap<>();
+
+        // 1. Cache in memoria
+        for (IngredientRequest request : requests) {
+            if (request.getName() == null || request.getName().trim().isEmpty()) {
+                throw new RuntimeException("Il nome dell'ingrediente è obbligatorio");
+            }
+            String key = NameKeys.nameKey(request.getName());
+            if (!resolved.containsKey(key) && !missing.containsKey(key)) {
+                ingredientNameCache.find(request.getName()).ifPresentOrElse(
+                    ingredient -> resolved.put(key, ingredient),
+                    () -> missing.put(key, request)
+                );
+            }
         }
-        
-        // Non esiste → crealo
+
+        // 2. Una query per tutti i nomi non in cache
+        if (!missing.isEmpty()) {
+            resolveByName(missing.values(), missing, resolved, false);
+        }
+
+        // 3. Un INSERT multi-riga per quelli che non esistono, poi rilettura degli ID
+        if (!missing.isEmpty()) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> rows = new ArrayList<>(missing.size());
+            for (IngredientRequest request : new TreeMap<>(missing).values()) {
+                Ingredient ingredient = newIngredient(request.getName(), request.getCategory(), request.getUnit());
+                rows.add(new Object[] {
+                    ingredient.getName(), ingredient.getCategory(), ingredient.getUnit(), ingredient.getDescription(), now
+                });
+            }
+            jdbcTemplate.batchUpdate(UPSERT_INGREDIENT, rows);
+
+            List<Long> createdIds = resolveByName(List.copyOf(missing.values()), missing, resolved, true);
+            if (!missing.isEmpty()) {
+                throw new RuntimeException("Impossibile creare l'ingrediente: " + missing.values().iterator().next().getName());
+            }
+            eventPublisher.publishEvent(new IngredientsChangedEvent("findOrCreateIngredients", createdIds));
+        }
+
+        return requests.stream()
+            .map(request -> resolved.get(NameKeys.nameKey(request.getName())))
+            .toList();
+    }
+
+    /**
+     * Cerca per nome in una sola query gli ingredienti di "requests" e sposta quelli trovati
+     * da "missing" a "resolved" (chiavi: nome normalizzato).
+     * Le righe vengono abbinate alle richieste con NameKeys.matchByName, così
+     * un nome che il database considera uguale (es: "Weißbier" e "Weissbier") viene sempre riconosciuto.
+     *
+     * @param locking true per una lettura con lock (vede anche i commit concorrenti più recenti)
+     * @return ID degli ingredienti trovati
+     */
+    private List<Long> resolveByName(Collection<IngredientRequest> requests, Map<String, IngredientRequest> missing,
+                                     Map<String, Ingredient> resolved, boolean locking) {
+        List<String> names = requests.stream().map(IngredientRequest::getName).toList();
+        Function<Collection<String>, List<Ingredient>> query = locking
+            ? ingredientRepository::findByNameInForShare
+            : ingredientRepository::findByNameIn;
+        Map<String, Ingredient> matched = NameKeys.matchByName(names, query.apply(names),
+            Ingredient::getName, name -> query.apply(List.of(name)).stream().findFirst());
+
+        List<Long> found = new ArrayList<>();
+        matched.forEach((key, ingredient) -> {
+            if (missing.remove(key) != null) {
+                resolved.put(key, ingredient);
+                if (!found.contains(ingredient.getId())) {
+                    found.add(ingredient.getId());
+                }
+            }
+        });
+        return found;
+    }
+
+    /**
+     * Crea l'entity di un ingrediente auto-creato, con i valori di default.
+     * Usato da findOrCreateIngredient() e dall'import massivo (CocktailImportService).
+     *
+     * @param name Nome ingrediente
+     * @param category Categoria (opzionale, default "Spezia particolare")
+     * @param unit Unità di misura (opzionale, default "pezzi")
+     * @return Nuovo ingrediente non ancora salvato
+     */
+    static Ingredient newIngredient(String name, String category, String unit) {
         Ingredient newIngredient = new Ingredient();
         newIngredient.setName(name);
         
@@ -59,8 +248,7 @@ public class IngredientService {
         
         // Imposta descrizione con default
         newIngredient.setDescription("Ingrediente speciale");
-        
-        return ingredientRepository.save(newIngredient);
+        return newIngredient;
     }
 
     /**
@@ -95,6 +283,51 @@ public class IngredientService {
         return ingredientRepository.findByNameContainingIgnoreCase(name);
     }
 
+    /**
+     * Autocomplete: ingredienti il cui nome (o una sua parola) inizia con il prefisso,
+     * dal più usato al meno usato. Servito dalla memoria (IngredientAutocompleteIndex), senza query.
+     *
+     * @param prefix Testo digitato (maiuscole e accenti ignorati)
+     * @param limit Numero massimo di suggerimenti
+     * @return Suggerimenti ordinati per contatore di utilizzo (ingredient.usage_count)
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<IngredientSuggestion> autocomplete(String prefix, int limit) {
+        return ingredientAutocompleteIndex.suggest(prefix, limit);
+    }
+
+    /**
+     * Ingredienti con nome uguale o quasi uguale (un carattere di differenza), per avvisare
+     * prima di creare un doppione. Servito dalla memoria (IngredientFuzzyMatcher), senza query.
+     *
+     * @param name Nome da confrontare (maiuscole, accenti e spazi ripetuti ignorati)
+     * @param limit Numero massimo di suggerimenti
+     * @return Suggerimenti dal più simile; a parità, dal più usato nei cocktail
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<IngredientSuggestion> findSimilarIngredients(String name, int limit) {
+        return ingredientFuzzyMatcher.findSimilar(name, limit);
+    }
+
+    /**
+     * Ingredienti esistenti con nome quasi uguale a un nome di ricetta appena creato come
+     * nuovo ingrediente (es: "Sucoo di Lime" → "Succo di lime"). Usato da createCocktail,
+     * addIngredientsToCocktail e dall'import per segnalare il probabile doppione nella risposta:
+     * l'ingrediente della ricetta non viene sostituito. Servito dalla memoria (IngredientFuzzyMatcher), senza query.
+     *
+     * @param name Nome dell'ingrediente nella ricetta
+     * @param ingredientId Ingrediente risolto per la riga (null se non ancora inserito)
+     * @return Suggerimenti dal più simile; vuoto se l'ingrediente esisteva già o se nessun nome è simile
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<IngredientSuggestion> suggestAlternatives(String name, Long ingredientId) {
+        // L'indice contiene solo gli ingredienti già committati: quelli appena creati non ci sono ancora
+        if (ingredientId != null && ingredientFuzzyMatcher.contains(ingredientId)) {
+            return List.of();
+        }
+        return ingredientFuzzyMatcher.findSimilar(name, RECIPE_SUGGESTIONS);
+    }
+
     /**
      * Ottiene ingredienti di una categoria
      * 
@@ -118,6 +351,7 @@ public class IngredientService {
         if (ingredient.getName() == null || ingredient.getName().trim().isEmpty()) {
             throw new RuntimeException("Il nome dell'ingrediente è obbligatorio");
         }
+        validateAbv(ingredient.getAbv());
         
         // Se viene passato un ID nel JSON, verifica che non esista già
         if (ingredient.getId() != null && ingredientRepository.existsById(ingredient.getId())) {
@@ -150,7 +384,9 @@ public class IngredientService {
             ingredient.setUnit("pezzi");
         }
         
-        return ingredientRepository.save(ingredient);
+        Ingredient saved = ingredientRepository.save(ingredient);
+        eventPublisher.publishEvent(new IngredientsChangedEvent("createIngredient", saved.getId()));
+        return saved;
     }
 
     /**
@@ -161,14 +397,50 @@ public class IngredientService {
      * @throws RuntimeException se non trovato
      */
     public Ingredient updateIngredient(Long id, Ingredient ingredientDetails) {
+        validateAbv(ingredientDetails.getAbv());
         Ingredient ingredient = getIngredientById(id);
+        // I cocktail mostrano nome, categoria, unità e descrizione dei loro ingredienti
+        boolean detailsChanged = !Objects.equals(ingredient.getName(), ingredientDetails.getName())
+            || !Objects.equals(ingredient.getCategory(), ingredientDetails.getCategory())
+            || !Objects.equals(ingredient.getUnit(), ingredientDetails.getUnit())
+            || !Objects.equals(ingredient.getDescription(), ingredientDetails.getDescription());
         
         ingredient.setName(ingredientDetails.getName());
         ingredient.setCategory(ingredientDetails.getCategory());
         ingredient.setUnit(ingredientDetails.getUnit());
         ingredient.setDescription(ingredientDetails.getDescription());
+        boolean abvChanged = !sameAbv(ingredient.getAbv(), ingredientDetails.getAbv());
+        ingredient.setAbv(ingredientDetails.getAbv());
         
-        return ingredientRepository.save(ingredient);
+        Ingredient saved = ingredientRepository.save(ingredient);
+        if (abvChanged) {
+            // Gradazione stimata dei cocktail che lo usano (flush: l'UPDATE SQL legge la nuova gradazione)
+            ingredientRepository.flush();
+            cocktailStrengthService.recomputeForIngredient(id);
+        } else if (detailsChanged) {
+            // Nuova versione (ETag) dei cocktail che lo usano: un If-Match sulla versione precedente fallisce
+            cocktailStrengthService.touchForIngredient(id);
+        }
+        // Gli ingredienti sono annidati nei cocktail dello snapshot del catalogo
+        eventPublisher.publishEvent(new CatalogChangedEvent("updateIngredient"));
+        eventPublisher.publishEvent(new IngredientsChangedEvent("updateIngredient", id));
+        return saved;
+    }
+
+    /**
+     * @throws RuntimeException se la gradazione non è tra 0 e 100
+     */
+    private static void validateAbv(BigDecimal abv) {
+        if (abv != null && (abv.signum() < 0 || abv.compareTo(BigDecimal.valueOf(100)) > 0)) {
+            throw new RuntimeException("La gradazione deve essere tra 0 e 100: " + abv);
+        }
+    }
+
+    /**
+     * Confronto per valore (40 e 40.00 sono la stessa gradazione)
+     */
+    private static boolean sameAbv(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
     }
 
     //get all ingridient ids
@@ -181,16 +453,81 @@ public class IngredientService {
 
 
     /**
-     * Elimina un ingrediente
+     * Elimina un ingrediente, solo se nessuna ricetta lo usa (contatore usage_count,
+     * una lettura per chiave primaria; il vincolo FK resta la garanzia finale).
      * 
      * @param id ID ingrediente da eliminare
-     * @throws RuntimeException se non trovato
+     * @throws RuntimeException se non trovato o se è usato in qualche ricetta
      */
     public void deleteIngredient(Long id) {
-        if (!ingredientRepository.existsById(id)) {
-            throw new RuntimeException("Ingrediente non trovato con ID: " + id);
+        long usageCount = getUsageCount(id);
+        if (usageCount > 0) {
+            throw new RuntimeException("Impossibile eliminare: l'ingrediente è usato in " + usageCount
+                + (usageCount == 1 ? " ricetta" : " ricette") + " (unisci o rimuovi prima gli utilizzi)");
         }
         ingredientRepository.deleteById(id);
+        eventPublisher.publishEvent(new IngredientsChangedEvent("deleteIngredient", id));
+    }
+
+    /**
+     * Numero di ricette che usano un ingrediente, letto dal contatore persistito
+     * (una lettura per chiave primaria invece di una COUNT su cocktail_ingredient).
+     *
+     * @param id ID ingrediente
+     * @return Numero di righe di ricetta che usano l'ingrediente
+     * @throws RuntimeException se non trovato
+     */
+    @Transactional(readOnly = true)
+    public long getUsageCount(Long id) {
+        return ingredientRepository.findUsageCountById(id)
+                .orElseThrow(() -> new RuntimeException("Ingrediente non trovato con ID: " + id));
+    }
+
+    /**
+     * Aggiorna i contatori di utilizzo nella transazione corrente, con un solo batch JDBC.
+     * Chiamato da CocktailService e dall'import PRIMA di scrivere le righe di cocktail_ingredient:
+     * così ogni transazione blocca prima le righe di ingredient (in ordine di ID) e poi
+     * quelle di cocktail_ingredient, come IngredientUsageReconciler, senza deadlock.
+     * Dopo il commit, gli ingredienti cambiati vengono riordinati nell'autocomplete (IngredientUsageChangedEvent).
+     *
+     * @param deltas ID ingrediente → variazione (positiva o negativa)
+     */
+    public void adjustUsageCounts(Map<Long, Integer> deltas) {
+        List<Object[]> updates = new ArrayList<>(deltas.size());
+        List<Long> changed = new ArrayList<>(deltas.size());
+        new TreeMap<>(deltas).forEach((ingredientId, delta) -> {
+            if (delta != 0) {
+                updates.add(new Object[] {delta, ingredientId});
+                changed.add(ingredientId);
+            }
+        });
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(ADJUST_USAGE_COUNT, updates);
+            eventPublisher.publishEvent(new IngredientUsageChangedEvent("adjustUsageCounts", changed));
+        }
+    }
+
+    /**
+     * Toglie dai contatori gli utilizzi di un cocktail che sta per essere eliminato (una sola UPDATE,
+     * più la lettura degli ID degli ingredienti per l'evento IngredientUsageChangedEvent).
+     *
+     * @param cocktailId ID del cocktail
+     */
+    public void releaseUsageCounts(Long cocktailId) {
+        List<Long> ingredientIds = jdbcTemplate.queryForList(COCKTAIL_INGREDIENT_IDS, Long.class, cocktailId);
+        if (!ingredientIds.isEmpty()) {
+            jdbcTemplate.update(RELEASE_COCKTAIL_USAGE, cocktailId, cocktailId);
+            eventPublisher.publishEvent(new IngredientUsageChangedEvent("releaseUsageCounts", ingredientIds));
+        }
+    }
+
+    /**
+     * Azzera tutti i contatori (dopo l'eliminazione di tutti i cocktail).
+     */
+    public void resetUsageCounts() {
+        if (jdbcTemplate.update("UPDATE ingredient SET usage_count = 0 WHERE usage_count <> 0") > 0) {
+            eventPublisher.publishEvent(new IngredientUsageChangedEvent("resetUsageCounts"));
+        }
     }
 
     /**
@@ -224,6 +561,61 @@ public class IngredientService {
         return ingredientRepository.findAll(pageable);
     }
 
+    /**
+     * Ottiene gli ingredienti con paginazione a cursore (keyset).
+     * Ordinamento supportato: "name" o "id" (colonne NOT NULL e indicizzate).
+     *
+     * @param cursor Cursore restituito dalla pagina precedente (null per la prima pagina)
+     * @param size Elementi per pagina
+     * @param sortBy Campo per ordinamento (ignorato se c'è un cursore: vale quello del cursore)
+     * @param sortDir Direzione ordinamento ("asc" o "desc")
+     * @param includeTotal true per eseguire anche il COUNT totale
+     * @return Pagina con cursore per la pagina successiva
+     * @throws RuntimeException se il campo di ordinamento o il cursore non sono validi
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Ingredient> getAllIngredientsKeyset(String cursor, int size, String sortBy, String sortDir,
+                                                          boolean includeTotal) {
+        if (size < 1) {
+            throw new RuntimeException("La dimensione della pagina deve essere almeno 1");
+        }
+
+        boolean ascending = sortDir.equalsIgnoreCase("asc");
+        KeysetCursor last = null;
+        if (cursor != null && !cursor.isBlank()) {
+            last = KeysetCursor.decode(cursor);
+            sortBy = last.getSortBy();
+            ascending = last.isAscending();
+        }
+        if (!"name".equals(sortBy) && !"id".equals(sortBy)) {
+            throw new RuntimeException("Ordinamento non supportato con il cursore: " + sortBy + " (usa name o id)");
+        }
+
+        ScrollPosition position = ScrollPosition.keyset();
+        if (last != null) {
+            position = "id".equals(sortBy) || last.getLastValue() == null
+                ? ScrollPosition.forward(Map.of("id", last.getLastId()))
+                : ScrollPosition.forward(Map.of(sortBy, last.getLastValue(), "id", last.getLastId()));
+        }
+
+        Sort.Direction direction = ascending ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Sort sort = "id".equals(sortBy)
+            ? Sort.by(direction, "id")
+            : Sort.by(direction, sortBy).and(Sort.by(direction, "id"));
+
+        Window<Ingredient> window = ingredientRepository.findAllBy(position, sort, Limit.of(size));
+
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            Ingredient lastOfPage = window.getContent().get(window.size() - 1);
+            String lastValue = "id".equals(sortBy) ? lastOfPage.getId().toString() : lastOfPage.getName();
+            nextCursor = new KeysetCursor(sortBy, ascending, lastOfPage.getId(), lastValue).encode();
+        }
+
+        Long total = includeTotal ? ingredientRepository.count() : null;
+        return new CursorPage<>(window.getContent(), size, nextCursor, total);
+    }
+
     /**
      * Cerca ingredienti per nome con paginazione.
      *
@@ -243,34 +635,37 @@ public class IngredientService {
 
     /**
      * Ottiene gli ingredienti più utilizzati (top 10).
+     * Una sola query sul contatore usage_count, poi servita dalla memoria finché le ricette non cambiano
+     * (vedi IngredientUsageRanking). SUPPORTS: la lettura dalla memoria non apre transazioni.
      *
-     * @return Lista di mappe con nome ingrediente e conteggio utilizzi
+     * @return Lista con ID, nome ingrediente e conteggio utilizzi
      */
-    public List<java.util.Map<String, Object>> getMostUsedIngredients() {
-        return getAllIngredients().stream()
-            .map(ingredient -> {
-                long count = ingredientRepository.countUsageByIngredientId(ingredient.getId());
-                java.util.Map<String, Object> result = new java.util.HashMap<>();
-                result.put("name", ingredient.getName());
-                result.put("count", count);
-                return result;
-            })
-            .sorted((a, b) -> Long.compare((Long)b.get("count"), (Long)a.get("count")))
-            .limit(10)
-            .collect(java.util.stream.Collectors.toList());
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<IngredientUsage> getMostUsedIngredients() {
+        return ingredientUsageRanking.topIngredients();
     }
 
     /**
-     * Raggruppa tutti gli ingredienti per categoria
+     * Raggruppa tutti gli ingredienti per categoria.
+     * Il raggruppamento è precalcolato (IngredientCategoryCatalog) e ricostruito
+     * solo quando gli ingredienti cambiano.
      * 
-     * @return Mappa con categoria come chiave e lista di ingredienti come valore
+     * @param category Categoria da restituire (case-insensitive), null per tutte
+     * @return Mappa con categoria come chiave e lista di ingredienti (ordinati per nome) come valore
      */
-    public java.util.Map<String, List<Ingredient>> getIngredientsGroupedByCategory() {
-        List<Ingredient> allIngredients = getAllIngredients();
-        
-        return allIngredients.stream()
-            .collect(java.util.stream.Collectors.groupingBy(
-                ingredient -> ingredient.getCategory() != null ? ingredient.getCategory() : "Altro"
-            ));
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Map<String, List<Ingredient>> getIngredientsGroupedByCategory(String category) {
+        return ingredientCategoryCatalog.snapshot().getGroups(category);
+    }
+
+    /**
+     * Numero di ingredienti per categoria (vista compatta del raggruppamento).
+     * 
+     * @param category Categoria da restituire (case-insensitive), null per tutte
+     * @return Riepiloghi in ordine di categoria
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<IngredientCategorySummary> getIngredientCategorySummaries(String category) {
+        return ingredientCategoryCatalog.snapshot().getSummaries(category);
     }
 }
@@ -0,0 +1,48 @@
+package com.cocktail.cocktaillist.service;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Evento pubblicato quando cambiano i contatori di utilizzo degli ingredienti (ingredient.usage_count):
+ * aggiunta/rimozione di ingredienti da un cocktail, eliminazione di cocktail, import, riconciliazione.
+ *
+ * Separato da IngredientsChangedEvent: nomi e categorie non cambiano, quindi cache dei nomi,
+ * indice dei nomi simili e raggruppamento per categoria non vanno aggiornati.
+ * Serve a chi ordina gli ingredienti per utilizzo (es: IngredientAutocompleteIndex).
+ */
+public class IngredientUsageChangedEvent {
+
+    /**
+     * Descrizione dell'operazione che ha modificato i contatori (es: "adjustUsageCounts")
+     */
+    private final String operation;
+
+    /**
+     * ID degli ingredienti con il contatore cambiato, null se possono essere cambiati tutti
+     */
+    private final Set<Long> ingredientIds;
+
+    public IngredientUsageChangedEvent(String operation) {
+        this.operation = operation;
+        this.ingredientIds = null;
+    }
+
+    public IngredientUsageChangedEvent(String operation, Collection<Long> ingredientIds) {
+        this.operation = operation;
+        this.ingredientIds = Set.copyOf(ingredientIds);
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public Set<Long> getIngredientIds() {
+        return ingredientIds;
+    }
+
+    @Override
+    public String toString() {
+        return "IngredientUsageChangedEvent{operation='" + operation + "', ingredientIds=" + ingredientIds + "}";
+    }
+}
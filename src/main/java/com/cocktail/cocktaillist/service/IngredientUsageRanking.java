@@ -0,0 +1,77 @@
+package com.cocktail.cocktaillist.service;
+
+import com.cocktail.cocktaillist.dto.IngredientUsage;
+import com.cocktail.cocktaillist.repository.IngredientRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Classifica degli ingredienti più usati (top K) per la dashboard admin.
+ *
+ * - Calcolata con una sola query sul contatore ingredient.usage_count (indicizzato, niente GROUP BY)
+ * - Tenuta in memoria: le letture successive non interrogano il database
+ * - Invalidata dopo il commit di ogni scrittura che può cambiare cocktail_ingredient
+ *   (CatalogChangedEvent, IngredientsChangedEvent) e ricalcolata alla prima lettura successiva
+ */
+@Component
+public class IngredientUsageRanking {
+
+    /**
+     * Numero di ingredienti in classifica
+     */
+    public static final int TOP_K = 10;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    /**
+     * Incrementata a ogni invalidazione: una classifica calcolata prima
+     * dell'ultima invalidazione non viene più restituita.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile Ranking current;
+
+    /**
+     * @return I TOP_K ingredienti più usati, in ordine di utilizzo decrescente
+     */
+    public List<IngredientUsage> topIngredients() {
+        long expected = generation.get();
+        Ranking ranking = current;
+        if (ranking != null && ranking.generation == expected) {
+            return ranking.ingredients;
+        }
+        List<IngredientUsage> ingredients = List.copyOf(ingredientRepository.findMostUsed(PageRequest.of(0, TOP_K)));
+        // Se nel frattempo c'è stata un'invalidazione la generazione non coincide più e verrà ricalcolata
+        current = new Ranking(expected, ingredients);
+        return ingredients;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        generation.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientsChanged(IngredientsChangedEvent event) {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Classifica calcolata, con la generazione a cui si riferisce
+     */
+    private static final class Ranking {
+        private final long generation;
+        private final List<IngredientUsage> ingredients;
+
+        private Ranking(long generation, List<IngredientUsage> ingredients) {
+            this.generation = generation;
+            this.ingredients = ingredients;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.cocktail.cocktaillist.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Job di riconciliazione dei contatori di utilizzo (ingredient.usage_count).
+ *
+ * I contatori sono aggiornati in modo incrementale dalle scritture; questo job li
+ * ricalcola da cocktail_ingredient e corregge quelli che si sono discostati
+ * (es: righe modificate direttamente nel database, colonna appena aggiunta).
+ *
+ * - Gira poco dopo l'avvio e poi periodicamente (cocktail.usage.reconcile-interval)
+ * - Lavora a blocchi di ID, una transazione breve per blocco: non blocca tutta la tabella
+ * - Aggiorna solo le righe sbagliate e registra quante ne ha corrette
+ */
+@Component
+public class IngredientUsageReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(IngredientUsageReconciler.class);
+
+    /**
+     * Ingredienti per transazione
+     */
+    private static final int BATCH_SIZE = 1_000;
+
+    /**
+     * Ricalcola i contatori di un intervallo di ID, solo dove sono diversi dal valore reale.
+     * L'UPDATE blocca le righe di ingredient e poi legge cocktail_ingredient,
+     * nello stesso ordine delle scritture normali.
+     */
+    private static final String RECONCILE_RANGE =
+        "UPDATE ingredient SET usage_count = "
+        + "(SELECT COUNT(*) FROM cocktail_ingredient ci WHERE ci.ingredient_id = ingredient.id) "
+        + "WHERE id BETWEEN ? AND ? AND usage_count <> "
+        + "(SELECT COUNT(*) FROM cocktail_ingredient ci WHERE ci.ingredient_id = ingredient.id)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Esecuzione pianificata: 1 minuto dopo l'avvio, poi ogni 6 ore (configurabile).
+     */
+    @Scheduled(initialDelayString = "${cocktail.usage.reconcile-initial-delay:PT1M}",
+               fixedDelayString = "${cocktail.usage.reconcile-interval:PT6H}")
+    public void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.error("Riconciliazione contatori ingredienti fallita: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Riallinea tutti i contatori.
+     *
+     * @return Numero di contatori corretti
+     */
+    public int reconcile() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM ingredient", Long.class);
+        if (maxId == null) {
+            return 0;
+        }
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int fixed = 0;
+        for (long start = 1; start <= maxId; start += BATCH_SIZE) {
+            long from = start;
+            long to = start + BATCH_SIZE - 1;
+            Integer updated = transaction.execute(status -> jdbcTemplate.update(RECONCILE_RANGE, from, to));
+            fixed += updated != null ? updated : 0;
+        }
+
+        if (fixed > 0) {
+            log.warn("Riconciliazione contatori ingredienti: {} contatori corretti", fixed);
+            eventPublisher.publishEvent(new IngredientUsageChangedEvent("reconcileUsageCounts"));
+        } else {
+            log.debug("Riconciliazione contatori ingredienti: nessuna differenza");
+        }
+        return fixed;
+    }
+}
@@ -0,0 +1,52 @@
+package com.cocktail.cocktaillist.service;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Evento pubblicato da IngredientService quando l'elenco degli ingredienti cambia
+ * (creazione, modifica, eliminazione, auto-creazione da un cocktail).
+ *
+ * A differenza di CatalogChangedEvent non ricarica il catalogo cocktail:
+ * serve a chi tiene in memoria dati derivati dai soli ingredienti
+ * (es: la cache delle risposte di /api/ingredients/grouped-by-category).
+ */
+public class IngredientsChangedEvent {
+
+    /**
+     * Descrizione dell'operazione che ha modificato gli ingredienti (es: "createIngredient")
+     */
+    private final String operation;
+
+    /**
+     * ID degli ingredienti modificati, null se la modifica non è circoscritta (es: import massivo)
+     */
+    private final Set<Long> ingredientIds;
+
+    public IngredientsChangedEvent(String operation) {
+        this.operation = operation;
+        this.ingredientIds = null;
+    }
+
+    public IngredientsChangedEvent(String operation, Long ingredientId) {
+        this(operation, Set.of(ingredientId));
+    }
+
+    public IngredientsChangedEvent(String operation, Collection<Long> ingredientIds) {
+        this.operation = operation;
+        this.ingredientIds = Set.copyOf(ingredientIds);
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public Set<Long> getIngredientIds() {
+        return ingredientIds;
+    }
+
+    @Override
+    public String toString() {
+        return "IngredientsChangedEvent{operation='" + operation + "', ingredientIds=" + ingredientIds + "}";
+    }
+}
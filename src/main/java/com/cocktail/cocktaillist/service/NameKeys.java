@@ -0,0 +1,85 @@
+package com.cocktail.cocktaillist.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Confronto dei nomi (ingredienti, cocktail, categorie) come li confronta il database.
+ *
+ * Usato da tutto ciò che abbina nomi in memoria: import massivo, risoluzione degli ingredienti
+ * (IngredientService, IngredientNameCache), indici di ricerca (IngredientFuzzyMatcher,
+ * IngredientAutocompleteIndex) e categorie dello snapshot del catalogo.
+ */
+final class NameKeys {
+
+    private NameKeys() {
+    }
+
+    /**
+     * Abbina ai nomi richiesti le righe trovate con "name IN (...)".
+     *
+     * Il database confronta i nomi con la collation utf8mb4_unicode_ci, che nameKey approssima.
+     * Se una riga trovata non corrisponde al nameKey di nessun nome richiesto (es: salvato
+     * "ﬁzz", richiesto "fizz"), i nomi rimasti senza riga vengono cercati uno alla volta
+     * con "lookup": il confronto lo fa il database. Senza differenze, nessuna query in più.
+     *
+     * @param names Nomi richiesti
+     * @param rows Righe restituite dalla query IN
+     * @param nameOf Nome salvato di una riga
+     * @param lookup Stessa query per un solo nome
+     * @return Mappa nameKey(nome richiesto) → riga
+     */
+    static <T> Map<String, T> matchByName(Collection<String> names, Collection<T> rows,
+                                         Function<T, String> nameOf, Function<String, Optional<T>> lookup) {
+        Map<String, T> rowsByKey = new HashMap<>();
+        rows.forEach(row -> rowsByKey.put(nameKey(nameOf.apply(row)), row));
+        Set<String> unmatched = new HashSet<>(rowsByKey.keySet());
+
+        Map<String, T> matched = new HashMap<>();
+        List<String> pending = new ArrayList<>();
+        for (String name : names) {
+            String key = nameKey(name);
+            T row = rowsByKey.get(key);
+            if (row != null) {
+                matched.put(key, row);
+                unmatched.remove(key);
+            } else {
+                pending.add(name);
+            }
+        }
+        for (String name : pending) {
+            if (unmatched.isEmpty()) {
+                break;
+            }
+            String key = nameKey(name);
+            if (!matched.containsKey(key)) {
+                lookup.apply(name).ifPresent(row -> {
+                    matched.put(key, row);
+                    unmatched.remove(nameKey(nameOf.apply(row)));
+                });
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Chiave di confronto dei nomi, vicina alla collation utf8mb4_unicode_ci del database:
+     * senza maiuscole, accenti e spazi iniziali/finali, con ß e œ scritti ss e oe
+     * ("Café " e "cafe", "Weißbier" e "Weissbier" sono lo stesso nome).
+     * Non copre ogni equivalenza della collation (es: legature come "ﬁ"): dove il risultato
+     * deve coincidere con il database si usa matchByName.
+     */
+    static String nameKey(String name) {
+        String folded = Normalizer.normalize(name.trim(), Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return folded.toLowerCase(Locale.ROOT).replace("ß", "ss").replace("œ", "oe");
+    }
+}
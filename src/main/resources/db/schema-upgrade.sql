@@ -0,0 +1,203 @@
+-- Aggiornamento dello schema di un database "cocktails" già esistente
+--
+-- init-db.sql viene eseguito solo al primo avvio del container MySQL (volume vuoto):
+-- sui database creati con una versione precedente le nuove colonne e tabelle mancano.
+-- Questo script le aggiunge ed è idempotente (ogni modifica controlla prima
+-- information_schema), quindi può essere rieseguito senza effetti.
+--
+-- Viene eseguito dall'applicazione a ogni avvio (spring.sql.init, prima di JPA);
+-- a mano: mysql -ucocktail_user -pcocktail_pass cocktails < schema-upgrade.sql
+--
+-- MySQL 8 non supporta ADD COLUMN IF NOT EXISTS: ogni modifica è uno statement
+-- preparato che diventa "DO 0" (nessuna operazione) se la colonna esiste già.
+
+-- ==================================================
+-- COCKTAIL: lock ottimistico (@Version)
+-- ==================================================
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'ALTER TABLE cocktail ADD COLUMN version BIGINT NOT NULL DEFAULT 0',
+    'DO 0')
+    FROM information_schema.columns
+    WHERE table_schema = DATABASE() AND table_name = 'cocktail' AND column_name = 'version');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- ==================================================
+-- INGREDIENT: contatore di utilizzo
+-- ==================================================
+-- Il contatore viene ricalcolato da cocktail_ingredient solo quando la colonna viene aggiunta;
+-- in seguito lo mantiene l'applicazione (e IngredientUsageReconciler)
+SET @add_usage_count = (SELECT COUNT(*) = 0
+    FROM information_schema.columns
+    WHERE table_schema = DATABASE() AND table_name = 'ingredient' AND column_name = 'usage_count');
+SET @ddl = IF(@add_usage_count,
+    'ALTER TABLE ingredient ADD COLUMN usage_count BIGINT NOT NULL DEFAULT 0',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF(@add_usage_count,
+    'UPDATE ingredient i SET usage_count = (SELECT COUNT(*) FROM cocktail_ingredient ci WHERE ci.ingredient_id = i.id)',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'CREATE INDEX idx_usage_count ON ingredient (usage_count)',
+    'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'ingredient' AND index_name = 'idx_usage_count');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- ==================================================
+-- QUANTITÀ STRUTTURATE, VOLUME E GRADAZIONE
+-- ==================================================
+-- Le nuove colonne restano NULL: all'avvio CocktailStrengthService interpreta le quantità
+-- e calcola volume e gradazione dei cocktail con total_volume_ml NULL
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'ALTER TABLE ingredient ADD COLUMN abv DECIMAL(5,2) NULL',
+    'DO 0')
+    FROM information_schema.columns
+    WHERE table_schema = DATABASE() AND table_name = 'ingredient' AND column_name = 'abv');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'ALTER TABLE cocktail ADD COLUMN total_volume_ml DECIMAL(10,2) NULL',
+    'DO 0')
+    FROM information_schema.columns
+    WHERE table_schema = DATABASE() AND table_name = 'cocktail' AND column_name = 'total_volume_ml');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'ALTER TABLE cocktail ADD COLUMN abv DECIMAL(5,2) NULL',
+    'DO 0')
+    FROM information_schema.columns
+    WHERE table_schema = DATABASE() AND table_name = 'cocktail' AND column_name = 'abv');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'ALTER TABLE cocktail_ingredient ADD COLUMN amount DECIMAL(10,3) NULL',
+    'DO 0')
+    FROM information_schema.columns
+    WHERE table_schema = DATABASE() AND table_name = 'cocktail_ingredient' AND column_name = 'amount');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'ALTER TABLE cocktail_ingredient ADD COLUMN unit VARCHAR(20) NULL',
+    'DO 0')
+    FROM information_schema.columns
+    WHERE table_schema = DATABASE() AND table_name = 'cocktail_ingredient' AND column_name = 'unit');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'ALTER TABLE cocktail_ingredient ADD COLUMN volume_ml DECIMAL(10,2) NULL',
+    'DO 0')
+    FROM information_schema.columns
+    WHERE table_schema = DATABASE() AND table_name = 'cocktail_ingredient' AND column_name = 'volume_ml');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'CREATE INDEX idx_abv ON cocktail (abv)',
+    'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'cocktail' AND index_name = 'idx_abv');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'CREATE INDEX idx_total_volume ON cocktail (total_volume_ml)',
+    'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'cocktail' AND index_name = 'idx_total_volume');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- ==================================================
+-- FAVORITE: colore personalizzato
+-- ==================================================
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'ALTER TABLE favorite ADD COLUMN color_id BIGINT NULL',
+    'DO 0')
+    FROM information_schema.columns
+    WHERE table_schema = DATABASE() AND table_name = 'favorite' AND column_name = 'color_id');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- Colori già assegnati a un colore inesistente tornano al default, altrimenti la FK non si crea
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'UPDATE favorite SET color_id = NULL WHERE color_id IS NOT NULL AND color_id NOT IN (SELECT id FROM color)',
+    'DO 0')
+    FROM information_schema.key_column_usage
+    WHERE table_schema = DATABASE() AND table_name = 'favorite' AND column_name = 'color_id'
+      AND referenced_table_name = 'color');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'ALTER TABLE favorite ADD FOREIGN KEY (color_id) REFERENCES color(id) ON DELETE SET NULL',
+    'DO 0')
+    FROM information_schema.key_column_usage
+    WHERE table_schema = DATABASE() AND table_name = 'favorite' AND column_name = 'color_id'
+      AND referenced_table_name = 'color');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- ==================================================
+-- SINCRONIZZAZIONE INCREMENTALE DEI PREFERITI
+-- ==================================================
+-- I preferiti esistenti restano con sync_version 0: un client senza versione riceve la lista completa
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'ALTER TABLE favorite ADD COLUMN sync_version BIGINT NOT NULL DEFAULT 0',
+    'DO 0')
+    FROM information_schema.columns
+    WHERE table_schema = DATABASE() AND table_name = 'favorite' AND column_name = 'sync_version');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'CREATE INDEX idx_user_sync_version ON favorite (user_id, sync_version)',
+    'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'favorite' AND index_name = 'idx_user_sync_version');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+CREATE TABLE IF NOT EXISTS user_favorite_version (
+    user_id VARCHAR(255) PRIMARY KEY,
+    version BIGINT NOT NULL,
+    pruned_version BIGINT NOT NULL DEFAULT 0
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE IF NOT EXISTS favorite_tombstone (
+    user_id VARCHAR(255) NOT NULL,
+    cocktail_id BIGINT NOT NULL,
+    sync_version BIGINT NOT NULL,
+    removed_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (user_id, cocktail_id),
+    INDEX idx_user_sync_version (user_id, sync_version),
+    INDEX idx_removed_at (removed_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,38 @@
+package com.cocktail.cocktaillist;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.MountableFile;
+
+/**
+ * Base dei test di integrazione su un MySQL 8 reale (Testcontainers), come in docker-compose.yml.
+ *
+ * Il container esegue init-db.sql al primo avvio, quindi lo schema e i dati di esempio sono
+ * quelli dell'applicazione; l'applicazione si collega al database "cocktails" con cocktail_user.
+ * Serve un MySQL vero perché le query di scrittura concorrente (ON DUPLICATE KEY, FOR SHARE,
+ * rollback del singolo statement su chiave duplicata) sono specifiche di MySQL/InnoDB.
+ *
+ * Il container è condiviso da tutte le classi di test (un solo contesto Spring) e viene avviato
+ * solo al primo uso; senza Docker i test vengono saltati.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class MySqlIntegrationTest {
+
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0")
+        .withCopyFileToContainer(MountableFile.forHostPath("init-db.sql"),
+            "/docker-entrypoint-initdb.d/init-db.sql");
+
+    @DynamicPropertySource
+    static void mysqlProperties(DynamicPropertyRegistry registry) {
+        MYSQL.start();
+        registry.add("spring.datasource.url", () -> "jdbc:mysql://" + MYSQL.getHost() + ":"
+            + MYSQL.getMappedPort(MySQLContainer.MYSQL_PORT) + "/cocktails?rewriteBatchedStatements=true");
+        registry.add("spring.datasource.username", () -> "cocktail_user");
+        registry.add("spring.datasource.password", () -> "cocktail_pass");
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+}
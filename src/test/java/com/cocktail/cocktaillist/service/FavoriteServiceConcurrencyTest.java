@@ -0,0 +1,92 @@
+package com.cocktail.cocktaillist.service;
+
+import com.cocktail.cocktaillist.MySqlIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Toggle concorrenti dello stesso preferito (FavoriteService.toggleFavorite), come un doppio tap:
+ * ogni toggle deve riuscire e gli esiti devono corrispondere alla tabella e a FavoriteCache.
+ */
+class FavoriteServiceConcurrencyTest extends MySqlIntegrationTest {
+
+    private static final int ROUNDS = 50;
+    private static final int MAX_TOGGLES_PER_ROUND = 4;
+
+    private static final String USER_ID = "toggle-concurrency-test";
+
+    /**
+     * Mojito, dai dati di esempio di init-db.sql
+     */
+    private static final long COCKTAIL_ID = 1L;
+
+    @Autowired
+    private FavoriteService favoriteService;
+
+    @Autowired
+    private FavoriteCache favoriteCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        favoriteService.clearUserFavorites(USER_ID);
+    }
+
+    @Test
+    void concurrentTogglesMatchTableAndCache() throws Exception {
+        // Utente già in cache: ogni toggle deve aggiornarla dopo il commit
+        assertThat(favoriteCache.get(USER_ID).contains(COCKTAIL_ID)).isFalse();
+
+        ExecutorService executor = Executors.newFixedThreadPool(MAX_TOGGLES_PER_ROUND);
+        int added = 0;
+        int removed = 0;
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                int toggles = 2 + round % (MAX_TOGGLES_PER_ROUND - 1);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Boolean>> results = new ArrayList<>();
+                for (int i = 0; i < toggles; i++) {
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        return favoriteService.toggleFavorite(USER_ID, COCKTAIL_ID);
+                    }));
+                }
+                start.countDown();
+
+                // get() rilancia l'eccezione di un toggle fallito
+                for (Future<Boolean> result : results) {
+                    if (result.get()) {
+                        added++;
+                    } else {
+                        removed++;
+                    }
+                }
+
+                long rows = favoriteRows();
+                assertThat(added - removed).as("round %d", round).isEqualTo(rows);
+                assertThat(favoriteCache.get(USER_ID).contains(COCKTAIL_ID)).as("round %d", round)
+                    .isEqualTo(rows == 1);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long favoriteRows() {
+        return jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM favorite WHERE user_id = ? AND cocktail_id = ?", Long.class, USER_ID, COCKTAIL_ID);
+    }
+}
@@ -0,0 +1,114 @@
+package com.cocktail.cocktaillist.service;
+
+import com.cocktail.cocktaillist.MySqlIntegrationTest;
+import com.cocktail.cocktaillist.dto.CocktailRequest;
+import com.cocktail.cocktaillist.dto.IngredientRequest;
+import com.cocktail.cocktaillist.model.Cocktail;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Creazione concorrente degli stessi ingredienti nuovi (IngredientService.findOrCreateIngredients):
+ * nessuna transazione deve fallire sul vincolo UNIQUE(name) e ogni nome deve avere una sola riga.
+ */
+class IngredientServiceConcurrencyTest extends MySqlIntegrationTest {
+
+    private static final int WRITERS = 64;
+
+    private static final String PREFIX = "Stress Ingredienti ";
+    private static final String YUZU = "Sciroppo di Yuzu";
+    private static final String RHUBARB = "Bitter al Rabarbaro";
+
+    @Autowired
+    private CocktailService cocktailService;
+
+    @Autowired
+    private IngredientService ingredientService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.queryForList("SELECT id FROM cocktail WHERE name LIKE ?", Long.class, PREFIX + "%")
+            .forEach(cocktailService::deleteCocktail);
+        jdbcTemplate.queryForList("SELECT id FROM ingredient WHERE name IN (?, ?)", Long.class, YUZU, RHUBARB)
+            .forEach(ingredientService::deleteIngredient);
+    }
+
+    @Test
+    void concurrentCocktailsShareOneRowPerNewIngredient() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        List<Future<Cocktail>> results = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < WRITERS; i++) {
+                CocktailRequest request = cocktailRequest(i);
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        return cocktailService.createCocktail(request);
+                    } catch (RuntimeException e) {
+                        failures.add(e);
+                        throw e;
+                    }
+                }));
+            }
+            start.countDown();
+            executor.shutdown();
+            assertThat(executor.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(failures).isEmpty();
+        for (Future<Cocktail> result : results) {
+            assertThat(result.get().getId()).isNotNull();
+        }
+
+        for (String name : List.of(YUZU, RHUBARB)) {
+            assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM ingredient WHERE name = ?", Long.class, name)).isEqualTo(1L);
+            assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM cocktail_ingredient ci JOIN ingredient i ON i.id = ci.ingredient_id "
+                + "WHERE i.name = ?", Long.class, name)).isEqualTo((long) WRITERS);
+            assertThat(jdbcTemplate.queryForObject(
+                "SELECT usage_count FROM ingredient WHERE name = ?", Long.class, name)).isEqualTo((long) WRITERS);
+        }
+    }
+
+    /**
+     * Ogni cocktail usa i due ingredienti nuovi (in ordine diverso a seconda del thread) e uno esistente
+     */
+    private static CocktailRequest cocktailRequest(int i) {
+        List<IngredientRequest> ingredients = new ArrayList<>(List.of(
+            new IngredientRequest(YUZU, "20ml"),
+            new IngredientRequest(RHUBARB, "10ml")
+        ));
+        if (i % 2 == 1) {
+            Collections.reverse(ingredients);
+        }
+        ingredients.add(new IngredientRequest("Gin", "40ml"));
+
+        CocktailRequest request = new CocktailRequest();
+        request.setName(PREFIX + i);
+        request.setIngredients(ingredients);
+        return request;
+    }
+}